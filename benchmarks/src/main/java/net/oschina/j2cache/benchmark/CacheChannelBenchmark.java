@@ -0,0 +1,127 @@
+package net.oschina.j2cache.benchmark;
+
+import net.oschina.j2cache.config.J2CacheBuilder;
+import net.oschina.j2cache.config.J2CacheProperties;
+import net.oschina.j2cache.model.CacheObject;
+import net.oschina.j2cache.service.cache.Cache;
+import net.oschina.j2cache.service.cache.CacheChannel;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ClassName: CacheChannelBenchmark
+ * Package: net.oschina.j2cache.benchmark
+ * Description:
+ * <p>CacheChannel 读取路径的基准测试：L1 命中、L2 命中、未命中走 loader、批量读取</p>
+ * <p>L1 为 Caffeine，L2 为进程内的 InMemoryCacheProvider，广播为 none，
+ * 因此结果反映的是框架自身（含序列化）的开销，不包含网络</p>
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 18:20
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CacheChannelBenchmark {
+
+    private final static String REGION = "bench";
+    private final static int KEYS = 10000;
+    private final static int BATCH = 100;
+
+    @Param({"small", "nested"})
+    public String payload;
+
+    private J2CacheBuilder builder;
+    private CacheChannel channel;
+    private Cache level1;
+    private Object value;
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        J2CacheProperties config = new J2CacheProperties();
+        config.setBroadcast("none");
+        config.setL1CacheName("caffeine");
+        config.setL2CacheName(InMemoryCacheProvider.class.getName());
+        config.setSerialization("fastjson");
+        Properties l1 = new Properties();
+        l1.setProperty("region.default", (KEYS * 2) + ",1h");
+        config.setL1CacheProperties(l1);
+        config.setL2CacheProperties(new Properties());
+        config.setBroadcastProperties(new Properties());
+
+        builder = J2CacheBuilder.init(config);
+        channel = builder.getChannel();
+        level1 = channel.getL1Provider().buildCache(REGION, (region, key) -> {});
+        value = Payloads.create(payload);
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "key:" + i;
+            channel.set(REGION, keys[i], value);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        builder.close();
+    }
+
+    private String randomKey() {
+        return keys[ThreadLocalRandom.current().nextInt(KEYS)];
+    }
+
+    @Benchmark
+    @Threads(4)
+    public CacheObject l1Hit() {
+        return channel.get(REGION, randomKey());
+    }
+
+    /**
+     * 每次读取前先清除 L1，结果包含一次 Caffeine invalidate 的开销
+     */
+    @Benchmark
+    @Threads(4)
+    public CacheObject l2Hit() {
+        String key = randomKey();
+        level1.evict(key);
+        return channel.get(REGION, key);
+    }
+
+    /**
+     * 每次读取前先清除 L1/L2，结果包含一次 evict 的开销
+     */
+    @Benchmark
+    @Threads(4)
+    public CacheObject missWithLoader() {
+        String key = randomKey();
+        channel.evict(REGION, key);
+        return channel.get(REGION, key, k -> value);
+    }
+
+    /**
+     * 批量读取 BATCH 个 key，其中一半需要从 L2 读取
+     */
+    @Benchmark
+    @Threads(4)
+    public Map<String, CacheObject> batch() {
+        int from = ThreadLocalRandom.current().nextInt(KEYS - BATCH);
+        List<String> batch = new ArrayList<>(BATCH);
+        for (int i = from; i < from + BATCH; i++) {
+            batch.add(keys[i]);
+            if ((i & 1) == 0)
+                level1.evict(keys[i]);
+        }
+        return channel.get(REGION, batch);
+    }
+
+}
@@ -0,0 +1,63 @@
+package net.oschina.j2cache.benchmark;
+
+import net.oschina.j2cache.model.CacheObject;
+import net.oschina.j2cache.service.cache.Cache;
+import net.oschina.j2cache.service.cache.CacheChannel;
+import net.oschina.j2cache.service.cache.CacheExpiredListener;
+import net.oschina.j2cache.service.cache.CacheProvider;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ClassName: InMemoryCacheProvider
+ * Package: net.oschina.j2cache.benchmark
+ * Description: 进程内的二级缓存，用于在没有 Redis 的环境下测试 CacheChannel（数据仍然经过序列化）
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 18:02
+ */
+public class InMemoryCacheProvider implements CacheProvider {
+
+    private final ConcurrentHashMap<String, InMemoryLevel2Cache> regions = new ConcurrentHashMap<>();
+
+    @Override
+    public String name() {
+        return "memory";
+    }
+
+    @Override
+    public int level() {
+        return CacheObject.LEVEL_2;
+    }
+
+    @Override
+    public Cache buildCache(String region, CacheExpiredListener listener) {
+        return regions.computeIfAbsent(region, r -> new InMemoryLevel2Cache());
+    }
+
+    @Override
+    public Cache buildCache(String region, long timeToLiveInSeconds, CacheExpiredListener listener) {
+        return buildCache(region, listener);
+    }
+
+    @Override
+    public Collection<CacheChannel.Region> regions() {
+        Collection<CacheChannel.Region> result = new ArrayList<>();
+        regions.forEach((k, c) -> result.add(new CacheChannel.Region(k, c.keys().size(), 0)));
+        return result;
+    }
+
+    @Override
+    public void start(Properties props) {
+    }
+
+    @Override
+    public void stop() {
+        regions.clear();
+    }
+
+}
@@ -0,0 +1,68 @@
+package net.oschina.j2cache.benchmark;
+
+import net.oschina.j2cache.service.cache.Level2Cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ClassName: InMemoryLevel2Cache
+ * Package: net.oschina.j2cache.benchmark
+ * Description: 基于 ConcurrentHashMap 的二级缓存，只保存序列化后的字节数组
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 18:02
+ */
+public class InMemoryLevel2Cache implements Level2Cache {
+
+    private final ConcurrentHashMap<String, byte[]> store = new ConcurrentHashMap<>();
+
+    @Override
+    public byte[] getBytes(String key) {
+        return store.get(key);
+    }
+
+    @Override
+    public List<byte[]> getBytes(Collection<String> keys) {
+        List<byte[]> values = new ArrayList<>(keys.size());
+        for (String key : keys)
+            values.add(store.get(key));
+        return values;
+    }
+
+    @Override
+    public void setBytes(String key, byte[] bytes) {
+        store.put(key, bytes);
+    }
+
+    @Override
+    public void setBytes(Map<String, byte[]> bytes) {
+        store.putAll(bytes);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return store.containsKey(key);
+    }
+
+    @Override
+    public Collection<String> keys() {
+        return new ArrayList<>(store.keySet());
+    }
+
+    @Override
+    public void evict(String... keys) {
+        for (String key : keys)
+            store.remove(key);
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+    }
+
+}
@@ -0,0 +1,50 @@
+package net.oschina.j2cache.benchmark;
+
+import net.oschina.j2cache.util.KeyEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ClassName: KeyEncoderBenchmark
+ * Package: net.oschina.j2cache.benchmark
+ * Description:
+ * <p>Redis key 编码：原来的 region + ":" + key 再 getBytes 与 KeyEncoder 的对比</p>
+ * <p>使用 -prof gc 运行可以看到每次操作的内存分配（gc.alloc.rate.norm）</p>
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 18:55
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class KeyEncoderBenchmark {
+
+    private final static String REGION = "j2cache:Users";
+
+    @Param({"user:10001:profile", "用户:10001:资料"})
+    public String key;
+
+    private KeyEncoder encoder;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        encoder = new KeyEncoder(REGION + ":");
+    }
+
+    @Benchmark
+    public byte[] concatAndGetBytes() {
+        return (REGION + ":" + key).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public byte[] keyEncoder() {
+        return encoder.encode(key);
+    }
+
+}
@@ -0,0 +1,103 @@
+package net.oschina.j2cache.benchmark;
+
+import net.oschina.j2cache.service.cache.Cache;
+import net.oschina.j2cache.service.cache.CacheProvider;
+import net.oschina.j2cache.service.cache.impl.caffeine.CaffeineProvider;
+import net.oschina.j2cache.service.cache.impl.ehcache.EhCacheProvider;
+import net.oschina.j2cache.service.cache.impl.ehcache.EhCacheProvider3;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ClassName: L1ProviderBenchmark
+ * Package: net.oschina.j2cache.benchmark
+ * Description:
+ * <p>一级缓存 Provider 在多线程竞争下的吞吐量：纯读（8 线程）以及读写混合（6 读 2 写）</p>
+ * <p>所有 Provider 都通过 buildCache(region, ttl) 创建相同容量、相同 TTL 的区域</p>
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 18:45
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class L1ProviderBenchmark {
+
+    private final static String REGION = "bench";
+    private final static int KEYS = 100000;
+    private final static long TTL = 3600;
+
+    @Param({"caffeine", "ehcache", "ehcache3"})
+    public String provider;
+
+    private CacheProvider cacheProvider;
+    private Cache cache;
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Properties props = new Properties();
+        switch (provider) {
+            case "caffeine":
+                cacheProvider = new CaffeineProvider();
+                props.setProperty("region.default", KEYS + "," + TTL + "s");
+                break;
+            case "ehcache":
+                cacheProvider = new EhCacheProvider();
+                props.setProperty(EhCacheProvider.KEY_EHCACHE_CONFIG_XML, "/ehcache.xml");
+                break;
+            case "ehcache3":
+                cacheProvider = new EhCacheProvider3();
+                props.setProperty("configXml", "/ehcache3.xml");
+                props.setProperty("defaultHeapSize", String.valueOf(KEYS));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown provider:" + provider);
+        }
+        cacheProvider.start(props);
+        cache = cacheProvider.buildCache(REGION, TTL, (region, key) -> {});
+        keys = new String[KEYS];
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "key:" + i;
+            cache.put(keys[i], "value:" + i);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cacheProvider.stop();
+    }
+
+    private String randomKey() {
+        return keys[ThreadLocalRandom.current().nextInt(KEYS)];
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Object read() {
+        return cache.get(randomKey());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(6)
+    public Object mixedRead() {
+        return cache.get(randomKey());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public void mixedWrite() {
+        String key = randomKey();
+        cache.put(key, key);
+    }
+
+}
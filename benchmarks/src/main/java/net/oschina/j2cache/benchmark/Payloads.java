@@ -0,0 +1,94 @@
+package net.oschina.j2cache.benchmark;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ClassName: Payloads
+ * Package: net.oschina.j2cache.benchmark
+ * Description: 基准测试使用的缓存对象：small 为少量字段的对象，large 为 16KB 的文本，nested 为多层嵌套的集合
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 18:10
+ */
+public class Payloads {
+
+    private Payloads() {}
+
+    public static Object create(String type) {
+        switch (type) {
+            case "small":
+                return new User(10001L, "j2cache", "j2cache@oschina.net", 18);
+            case "large":
+                StringBuilder text = new StringBuilder();
+                while (text.length() < 16 * 1024)
+                    text.append("J2Cache is a two-level cache framework for Java. ");
+                return text.toString();
+            case "nested":
+                Map<String, List<User>> groups = new HashMap<>();
+                for (int g = 0; g < 10; g++) {
+                    List<User> users = new ArrayList<>();
+                    for (int u = 0; u < 10; u++)
+                        users.add(new User(g * 100L + u, "user-" + g + "-" + u, "user" + u + "@oschina.net", 20 + u));
+                    groups.put("group-" + g, users);
+                }
+                return new HashMap<>(groups);
+            default:
+                throw new IllegalArgumentException("Unknown payload:" + type);
+        }
+    }
+
+    public static class User implements Serializable {
+
+        private long id;
+        private String name;
+        private String email;
+        private int age;
+
+        public User() {}
+
+        public User(long id, String name, String email, int age) {
+            this.id = id;
+            this.name = name;
+            this.email = email;
+            this.age = age;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public void setId(long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public void setEmail(String email) {
+            this.email = email;
+        }
+
+        public int getAge() {
+            return age;
+        }
+
+        public void setAge(int age) {
+            this.age = age;
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+package net.oschina.j2cache.benchmark;
+
+import net.oschina.j2cache.service.cache.Level2Cache;
+import net.oschina.j2cache.service.cache.impl.redis.RedisCacheProvider;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ClassName: RedisKeyLayoutBenchmark
+ * Package: net.oschina.j2cache.benchmark
+ * Description:
+ * <p>generic 存储两种 key 布局的批量读写对比：legacy（namespace:region:key，按 slot 拆分后分别发送）
+ * 与 hashtag（namespace:{region}:key，同一个区域的 key 在同一个 slot，一条命令完成）</p>
+ * <p>需要一个 Redis Cluster，通过系统属性指定（单机模式下两种布局都是一条命令，差异不大）：</p>
+ * <pre>
+ * java -Dj2cache.bench.redis.hosts=127.0.0.1:7000,127.0.0.1:7001,127.0.0.1:7002 \
+ *      -jar benchmarks/target/benchmarks.jar RedisKeyLayout
+ * </pre>
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 23:40
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RedisKeyLayoutBenchmark {
+
+    private final static String REGION = "bench";
+    private final static int KEYS = 10000;
+
+    @Param({"legacy", "hashtag"})
+    public String keyLayout;
+
+    @Param({"10", "100"})
+    public int batch;
+
+    private RedisCacheProvider provider;
+    private Level2Cache cache;
+    private byte[] value;
+    private String[] keys;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Properties props = new Properties();
+        props.setProperty("mode", System.getProperty("j2cache.bench.redis.mode", "cluster"));
+        props.setProperty("hosts", System.getProperty("j2cache.bench.redis.hosts", "127.0.0.1:7000,127.0.0.1:7001,127.0.0.1:7002"));
+        props.setProperty("namespace", "j2cache-bench");
+        props.setProperty("storage", "generic");
+        props.setProperty("keyLayout", keyLayout);
+        props.setProperty("keyLayoutFallback", "false");    //只比较布局本身，全部命中时回退不会发生
+        provider = new RedisCacheProvider();
+        provider.start(props);
+        cache = (Level2Cache) provider.buildCache(REGION, (region, key) -> {});
+
+        value = new byte[256];
+        Arrays.fill(value, (byte) 'x');
+        keys = new String[KEYS];
+        Map<String, byte[]> data = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            keys[i] = "key:" + i;
+            data.put(keys[i], value);
+            if (data.size() == 500) {
+                cache.setBytes(data);
+                data.clear();
+            }
+        }
+        if (!data.isEmpty())
+            cache.setBytes(data);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        cache.clear();
+        provider.stop();
+    }
+
+    private List<String> randomKeys() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<String> batchKeys = new ArrayList<>(batch);
+        for (int i = 0; i < batch; i++)
+            batchKeys.add(keys[random.nextInt(KEYS)]);
+        return batchKeys;
+    }
+
+    /**
+     * 批量读取（MGET）
+     */
+    @Benchmark
+    public List<byte[]> bulkGet() {
+        return cache.getBytes(randomKeys());
+    }
+
+    /**
+     * 批量写入（MSET / pipeline SET）
+     */
+    @Benchmark
+    public void bulkSet() {
+        Map<String, byte[]> data = new HashMap<>(batch * 2);
+        for (String key : randomKeys())
+            data.put(key, value);
+        cache.setBytes(data);
+    }
+
+}
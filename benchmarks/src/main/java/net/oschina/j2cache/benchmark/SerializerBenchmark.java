@@ -0,0 +1,62 @@
+package net.oschina.j2cache.benchmark;
+
+import net.oschina.j2cache.util.serializer.Serializer;
+import net.oschina.j2cache.util.serializer.SerializerFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ClassName: SerializerBenchmark
+ * Package: net.oschina.j2cache.benchmark
+ * Description: SerializerFactory 中所有序列化方式在不同大小/结构数据上的序列化与反序列化耗时
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 18:35
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {
+        "--add-opens=java.base/java.lang=ALL-UNNAMED",
+        "--add-opens=java.base/java.util=ALL-UNNAMED",
+        "--add-opens=java.base/java.math=ALL-UNNAMED",
+        "--add-opens=java.base/java.net=ALL-UNNAMED",
+        "--add-opens=java.base/java.text=ALL-UNNAMED",
+        "--add-opens=java.base/java.util.concurrent=ALL-UNNAMED"
+})
+@State(Scope.Benchmark)
+public class SerializerBenchmark {
+
+    @Param({"java", "fst", "kryo", "kryo-pool", "fst-snappy", "json", "fastjson", "fse"})
+    public String serializer;
+
+    @Param({"small", "large", "nested"})
+    public String payload;
+
+    private Serializer ser;
+    private Object value;
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        ser = SerializerFactory.createSerializer(serializer, new Properties());
+        value = Payloads.create(payload);
+        bytes = ser.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return ser.serialize(value);
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException {
+        return ser.deserialize(bytes);
+    }
+
+}
@@ -0,0 +1,99 @@
+package net.oschina.j2cache.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import net.oschina.j2cache.service.metrics.CacheMetrics;
+import net.oschina.j2cache.service.metrics.RegionMetrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * ClassName: J2CacheMeterBinder
+ * Package: net.oschina.j2cache.config
+ * Description:
+ * <p>把 CacheMetrics 中的统计注册到 Micrometer</p>
+ * <p>命中/未命中、序列化、广播使用 FunctionCounter/FunctionTimer 直接读取 LongAdder，
+ * 热点路径上不经过 Micrometer；二级缓存读取与 loader 的耗时需要分位数，使用 Timer 记录</p>
+ *
+ * <ul>
+ *     <li>j2cache.gets{region, result=l1_hit|l2_hit|miss}</li>
+ *     <li>j2cache.level2.latency{region}</li>
+ *     <li>j2cache.loads{region}、j2cache.load.failures{region}</li>
+ *     <li>j2cache.serialization{op=serialize|deserialize}、j2cache.serialization.bytes{op}</li>
+ *     <li>j2cache.broadcast{direction=publish|receive|drop}、j2cache.broadcast.queue</li>
+ * </ul>
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 19:40
+ */
+public class J2CacheMeterBinder implements MeterBinder {
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CacheMetrics.onRegion(region -> bindRegion(registry, region));
+
+        FunctionTimer.builder("j2cache.serialization", CacheMetrics.class,
+                        c -> CacheMetrics.getSerializeCount(), c -> CacheMetrics.getSerializeNanos(), TimeUnit.NANOSECONDS)
+                .tag("op", "serialize")
+                .description("Time spent serializing cache values")
+                .register(registry);
+        FunctionTimer.builder("j2cache.serialization", CacheMetrics.class,
+                        c -> CacheMetrics.getDeserializeCount(), c -> CacheMetrics.getDeserializeNanos(), TimeUnit.NANOSECONDS)
+                .tag("op", "deserialize")
+                .description("Time spent deserializing cache values")
+                .register(registry);
+        counter(registry, "j2cache.serialization.bytes", "op", "serialize", c -> CacheMetrics.getSerializeBytes());
+        counter(registry, "j2cache.serialization.bytes", "op", "deserialize", c -> CacheMetrics.getDeserializeBytes());
+
+        counter(registry, "j2cache.broadcast", "direction", "publish", c -> CacheMetrics.getBroadcastPublished());
+        counter(registry, "j2cache.broadcast", "direction", "receive", c -> CacheMetrics.getBroadcastReceived());
+        counter(registry, "j2cache.broadcast", "direction", "drop", c -> CacheMetrics.getBroadcastDropped());
+        Gauge.builder("j2cache.broadcast.queue", CacheMetrics.class, c -> CacheMetrics.getBroadcastQueueDepth())
+                .description("Number of broadcast messages waiting to be published")
+                .register(registry);
+    }
+
+    private void bindRegion(MeterRegistry registry, RegionMetrics region) {
+        gets(registry, region, "l1_hit", RegionMetrics::getL1Hits);
+        gets(registry, region, "l2_hit", RegionMetrics::getL2Hits);
+        gets(registry, region, "miss", RegionMetrics::getMisses);
+
+        FunctionCounter.builder("j2cache.load.failures", region, RegionMetrics::getLoadFailures)
+                .tag("region", region.getRegion())
+                .description("Number of loader invocations that threw an exception")
+                .register(registry);
+
+        Timer level2 = Timer.builder("j2cache.level2.latency")
+                .tag("region", region.getRegion())
+                .description("Latency of level 2 cache reads")
+                .publishPercentileHistogram()
+                .register(registry);
+        Timer loads = Timer.builder("j2cache.loads")
+                .tag("region", region.getRegion())
+                .description("Duration of loader invocations on cache miss")
+                .publishPercentileHistogram()
+                .register(registry);
+        region.setL2Recorder(nanos -> level2.record(nanos, TimeUnit.NANOSECONDS));
+        region.setLoadRecorder(nanos -> loads.record(nanos, TimeUnit.NANOSECONDS));
+    }
+
+    private static void gets(MeterRegistry registry, RegionMetrics region, String result, ToDoubleFunction<RegionMetrics> count) {
+        FunctionCounter.builder("j2cache.gets", region, count)
+                .tags("region", region.getRegion(), "result", result)
+                .description("Number of cache reads by the level that served them")
+                .register(registry);
+    }
+
+    private static void counter(MeterRegistry registry, String name, String tag, String value, ToDoubleFunction<Class<CacheMetrics>> count) {
+        FunctionCounter.builder(name, CacheMetrics.class, count)
+                .tag(tag, value)
+                .register(registry);
+    }
+
+}
@@ -2,7 +2,9 @@ package net.oschina.j2cache.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.HashSet;
 import java.util.Properties;
+import java.util.Set;
 
 /**
  * ClassName: J2CacheProperties
@@ -28,6 +30,10 @@ public class J2CacheProperties {
     private String serialization = "fastjson";
     private boolean syncTtlToRedis = true;
     private boolean defaultCacheNullObject = false;
+    /**
+     * 并行写入的区域：一级缓存更新之后，二级缓存写入与广播同时发出
+     */
+    private Set<String> parallelWriteRegions = new HashSet<>();
 
     /**
      * read sub properties by prefix
@@ -123,6 +129,14 @@ public class J2CacheProperties {
         this.defaultCacheNullObject = defaultCacheNullObject;
     }
 
+    public Set<String> getParallelWriteRegions() {
+        return parallelWriteRegions;
+    }
+
+    public void setParallelWriteRegions(Set<String> parallelWriteRegions) {
+        this.parallelWriteRegions = parallelWriteRegions;
+    }
+
     public String toString() {
         return "properties{" +
                 "broadcastProperties=" + broadcastProperties +
@@ -134,6 +148,7 @@ public class J2CacheProperties {
                 ", serialization='" + serialization + '\'' +
                 ", syncTtlToRedis=" + syncTtlToRedis +
                 ", defaultCacheNullObject=" + defaultCacheNullObject +
+                ", parallelWriteRegions=" + parallelWriteRegions +
                 '}';
     }
 
@@ -1,5 +1,9 @@
 package net.oschina.j2cache.config;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
@@ -16,6 +20,10 @@ import org.springframework.context.annotation.Configuration;
  */
 
 @Configuration
+@AutoConfigureAfter(name = {
+        "org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration",
+        "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration"
+})
 @EnableConfigurationProperties(J2CacheProperties.class)
 public class J2CachePropertiesAutoConfiguration {
 
@@ -31,4 +39,20 @@ public class J2CachePropertiesAutoConfiguration {
         return J2Cache.getInstance(properties);
     }
 
+    /**
+     * 存在 MeterRegistry 时把缓存统计注册到 Micrometer
+     */
+    @Configuration
+    @ConditionalOnClass(MeterRegistry.class)
+    static class J2CacheMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnBean(MeterRegistry.class)
+        @ConditionalOnMissingBean(J2CacheMeterBinder.class)
+        public J2CacheMeterBinder j2CacheMeterBinder() {
+            return new J2CacheMeterBinder();
+        }
+
+    }
+
 }
\ No newline at end of file
@@ -24,10 +24,15 @@ public class Command {
     public final static byte OPT_CLEAR_KEY = 0x03; 	//清除缓存
     public final static byte OPT_QUIT 	   = 0x04;	//退出集群
 
+    public final static int PROTOCOL_VERSION = 2;   //2: 支持二进制格式的节点
+    public final static String JOIN_REPLY = "#reply";   //JOIN 应答的 region，收到应答的节点不再回复
+
     private int src;
     private int operator;
     private String region;
     private String[] keys;
+    private int version;    //发送节点的协议版本，旧版本节点发送的 JSON 中没有该字段（为 0）
+    private long stamp;     //evict 命令：二级缓存写入完成的时间（毫秒），0 表示未知
 
     public static int genRandomSrc() {
         long ct = System.currentTimeMillis();
@@ -47,6 +52,13 @@ public class Command {
         return new Command(OPT_JOIN, null);
     }
 
+    /**
+     * 对其他节点 JOIN 的应答，用于向新加入的节点宣告本节点的协议版本
+     */
+    public static Command joinReply() {
+        return new Command(OPT_JOIN, JOIN_REPLY);
+    }
+
     public static Command quit() {
         return new Command(OPT_QUIT, null);
     }
@@ -80,6 +92,22 @@ public class Command {
         return src;
     }
 
+    public int getVersion() {
+        return version;
+    }
+
+    public void setVersion(int version) {
+        this.version = version;
+    }
+
+    public long getStamp() {
+        return stamp;
+    }
+
+    public void setStamp(long stamp) {
+        this.stamp = stamp;
+    }
+
     public void setSrc(int src) {
         this.src = src;
     }
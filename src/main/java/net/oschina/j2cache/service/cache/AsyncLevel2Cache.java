@@ -0,0 +1,125 @@
+package net.oschina.j2cache.service.cache;
+
+import net.oschina.j2cache.exception.CacheException;
+import net.oschina.j2cache.exception.DeserializeException;
+import net.oschina.j2cache.util.serializer.SerializationUtils;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * ClassName: AsyncLevel2Cache
+ * Package: net.oschina.j2cache.service.cache
+ * Description: 支持异步操作的二级缓存接口，所有方法立即返回 CompletableFuture
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 11:05
+ */
+public interface AsyncLevel2Cache extends Level2Cache {
+
+    /**
+     * 异步读取缓存数据字节数组
+     * @param key cache key
+     * @return cache data
+     */
+    CompletableFuture<byte[]> getBytesAsync(String key);
+
+    /**
+     * 异步同时读取多个 Key，结果顺序与 keys 一致
+     * @param keys multiple cache key
+     * @return cache values
+     */
+    CompletableFuture<List<byte[]>> getBytesAsync(Collection<String> keys);
+
+    /**
+     * 异步设置缓存数据字节数组
+     * @param key cache key
+     * @param bytes cache data
+     * @param timeToLiveInSeconds cache ttl, 小于等于 0 表示不设置有效期
+     * @return future
+     */
+    CompletableFuture<Void> setBytesAsync(String key, byte[] bytes, long timeToLiveInSeconds);
+
+    /**
+     * 异步批量设置缓存数据
+     * @param bytes cache data
+     * @param timeToLiveInSeconds cache ttl, 小于等于 0 表示不设置有效期
+     * @return future
+     */
+    CompletableFuture<Void> setBytesAsync(Map<String, byte[]> bytes, long timeToLiveInSeconds);
+
+    /**
+     * 异步删除缓存数据
+     * @param keys cache keys
+     * @return future
+     */
+    CompletableFuture<Void> evictAsync(String... keys);
+
+    /**
+     * 异步分批清除缓存数据，每删除一批后通过 progress 报告累计删除的数量
+     * 默认实现在调用线程中执行 clear(progress)
+     * @param progress 累计删除的数量
+     * @return 删除的数量，无法统计时为 -1
+     */
+    default CompletableFuture<Long> clearAsync(LongConsumer progress) {
+        try {
+            return CompletableFuture.completedFuture(clear(progress));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    default CompletableFuture<Object> getAsync(String key) {
+        return getBytesAsync(key).thenApply(bytes -> deserialize(key, bytes));
+    }
+
+    default CompletableFuture<Map<String, Object>> getAsync(Collection<String> keys) {
+        if (keys.isEmpty())
+            return CompletableFuture.completedFuture(new HashMap<>());
+        return getBytesAsync(keys).thenApply(bytes -> {
+            Map<String, Object> results = new HashMap<>();
+            int i = 0;
+            for (String key : keys)
+                results.put(key, deserialize(key, bytes.get(i++)));
+            return results;
+        });
+    }
+
+    default CompletableFuture<Void> putAsync(String key, Object value, long timeToLiveInSeconds) {
+        try {
+            return setBytesAsync(key, SerializationUtils.serialize(value), timeToLiveInSeconds);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new CacheException(e));
+        }
+    }
+
+    default CompletableFuture<Void> putAsync(Map<String, Object> elements, long timeToLiveInSeconds) {
+        if (elements.isEmpty())
+            return CompletableFuture.completedFuture(null);
+        try {
+            return setBytesAsync(elements.entrySet().stream().collect(Collectors.toMap(p -> p.getKey(), p -> SerializationUtils.serializeWithoutException(p.getValue()))), timeToLiveInSeconds);
+        } catch (CacheException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private Object deserialize(String key, byte[] bytes) {
+        try {
+            return SerializationUtils.deserialize(bytes);
+        } catch (DeserializeException e) {
+            log.warn("Failed to deserialize object with key:" + key + ",message: " + e.getMessage());
+            evictAsync(key);
+            return null;
+        } catch (IOException e) {
+            throw new CacheException(e);
+        }
+    }
+
+}
@@ -0,0 +1,83 @@
+package net.oschina.j2cache.service.cache;
+
+import net.oschina.j2cache.exception.CacheException;
+import net.oschina.j2cache.exception.DeserializeException;
+import net.oschina.j2cache.util.serializer.SerializationUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+
+/**
+ * ClassName: BytesLevel1Cache
+ * Package: net.oschina.j2cache.service.cache
+ * Description:
+ * <p>以序列化后的字节保存数据的一级缓存，二级缓存读取到的字节可以直接写入，不需要先反序列化再序列化</p>
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 22:00
+ */
+public interface BytesLevel1Cache extends Level1Cache {
+
+    Logger log = LoggerFactory.getLogger(BytesLevel1Cache.class);
+
+    /**
+     * 读取序列化后的数据
+     * @param key cache key
+     * @return serialized bytes, null if not exists
+     */
+    byte[] getBytes(String key);
+
+    /**
+     * 直接写入序列化后的数据（与 SerializationUtils.serialize 的结果格式相同）
+     * @param key cache key
+     * @param bytes serialized bytes
+     */
+    void putBytes(String key, byte[] bytes);
+
+    /**
+     * 直接写入从二级缓存读取到的序列化数据，readTime 的含义与 {@link Level1Cache#putRead(String, Object, long)} 相同
+     * @param key cache key
+     * @param bytes serialized bytes
+     * @param readTime 开始读取二级缓存的时间（毫秒）
+     */
+    default void putBytes(String key, byte[] bytes, long readTime) {
+        putBytes(key, bytes);
+        evictIfLate(readTime, key);
+    }
+
+    /**
+     * 将二级缓存读取到的字节直接写入一级缓存，并返回反序列化后的对象（调用者需要返回该对象，只反序列化一次）
+     * @param key cache key
+     * @param bytes serialized bytes read from level 2 cache
+     * @return deserialized value, null if bytes is null or cannot be deserialized
+     */
+    default Object promote(String key, byte[] bytes) {
+        return promote(key, bytes, System.currentTimeMillis());
+    }
+
+    /**
+     * 将二级缓存读取到的字节直接写入一级缓存，并返回反序列化后的对象
+     * @param key cache key
+     * @param bytes serialized bytes read from level 2 cache
+     * @param readTime 开始读取二级缓存的时间（毫秒）
+     * @return deserialized value, null if bytes is null or cannot be deserialized
+     */
+    default Object promote(String key, byte[] bytes, long readTime) {
+        if (bytes == null || bytes.length == 0)
+            return null;
+        try {
+            Object value = SerializationUtils.deserialize(bytes);
+            if (value != null)
+                putBytes(key, bytes, readTime);
+            return value;
+        } catch (DeserializeException e) {
+            log.warn("Failed to deserialize object with key:" + key + ",message: " + e.getMessage());
+            return null;
+        } catch (IOException e) {
+            throw new CacheException(e);
+        }
+    }
+
+}
@@ -1,6 +1,7 @@
 package net.oschina.j2cache.service.cache;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.Map;
 
 /**
@@ -60,6 +61,17 @@ public interface Cache {
      */
     Collection<String> keys();
 
+    /**
+     * 分页遍历所有的 key，每次只从存储中读取一页，适用于 key 数量很大的区域
+     * 默认实现直接遍历 keys()（Caffeine 等内存缓存返回的是 Map 的视图，本身就是惰性的）
+     *
+     * @param pageSize 每一页的 key 数量（提示值，实际数量由存储决定）
+     * @return key iterator
+     */
+    default Iterator<String> scanKeys(int pageSize) {
+        return keys().iterator();
+    }
+
     /**
      * Remove items from the cache
      *
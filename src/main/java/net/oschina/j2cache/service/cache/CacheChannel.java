@@ -1,15 +1,35 @@
 package net.oschina.j2cache.service.cache;
 
 import net.oschina.j2cache.config.J2CacheProperties;
+import net.oschina.j2cache.exception.CacheException;
 import net.oschina.j2cache.model.CacheObject;
 import net.oschina.j2cache.model.NullObject;
 import net.oschina.j2cache.service.cache.impl.CacheProviderHolder;
+import net.oschina.j2cache.service.metrics.CacheMetrics;
+import net.oschina.j2cache.service.metrics.RegionMetrics;
+import net.oschina.j2cache.util.serializer.SerializationUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.Closeable;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * ClassName: CacheChannel
@@ -22,7 +42,16 @@ import java.util.stream.Collectors;
  */
 public abstract class CacheChannel implements Closeable, AutoCloseable {
 
-    private static final Map<String, Object> _g_keyLocks = new ConcurrentHashMap<>();
+    private final static Logger log = LoggerFactory.getLogger(CacheChannel.class);
+
+    private final static int REFRESH_THREADS = 2;
+    private final static int REFRESH_QUEUE_SIZE = 1024;
+    private final static int SCAN_DEDUP_LIMIT = 100_000;
+
+    private final SingleFlight level2Flight = new SingleFlight();
+    private final SingleFlight loaderFlight = new SingleFlight();
+    private final Set<Map.Entry<String, String>> refreshing = ConcurrentHashMap.newKeySet();
+    private final ThreadPoolExecutor refresher = newRefresher();    //refresh-ahead，以及二级缓存不支持异步时的 clearAsync
     private J2CacheProperties config;
     private CacheProviderHolder holder;
     private boolean defaultCacheNullObject ;
@@ -39,11 +68,19 @@ public abstract class CacheChannel implements Closeable, AutoCloseable {
         return new NullObject();
     }
 
-    private void assertNotClose() {
+    void assertNotClose() {
         if(closed)
             throw new IllegalStateException("CacheChannel closed");
     }
 
+    CacheProviderHolder holder() {
+        return holder;
+    }
+
+    boolean isDefaultCacheNullObject() {
+        return defaultCacheNullObject;
+    }
+
     /**
      * <p>Just for Inner Use.</p>
      *
@@ -71,36 +108,36 @@ public abstract class CacheChannel implements Closeable, AutoCloseable {
      * @return cache object
      */
     public CacheObject get(String region, String key, boolean...cacheNullObject)  {
+        return CacheMetrics.record(read(region, key, cacheNullObject));
+    }
 
-        this.assertNotClose();
-
-        CacheObject obj = new CacheObject(region, key, CacheObject.LEVEL_1);
-        obj.setValue(holder.getLevel1Cache(region).get(key));
-        if(obj.rawValue() != null)
-            return obj;
+    /**
+     * 读取缓存，不记录命中统计（由调用者根据最终结果记录）
+     */
+    private CacheObject read(String region, String key, boolean...cacheNullObject) {
 
-        String lock_key = key + '%' + region;
-        synchronized (_g_keyLocks.computeIfAbsent(lock_key, v -> new Object())) {
-            obj.setValue(holder.getLevel1Cache(region).get(key));
-            if(obj.rawValue() != null)
-                return obj;
+        this.assertNotClose();
 
-            try {
-                obj.setLevel(CacheObject.LEVEL_2);
-                obj.setValue(holder.getLevel2Cache(region).get(key));
-                if (obj.rawValue() != null) {
-                    holder.getLevel1Cache(region).put(key, obj.rawValue());
-                }else {
-                    boolean cacheNull = (cacheNullObject.length > 0) ? cacheNullObject[0] : defaultCacheNullObject;
-                    if (cacheNull)
-                        set(region, key, newNullObject(), true);
-                }
-            } finally {
-                _g_keyLocks.remove(lock_key);
+        Object value = holder.getLevel1Cache(region).get(key);
+        if(value != null)
+            return new CacheObject(region, key, CacheObject.LEVEL_1, value);
+
+        //同一个 key 的并发读取只穿透一次二级缓存
+        CacheObject obj = level2Flight.execute(region, key, () -> {
+            Object l1Value = holder.getLevel1Cache(region).get(key);
+            if(l1Value != null)
+                return new CacheObject(region, key, CacheObject.LEVEL_1, l1Value);
+
+            Object l2Value = readLevel2(region, key);
+            if (l2Value == null) {
+                boolean cacheNull = (cacheNullObject.length > 0) ? cacheNullObject[0] : defaultCacheNullObject;
+                if (cacheNull)
+                    set(region, key, newNullObject(), true);
             }
-        }
+            return new CacheObject(region, key, CacheObject.LEVEL_2, l2Value);
+        });
 
-        return obj;
+        return new CacheObject(region, key, obj.getLevel(), obj.rawValue());
     }
 
     /**
@@ -115,28 +152,107 @@ public abstract class CacheChannel implements Closeable, AutoCloseable {
 
         this.assertNotClose();
 
-        CacheObject cache = get(region, key, false);
+        CacheObject cache = read(region, key, false);
+
+        if (cache.rawValue() != null) {
+            if (cache.getLevel() == CacheObject.LEVEL_1 && holder.getLevel1Cache(region).shouldRefresh(key))
+                refreshAhead(region, key, loader, cacheNullObject);
+            return CacheMetrics.record(cache);
+        }
+
+        CacheObject obj = loaderFlight.execute(region, key, () -> load(region, key, loader, cacheNullObject));
+        return CacheMetrics.record(new CacheObject(region, key, obj.getLevel(), obj.rawValue()));
+    }
 
+    /**
+     * 在 SingleFlight 中执行数据加载，加载前再次检查缓存
+     */
+    private CacheObject load(String region, String key, Function<String, Object> loader, boolean...cacheNullObject) {
+        CacheObject cache = read(region, key, false);
         if (cache.rawValue() != null)
-            return cache ;
+            return cache;
 
-        String lock_key = key + '@' + region;
-        synchronized (_g_keyLocks.computeIfAbsent(lock_key, v -> new Object())) {
-            cache = get(region, key, false);
+        Object obj = timeLoader(region, () -> loader.apply(key));
+        boolean cacheNull = (cacheNullObject.length>0)?cacheNullObject[0]: defaultCacheNullObject;
+        set(region, key, obj, cacheNull);
+        return new CacheObject(region, key, CacheObject.LEVEL_OUTER, obj);
+    }
+
+    /**
+     * 一级缓存的数据已经超过 refresh 阈值但尚未过期，提交一次后台重新加载，
+     * 同一个 key 同时只会有一个刷新任务，队列满时直接放弃（数据过期后会走正常的加载流程）
+     */
+    private void refreshAhead(String region, String key, Function<String, Object> loader, boolean...cacheNullObject) {
+        Map.Entry<String, String> entry = new AbstractMap.SimpleImmutableEntry<>(region, key);
+        if (!refreshing.add(entry))
+            return;
+        try {
+            refresher.execute(() -> {
+                try {
+                    //与前台加载共用 loaderFlight，数据恰好过期时前台请求会等待这次刷新的结果
+                    loaderFlight.execute(region, key, () -> {
+                        Object obj = timeLoader(region, () -> loader.apply(key));
+                        boolean cacheNull = (cacheNullObject.length>0)?cacheNullObject[0]: defaultCacheNullObject;
+                        set(region, key, obj, cacheNull);
+                        return new CacheObject(region, key, CacheObject.LEVEL_OUTER, obj);
+                    });
+                } catch (Exception e) {
+                    log.warn("Failed to refresh cache [{}:{}]", region, key, e);
+                } finally {
+                    refreshing.remove(entry);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(entry);
+        }
+    }
 
-            if (cache.rawValue() != null)
-                return cache ;
+    private static ThreadPoolExecutor newRefresher() {
+        AtomicInteger index = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(REFRESH_THREADS, REFRESH_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(REFRESH_QUEUE_SIZE), r -> {
+                    Thread t = new Thread(r, "j2cache-refresh-" + index.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
 
-            try {
-                Object obj = loader.apply(key);
-                boolean cacheNull = (cacheNullObject.length>0)?cacheNullObject[0]: defaultCacheNullObject;
-                set(region, key, obj, cacheNull);
-                cache = new CacheObject(region, key, CacheObject.LEVEL_OUTER, obj);
-            } finally {
-                _g_keyLocks.remove(lock_key);
-            }
+    /**
+     * 执行一次二级缓存读取并记录耗时
+     */
+    private static <T> T timeLevel2(String region, Supplier<T> reader) {
+        long start = System.nanoTime();
+        try {
+            return reader.get();
+        } finally {
+            CacheMetrics.region(region).recordL2(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 执行一次 loader 并记录耗时，loader 抛出异常时计为一次加载失败
+     */
+    private static Object timeLoader(String region, Supplier<Object> loader) {
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Object obj = loader.get();
+            success = true;
+            return obj;
+        } finally {
+            CacheMetrics.region(region).recordLoad(System.nanoTime() - start, success);
         }
-        return cache;
+    }
+
+    /**
+     * 异步的二级缓存读取完成时（无论成功与否）记录耗时
+     */
+    private static <T> CompletableFuture<T> timeLevel2Async(String region, Supplier<CompletableFuture<T>> reader) {
+        long start = System.nanoTime();
+        RegionMetrics metrics = CacheMetrics.region(region);
+        return reader.get().whenComplete((v, e) -> metrics.recordL2(System.nanoTime() - start));
     }
 
     /**
@@ -146,6 +262,15 @@ public abstract class CacheChannel implements Closeable, AutoCloseable {
      * @return cache object
      */
     public Map<String, CacheObject> get(String region, Collection<String> keys)  {
+        Map<String, CacheObject> results = readAll(region, keys);
+        results.values().forEach(CacheMetrics::record);
+        return results;
+    }
+
+    /**
+     * 批量读取缓存，不记录命中统计
+     */
+    private Map<String, CacheObject> readAll(String region, Collection<String> keys) {
 
         this.assertNotClose();
 
@@ -158,16 +283,67 @@ public abstract class CacheChannel implements Closeable, AutoCloseable {
                 )
         );
 
-        Map<String, Object> objs_level2 = holder.getLevel2Cache(region).get(level2Keys);
-        objs_level2.forEach((k,v) -> {
-            results.put(k, new CacheObject(region, k, CacheObject.LEVEL_2, v));
-            if (v != null)
-                holder.getLevel1Cache(region).put(k, v);
-        });
+        Map<String, Object> objs_level2 = readLevel2(region, level2Keys);
+        objs_level2.forEach((k,v) -> results.put(k, new CacheObject(region, k, CacheObject.LEVEL_2, v)));
 
         return results;
     }
 
+    /**
+     * 读取二级缓存并写入一级缓存。一级缓存保存序列化字节（BytesLevel1Cache）时，
+     * 二级缓存读取到的字节直接写入一级缓存，只反序列化一次，不再重新序列化
+     * @return level 2 value, null if not exists
+     */
+    private Object readLevel2(String region, String key) {
+        Level1Cache level1 = holder.getLevel1Cache(region);
+        Level2Cache level2 = holder.getLevel2Cache(region);
+        long readTime = System.currentTimeMillis();
+        if (level1 instanceof BytesLevel1Cache) {
+            byte[] bytes = timeLevel2(region, () -> level2.getBytes(key));
+            Object value = ((BytesLevel1Cache) level1).promote(key, bytes, readTime);
+            if (value == null && bytes != null && bytes.length > 0)
+                level2.evict(key); //与 Level2Cache.get 一致，无法反序列化的数据从二级缓存删除
+            return value;
+        }
+        Object value = timeLevel2(region, () -> level2.get(key));
+        if (value != null)
+            level1.putRead(key, value, readTime);
+        return value;
+    }
+
+    /**
+     * 批量读取二级缓存并写入一级缓存，规则与 readLevel2(region, key) 相同
+     * @return level 2 values, the value is null if not exists
+     */
+    private Map<String, Object> readLevel2(String region, List<String> keys) {
+        Level1Cache level1 = holder.getLevel1Cache(region);
+        Level2Cache level2 = holder.getLevel2Cache(region);
+        long readTime = System.currentTimeMillis();
+        if (level1 instanceof BytesLevel1Cache) {
+            Map<String, Object> values = new HashMap<>();
+            if (keys.isEmpty())
+                return values;
+            List<byte[]> bytes = timeLevel2(region, () -> level2.getBytes(keys));
+            for (int i = 0; i < keys.size(); i++) {
+                byte[] data = (bytes == null) ? null : bytes.get(i);
+                Object value = ((BytesLevel1Cache) level1).promote(keys.get(i), data, readTime);
+                if (value == null && data != null && data.length > 0)
+                    level2.evict(keys.get(i));
+                values.put(keys.get(i), value);
+            }
+            return values;
+        }
+        Map<String, Object> values = timeLevel2(region, () -> level2.get(keys));
+        Map<String, Object> found = new HashMap<>();
+        values.forEach((k,v) -> {
+            if (v != null)
+                found.put(k, v);
+        });
+        if (!found.isEmpty())
+            level1.putRead(found, readTime);
+        return values;
+    }
+
     /**
      * 使用数据加载器的批量缓存读取
      * @param region Cache region name
@@ -180,30 +356,314 @@ public abstract class CacheChannel implements Closeable, AutoCloseable {
 
         this.assertNotClose();
 
-        Map<String, CacheObject> results = get(region, keys);
+        Map<String, CacheObject> results = readAll(region, keys);
         results.entrySet().stream().filter(e -> e.getValue().rawValue() == null).forEach( e -> {
-            String lock_key = e.getKey() + '@' + region;
-            synchronized (_g_keyLocks.computeIfAbsent(lock_key, v -> new Object())) {
-                CacheObject cache = get(region, e.getKey(), false);
-                if(cache.rawValue() == null) {
-                    try {
-                        Object obj = loader.apply(e.getKey());
-                        boolean cacheNull = (cacheNullObject.length>0)?cacheNullObject[0]: defaultCacheNullObject;
-                        set(region, e.getKey(), obj, cacheNull);
-                        e.getValue().setValue(obj);
-                        e.getValue().setLevel(CacheObject.LEVEL_OUTER);
-                    } finally {
-                        _g_keyLocks.remove(lock_key);
-                    }
-                }
-                else {
-                    e.setValue(cache);
-                }
+            CacheObject cache = loaderFlight.execute(region, e.getKey(), () -> load(region, e.getKey(), loader, cacheNullObject));
+            e.setValue(new CacheObject(region, e.getKey(), cache.getLevel(), cache.rawValue()));
+        });
+        results.values().forEach(CacheMetrics::record);
+        return results;
+    }
+
+    /**
+     * 使用批量数据加载器的批量缓存读取，所有未命中的 key 只调用一次 loader
+     * @param region Cache region name
+     * @param keys cache keys
+     * @param loader 批量加载器，返回的 Map 中不存在的 key 视为 null
+     * @param cacheNullObject true if you need to cache null object
+     * @return multiple cache data
+     */
+    public Map<String, CacheObject> getAll(String region, Collection<String> keys, Function<Collection<String>, Map<String, Object>> loader, boolean...cacheNullObject) {
+        return getAll(region, keys, loader, 0, null, cacheNullObject);
+    }
+
+    /**
+     * <p>使用批量数据加载器的批量缓存读取</p>
+     * <p>未命中的 key 按 chunkSize 分组调用 loader，executor 不为空时各组并行加载；
+     * 加载结果通过一次批量写入保存到一级、二级缓存，并只发送一次广播。
+     * 与单 key 的加载共用 SingleFlight，其他线程正在加载的 key 不会重复加载</p>
+     *
+     * @param region Cache region name
+     * @param keys cache keys
+     * @param loader 批量加载器，返回的 Map 中不存在的 key 视为 null
+     * @param chunkSize 每次调用 loader 的最大 key 数量，小于等于 0 时不分组
+     * @param executor 并行加载各组的线程池，为 null 时在当前线程依次加载
+     * @param cacheNullObject true if you need to cache null object
+     * @return multiple cache data
+     */
+    public Map<String, CacheObject> getAll(String region, Collection<String> keys, Function<Collection<String>, Map<String, Object>> loader,
+                                           int chunkSize, Executor executor, boolean...cacheNullObject) {
+
+        this.assertNotClose();
+
+        Map<String, CacheObject> results = readAll(region, keys);
+        CompletableFuture<Map<String, CacheObject>> batch = new CompletableFuture<>();
+        List<String> owned = new ArrayList<>();
+        Map<String, CompletableFuture<CacheObject>> loading = new LinkedHashMap<>();
+        for (String key : keys) {
+            CacheObject cache = results.get(key);
+            if (cache != null && cache.rawValue() != null)
+                continue;
+            loading.put(key, loaderFlight.executeAsync(region, key, () -> {
+                owned.add(key);
+                return batch.thenApply(loaded -> loaded.get(key));
+            }));
+        }
+
+        if (!owned.isEmpty()) {
+            try {
+                batch.complete(loadAll(region, owned, loader, chunkSize, executor, cacheNullObject));
+            } catch (RuntimeException | Error e) {
+                batch.completeExceptionally(e);
+                throw e;
             }
+        }
+
+        loading.forEach((key, future) -> {
+            CacheObject cache = join(future);
+            results.put(key, new CacheObject(region, key, cache.getLevel(), cache.rawValue()));
         });
+        results.values().forEach(CacheMetrics::record);
         return results;
     }
 
+    /**
+     * 加载当前线程负责的 key：先再次检查缓存（其他线程可能刚刚加载完成），
+     * 再调用 loader 加载剩余的 key，最后一次性写入缓存
+     */
+    private Map<String, CacheObject> loadAll(String region, List<String> keys, Function<Collection<String>, Map<String, Object>> loader,
+                                             int chunkSize, Executor executor, boolean...cacheNullObject) {
+        Map<String, CacheObject> loaded = new HashMap<>(readAll(region, keys));
+        List<String> missing = keys.stream().filter(k -> loaded.get(k) == null || loaded.get(k).rawValue() == null).collect(Collectors.toList());
+        if (missing.isEmpty())
+            return loaded;
+
+        List<List<String>> chunks = new ArrayList<>();
+        int size = (chunkSize <= 0) ? missing.size() : chunkSize;
+        for (int i = 0; i < missing.size(); i += size)
+            chunks.add(Collections.unmodifiableList(missing.subList(i, Math.min(i + size, missing.size()))));
+
+        Map<String, Object> values = new HashMap<>();
+        if (executor == null || chunks.size() == 1)
+            chunks.forEach(chunk -> values.putAll(loadChunk(region, chunk, loader)));
+        else {
+            List<CompletableFuture<Map<String, Object>>> futures = chunks.stream()
+                    .map(chunk -> CompletableFuture.supplyAsync(() -> loadChunk(region, chunk, loader), executor))
+                    .collect(Collectors.toList());
+            futures.forEach(f -> values.putAll(join(f)));
+        }
+
+        boolean cacheNull = (cacheNullObject.length>0)?cacheNullObject[0]: defaultCacheNullObject;
+        Map<String, Object> elements = new HashMap<>();
+        for (String key : missing) {
+            Object obj = values.get(key);
+            if (obj != null || cacheNull)
+                elements.put(key, obj);
+            loaded.put(key, new CacheObject(region, key, CacheObject.LEVEL_OUTER, obj));
+        }
+        if (!elements.isEmpty())
+            set(region, elements, cacheNull);
+        return loaded;
+    }
+
+    private static Map<String, Object> loadChunk(String region, List<String> keys, Function<Collection<String>, Map<String, Object>> loader) {
+        Map<String, Object> values = (Map<String, Object>) timeLoader(region, () -> loader.apply(keys));
+        return (values == null) ? Collections.emptyMap() : values;
+    }
+
+    /**
+     * 等待 Future 完成，并抛出原始的运行时异常
+     */
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw e;
+        }
+    }
+
+    /**
+     * 异步读取缓存，一级缓存命中时直接返回已完成的 Future，只有穿透到二级缓存时才是真正的异步操作
+     * @param region Cache region name
+     * @param key Cache data key
+     * @param cacheNullObject 是否缓存空对象
+     * @return cache object
+     */
+    public CompletableFuture<CacheObject> getAsync(String region, String key, boolean...cacheNullObject) {
+
+        this.assertNotClose();
+
+        Object value = holder.getLevel1Cache(region).get(key);
+        if(value != null)
+            return CompletableFuture.completedFuture(CacheMetrics.record(new CacheObject(region, key, CacheObject.LEVEL_1, value)));
+
+        long readTime = System.currentTimeMillis();
+        return level2Flight.<CacheObject>executeAsync(region, key, () ->
+                timeLevel2Async(region, () -> onLevel2(region, l2 -> l2.getAsync(key), l2 -> l2.get(key))).thenCompose(l2Value -> {
+                    if (l2Value != null) {
+                        holder.getLevel1Cache(region).putRead(key, l2Value, readTime);
+                        return CompletableFuture.completedFuture(new CacheObject(region, key, CacheObject.LEVEL_2, l2Value));
+                    }
+                    boolean cacheNull = (cacheNullObject.length > 0) ? cacheNullObject[0] : defaultCacheNullObject;
+                    CompletableFuture<Void> future = cacheNull ? setAsync(region, key, null, true) : CompletableFuture.completedFuture(null);
+                    return future.thenApply(v -> new CacheObject(region, key, CacheObject.LEVEL_2, null));
+                })
+        ).thenApply(obj -> CacheMetrics.record(new CacheObject(region, key, obj.getLevel(), obj.rawValue())));
+    }
+
+    /**
+     * 异步批量读取缓存，一级缓存未命中的 key 通过一次二级缓存批量读取获得
+     * @param region Cache region name
+     * @param keys cache keys
+     * @return cache objects
+     */
+    public CompletableFuture<Map<String, CacheObject>> getAllAsync(String region, Collection<String> keys) {
+
+        this.assertNotClose();
+
+        final Map<String, Object> objs = holder.getLevel1Cache(region).get(keys);
+        Map<String, CacheObject> results = new HashMap<>();
+        List<String> level2Keys = new ArrayList<>();
+        for (String key : keys) {
+            Object value = objs.get(key);
+            if (value != null)
+                results.put(key, new CacheObject(region, key, CacheObject.LEVEL_1, value));
+            else
+                level2Keys.add(key);
+        }
+        if (level2Keys.isEmpty()) {
+            results.values().forEach(CacheMetrics::record);
+            return CompletableFuture.completedFuture(results);
+        }
+
+        long readTime = System.currentTimeMillis();
+        return timeLevel2Async(region, () -> onLevel2(region, l2 -> l2.getAsync(level2Keys), l2 -> l2.get(level2Keys))).thenApply(objs_level2 -> {
+            Map<String, Object> found = new HashMap<>();
+            objs_level2.forEach((k,v) -> {
+                results.put(k, new CacheObject(region, k, CacheObject.LEVEL_2, v));
+                if (v != null)
+                    found.put(k, v);
+            });
+            if (!found.isEmpty())
+                holder.getLevel1Cache(region).putRead(found, readTime);
+            results.values().forEach(CacheMetrics::record);
+            return results;
+        });
+    }
+
+    /**
+     * 异步写入缓存，一级缓存同步写入，二级缓存写入完成后再发送广播
+     * @param region Cache region name
+     * @param key Cache key
+     * @param value Cache value
+     * @return future
+     */
+    public CompletableFuture<Void> setAsync(String region, String key, Object value) {
+        return setAsync(region, key, value, defaultCacheNullObject);
+    }
+
+    /**
+     * 异步写入缓存，一级缓存同步写入，二级缓存写入完成后再发送广播
+     * @param region Cache region name
+     * @param key Cache key
+     * @param value Cache value
+     * @param cacheNullObject if allow cache null object
+     * @return future
+     */
+    public CompletableFuture<Void> setAsync(String region, String key, Object value, boolean cacheNullObject) {
+
+        this.assertNotClose();
+
+        if (!cacheNullObject && value == null)
+            return CompletableFuture.completedFuture(null);
+
+        Object obj = (value == null) ? newNullObject() : value;
+        Level1Cache level1 = holder.getLevel1Cache(region);
+        long ttl = config.isSyncTtlToRedis() ? level1.ttl() : 0;
+        CompletableFuture<Void> future = writeAsync(region, level1, Collections.singletonMap(key, obj), ttl);
+        return broadcastAfter(future, () -> this.sendEvictCmd(region, key));
+    }
+
+    /**
+     * 异步批量写入缓存
+     * @param region Cache region name
+     * @param elements Cache Elements
+     * @return future
+     */
+    public CompletableFuture<Void> setAsync(String region, Map<String, Object> elements) {
+
+        this.assertNotClose();
+
+        Map<String, Object> newElems = elements;
+        if (defaultCacheNullObject && elements.containsValue(null)) {
+            newElems = new HashMap<>(elements);
+            newElems.replaceAll((k,v) -> (v == null) ? newNullObject() : v);
+        }
+        Map<String, Object> data = newElems;
+        Level1Cache level1 = holder.getLevel1Cache(region);
+        long ttl = config.isSyncTtlToRedis() ? level1.ttl() : 0;
+        CompletableFuture<Void> future = writeAsync(region, level1, data, ttl);
+        return broadcastAfter(future, () -> this.sendEvictCmd(region, elements.keySet().stream().toArray(String[]::new)));
+    }
+
+    /**
+     * 异步删除缓存，先删除二级缓存，再删除一级缓存并发送广播
+     * @param region Cache Region name
+     * @param keys Cache key
+     * @return future
+     */
+    public CompletableFuture<Void> evictAsync(String region, String...keys) {
+
+        this.assertNotClose();
+
+        CompletableFuture<Void> future = onLevel2(region, l2 -> l2.evictAsync(keys), l2 -> {
+            l2.evict(keys);
+            return null;
+        }).whenComplete((v, e) -> holder.getLevel1Cache(region).evict(keys));
+        return broadcastAfter(future, () -> this.sendEvictCmd(region, keys));
+    }
+
+    /**
+     * 二级缓存支持异步操作时使用异步接口，否则同步执行并返回已完成的 Future
+     */
+    private <T> CompletableFuture<T> onLevel2(String region, Function<AsyncLevel2Cache, CompletableFuture<T>> async, Function<Level2Cache, T> sync) {
+        return onLevel2(region, async, sync, null);
+    }
+
+    /**
+     * 同上，executor 不为空时同步接口在该线程池中执行（用于耗时的操作，不占用调用者线程），线程池拒绝时返回失败的 Future
+     */
+    private <T> CompletableFuture<T> onLevel2(String region, Function<AsyncLevel2Cache, CompletableFuture<T>> async, Function<Level2Cache, T> sync,
+                                              Executor executor) {
+        try {
+            Level2Cache level2 = holder.getLevel2Cache(region);
+            if (level2 instanceof AsyncLevel2Cache)
+                return async.apply((AsyncLevel2Cache) level2);
+            if (executor != null)
+                return CompletableFuture.supplyAsync(() -> sync.apply(level2), executor);
+            return CompletableFuture.completedFuture(sync.apply(level2));
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * 二级缓存操作结束后（无论成功与否）发送广播，与同步接口 finally 中广播的语义一致。
+     * 广播可能是阻塞操作，因此不在二级缓存客户端的 IO 线程中执行
+     */
+    private <T> CompletableFuture<T> broadcastAfter(CompletableFuture<T> future, Runnable broadcast) {
+        return future.handleAsync((v, e) -> {
+            broadcast.run();
+            if (e != null)
+                throw (e instanceof CompletionException) ? (CompletionException) e : new CompletionException(e);
+            return v;
+        });
+    }
+
     /**
      * 判断某个缓存键是否存在
      * @param region Cache region name
@@ -257,17 +717,10 @@ public abstract class CacheChannel implements Closeable, AutoCloseable {
         if (!cacheNullObject && value == null)
             return ;
 
-        try {
-            Level1Cache level1 = holder.getLevel1Cache(region);
-            level1.put(key, (value==null && cacheNullObject)?newNullObject():value);
-            Level2Cache level2 = holder.getLevel2Cache(region);
-            if(config.isSyncTtlToRedis())
-                level2.put(key, (value==null && cacheNullObject)?newNullObject():value, level1.ttl());
-            else
-                level2.put(key, (value==null && cacheNullObject)?newNullObject():value);
-        } finally {
-            this.sendEvictCmd(region, key);//清除原有的一级缓存的内容
-        }
+        Object obj = (value==null && cacheNullObject)?newNullObject():value;
+        Level1Cache level1 = holder.getLevel1Cache(region);
+        long ttl = config.isSyncTtlToRedis() ? level1.ttl() : 0;
+        writeOne(region, level1, key, obj, ttl);
     }
 
 
@@ -306,16 +759,9 @@ public abstract class CacheChannel implements Closeable, AutoCloseable {
         if(timeToLiveInSeconds <= 0)
             set(region, key, value, cacheNullObject);
         else {
-            try {
-                holder.getLevel1Cache(region, timeToLiveInSeconds).put(key, (value==null && cacheNullObject)?newNullObject():value);
-                Level2Cache level2 = holder.getLevel2Cache(region);
-                if(config.isSyncTtlToRedis())
-                    level2.put(key, (value==null && cacheNullObject)?newNullObject():value, timeToLiveInSeconds);
-                else
-                    level2.put(key, (value==null && cacheNullObject)?newNullObject():value);
-            } finally {
-                this.sendEvictCmd(region, key);//清除原有的一级缓存的内容
-            }
+            Object obj = (value==null && cacheNullObject)?newNullObject():value;
+            long ttl = config.isSyncTtlToRedis() ? timeToLiveInSeconds : 0;
+            writeOne(region, holder.getLevel1Cache(region, timeToLiveInSeconds), key, obj, ttl);
         }
     }
 
@@ -338,33 +784,10 @@ public abstract class CacheChannel implements Closeable, AutoCloseable {
 
         this.assertNotClose();
 
-        try {
-            if (cacheNullObject && elements.containsValue(null)) {
-                Map<String, Object> newElems = new HashMap<>(elements);
-                newElems.forEach((k,v) -> {
-                    if (v == null)
-                        newElems.put(k, newNullObject());
-                });
-                Level1Cache level1 = holder.getLevel1Cache(region);
-                level1.put(newElems);
-                if(config.isSyncTtlToRedis())
-                    holder.getLevel2Cache(region).put(newElems, level1.ttl());
-                else
-                    holder.getLevel2Cache(region).put(newElems);
-            }
-            else {
-                Level1Cache level1 = holder.getLevel1Cache(region);
-                level1.put(elements);
-                if(config.isSyncTtlToRedis())
-                    holder.getLevel2Cache(region).put(elements, level1.ttl());
-                else
-
-                    holder.getLevel2Cache(region).put(elements);
-            }
-        } finally {
-            //广播
-            this.sendEvictCmd(region, elements.keySet().stream().toArray(String[]::new));
-        }
+        Map<String, Object> data = withNullObjects(elements, cacheNullObject);
+        Level1Cache level1 = holder.getLevel1Cache(region);
+        long ttl = config.isSyncTtlToRedis() ? level1.ttl() : 0;
+        writeAll(region, level1, data, ttl);
     }
 
     /**
@@ -399,30 +822,157 @@ public abstract class CacheChannel implements Closeable, AutoCloseable {
             return;
         }
 
-        try {
-            if (cacheNullObject && elements.containsValue(null)) {
-                Map<String, Object> newElems = new HashMap<>(elements);
-                newElems.forEach((k,v) -> {
-                    if (v == null)
-                        newElems.put(k, newNullObject());
-                });
-                holder.getLevel1Cache(region, timeToLiveInSeconds).put(newElems);
-                if(config.isSyncTtlToRedis())
-                    holder.getLevel2Cache(region).put(newElems, timeToLiveInSeconds);
+        Map<String, Object> data = withNullObjects(elements, cacheNullObject);
+        long ttl = config.isSyncTtlToRedis() ? timeToLiveInSeconds : 0;
+        writeAll(region, holder.getLevel1Cache(region, timeToLiveInSeconds), data, ttl);
+    }
+
+    /**
+     * 写入单个数据，一级缓存以字节保存时只序列化一次，同一份字节同时写入一级缓存和二级缓存
+     */
+    private void writeOne(String region, Level1Cache level1, String key, Object obj, long ttl) {
+        String[] keys = {key};
+        if (level1 instanceof BytesLevel1Cache) {
+            byte[] bytes = serialize(obj);
+            write(region, keys, () -> ((BytesLevel1Cache) level1).putBytes(key, bytes), l2 -> l2.setBytesAsync(key, bytes, ttl), l2 -> {
+                if (ttl > 0)
+                    l2.setBytes(key, bytes, ttl);
                 else
-                    holder.getLevel2Cache(region).put(newElems);
-            }
-            else {
-                holder.getLevel1Cache(region, timeToLiveInSeconds).put(elements);
-                if(config.isSyncTtlToRedis())
-                    holder.getLevel2Cache(region).put(elements, timeToLiveInSeconds);
+                    l2.setBytes(key, bytes);
+            });
+            return;
+        }
+        write(region, keys, () -> level1.put(key, obj), l2 -> l2.putAsync(key, obj, ttl), l2 -> {
+            if (ttl > 0)
+                l2.put(key, obj, ttl);
+            else
+                l2.put(key, obj);
+        });
+    }
+
+    /**
+     * 批量写入数据，序列化规则与 writeOne 相同
+     */
+    private void writeAll(String region, Level1Cache level1, Map<String, Object> data, long ttl) {
+        String[] keys = data.keySet().toArray(new String[0]);
+        if (level1 instanceof BytesLevel1Cache && !data.isEmpty()) {
+            Map<String, byte[]> bytes = serialize(data);
+            write(region, keys, () -> bytes.forEach(((BytesLevel1Cache) level1)::putBytes), l2 -> l2.setBytesAsync(bytes, ttl), l2 -> {
+                if (ttl > 0)
+                    l2.setBytes(bytes, ttl);
+                else
+                    l2.setBytes(bytes);
+            });
+            return;
+        }
+        write(region, keys, () -> level1.put(data), l2 -> l2.putAsync(data, ttl), l2 -> {
+            if (ttl > 0)
+                l2.put(data, ttl);
+            else
+                l2.put(data);
+        });
+    }
+
+    /**
+     * 同步写入一级缓存，返回二级缓存的写入结果，序列化规则与 writeOne 相同
+     */
+    private CompletableFuture<Void> writeAsync(String region, Level1Cache level1, Map<String, Object> data, long ttl) {
+        if (level1 instanceof BytesLevel1Cache && !data.isEmpty()) {
+            Map<String, byte[]> bytes = serialize(data);
+            bytes.forEach(((BytesLevel1Cache) level1)::putBytes);
+            return onLevel2(region, l2 -> l2.setBytesAsync(bytes, ttl), l2 -> {
+                if (ttl > 0)
+                    l2.setBytes(bytes, ttl);
                 else
-                    holder.getLevel2Cache(region).put(elements);
+                    l2.setBytes(bytes);
+                return null;
+            });
+        }
+        level1.put(data);
+        return onLevel2(region, l2 -> l2.putAsync(data, ttl), l2 -> {
+            if (ttl > 0)
+                l2.put(data, ttl);
+            else
+                l2.put(data);
+            return null;
+        });
+    }
+
+    private static byte[] serialize(Object obj) {
+        try {
+            return SerializationUtils.serialize(obj);
+        } catch (IOException e) {
+            throw new CacheException(e);
+        }
+    }
+
+    private static Map<String, byte[]> serialize(Map<String, Object> data) {
+        Map<String, byte[]> bytes = new HashMap<>(data.size());
+        data.forEach((k, v) -> bytes.put(k, serialize(v)));
+        return bytes;
+    }
+
+    private Map<String, Object> withNullObjects(Map<String, Object> elements, boolean cacheNullObject) {
+        if (!cacheNullObject || !elements.containsValue(null))
+            return elements;
+        Map<String, Object> newElems = new HashMap<>(elements);
+        newElems.replaceAll((k,v) -> (v == null) ? newNullObject() : v);
+        return newElems;
+    }
+
+    /**
+     * <p>写入一级缓存、二级缓存并发送广播</p>
+     * <p>默认依次执行，二级缓存写入完成后再广播（无论写入成功与否都会广播）；
+     * parallelWriteRegions 中的区域在一级缓存更新之后发出二级缓存写入，在写入进行的同时发送一次广播，两者都完成后返回，
+     * 耗时为两者中较长的一个。广播可能先于二级缓存写入到达，接收方在二级缓存写入完成之前重新读取到的旧值
+     * 会保留到过期或下一次写入，只适合能够容忍这个窗口的区域</p>
+     * <p>二级缓存的异步执行器拒绝任务时在调用者线程中同步写入，同步接口不会因为执行器繁忙而失败</p>
+     */
+    private void write(String region, String[] keys, Runnable level1, Function<AsyncLevel2Cache, CompletableFuture<Void>> async, Consumer<Level2Cache> sync) {
+        if (!config.getParallelWriteRegions().contains(region)) {
+            try {
+                level1.run();
+                sync.accept(holder.getLevel2Cache(region));
+            } finally {
+                this.sendEvictCmd(region, keys);//清除原有的一级缓存的内容
             }
+            return;
+        }
+
+        CompletableFuture<Void> future;
+        try {
+            level1.run();
+            future = startLevel2(region, async, sync);
+        } catch (RuntimeException e) {
+            this.sendEvictCmd(region, keys);
+            throw e;
+        }
+        try {
+            this.sendEvictCmd(region, keys);//与二级缓存写入同时进行
         } finally {
-            //广播
-            this.sendEvictCmd(region, elements.keySet().stream().toArray(String[]::new));
+            join(future);
+        }
+    }
+
+    /**
+     * 发出二级缓存写入，异步执行器拒绝时退回到在调用者线程中同步执行
+     */
+    private CompletableFuture<Void> startLevel2(String region, Function<AsyncLevel2Cache, CompletableFuture<Void>> async, Consumer<Level2Cache> sync) {
+        CompletableFuture<Void> future = onLevel2(region, async, l2 -> {
+            sync.accept(l2);
+            return null;
+        });
+        if (future.isCompletedExceptionally()) {
+            try {
+                future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RejectedExecutionException) {
+                    sync.accept(holder.getLevel2Cache(region));
+                    return CompletableFuture.completedFuture(null);
+                }
+            }
         }
+        return future;
     }
 
     /**
@@ -435,6 +985,22 @@ public abstract class CacheChannel implements Closeable, AutoCloseable {
 
         this.assertNotClose();
 
+        if (config.getParallelWriteRegions().contains(region)) {
+            //二级缓存删除与广播同时进行，两者都完成后再删除一级缓存，避免本地重新读取到二级缓存中的旧值
+            try {
+                CompletableFuture<Void> future;
+                try {
+                    future = startLevel2(region, l2 -> l2.evictAsync(keys), l2 -> l2.evict(keys));
+                } finally {
+                    this.sendEvictCmd(region, keys);
+                }
+                join(future);
+            } finally {
+                holder.getLevel1Cache(region).evict(keys);
+            }
+            return;
+        }
+
         try {
             //先清比较耗时的二级缓存，再清一级缓存
             holder.getLevel2Cache(region).evict(keys);
@@ -462,6 +1028,23 @@ public abstract class CacheChannel implements Closeable, AutoCloseable {
         }
     }
 
+    /**
+     * 在后台清除缓存区域，适用于数据量很大的区域：二级缓存按 SCAN 分页逐批删除，
+     * 完成后清除一级缓存并发送广播；二级缓存不支持异步操作时在后台线程池中同步删除，不阻塞调用者
+     * @param region Cache region name
+     * @param progress 二级缓存中累计删除的数量，每删除一批回调一次（可以为 null）
+     * @return 二级缓存中删除的数量，无法统计时为 -1
+     */
+    public CompletableFuture<Long> clearAsync(String region, LongConsumer progress) {
+
+        this.assertNotClose();
+
+        LongConsumer listener = (progress != null) ? progress : deleted -> {};
+        CompletableFuture<Long> future = onLevel2(region, l2 -> l2.clearAsync(listener), l2 -> l2.clear(listener), refresher)
+                .whenComplete((v, e) -> holder.getLevel1Cache(region).clear());
+        return broadcastAfter(future, () -> this.sendClearCmd(region));
+    }
+
     /**
      * 返回所有的缓存区域
      * @return all the regions
@@ -496,12 +1079,77 @@ public abstract class CacheChannel implements Closeable, AutoCloseable {
         return keys;
     }
 
+    /**
+     * <p>以游标分页的方式遍历缓存区域中的 key，适用于 key 数量很大、无法一次性读入内存的区域</p>
+     * <p>先遍历一级缓存，再遍历二级缓存（SCAN/HSCAN，每次读取 pageSize 个），只有在消费 Stream 时才会读取下一页。
+     * 一级缓存与二级缓存之间、以及 Redis SCAN/HSCAN 自身（遍历期间发生 rehash 时）都可能返回重复的 key，
+     * 遍历过的 key 最多记录 {@value #SCAN_DEDUP_LIMIT} 个用于去重，达到上限之后新出现的 key 不再记录，可能重复出现，
+     * 调用者需要能够处理重复的 key（例如删除是幂等的）；遍历期间新增或删除的 key 可能出现也可能不出现</p>
+     *
+     * @param region Cache region name
+     * @param pageSize 每一页的 key 数量
+     * @return key stream
+     */
+    public Stream<String> scanKeys(String region, int pageSize) {
+        this.assertNotClose();
+        if (pageSize <= 0)
+            throw new IllegalArgumentException("pageSize must be positive");
+
+        Level1Cache level1 = holder.getLevel1Cache(region);
+        Level2Cache level2 = holder.getLevel2Cache(region);
+        return scanStream(level1.scanKeys(pageSize), () -> level2.scanKeys(pageSize));
+    }
+
+    /**
+     * 依次遍历一级缓存与二级缓存的 key 并去重，二级缓存在一级缓存遍历完之后才开始 SCAN。
+     * 不能使用 Stream.flatMap：iterator()、findFirst 等短路操作会先把内层 Stream 全部读入缓冲区
+     */
+    static Stream<String> scanStream(Iterator<String> level1Keys, Supplier<Iterator<String>> level2Keys) {
+        Set<String> seen = new HashSet<>();
+        Iterator<String> keys = new Iterator<String>() {
+            private Iterator<String> current = level1Keys;
+            private boolean level2;
+            private String next;
+
+            @Override
+            public boolean hasNext() {
+                while (next == null) {
+                    if (!current.hasNext()) {
+                        if (level2)
+                            return false;
+                        level2 = true;
+                        current = level2Keys.get();
+                        continue;
+                    }
+                    String key = current.next();
+                    if (seen.contains(key))
+                        continue;
+                    if (seen.size() < SCAN_DEDUP_LIMIT)
+                        seen.add(key);
+                    next = key;
+                }
+                return true;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+                String key = next;
+                next = null;
+                return key;
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(keys, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
     /**
      * Close J2Cache
      */
     @Override
     public void close() {
         this.closed = true;
+        this.refresher.shutdownNow();
     }
 
     /**
@@ -518,11 +1166,7 @@ public abstract class CacheChannel implements Closeable, AutoCloseable {
      * <code>
      *     CacheChannel channel = J2Cache.getChannel();
      *     RedisClient client = ((RedisCacheProvider)channel.getL2Provider()).getRedisClient();
-     *     try {
-     *     	   client.get().xxxxx(...);
-     *     } finally {
-     *         client.release();
-     *     }
+     *     client.execute(cmd -&gt; cmd.xxxxx(...));
      * </code>
      * @return 返回二级缓存的 CacheProvider 实例
      */
@@ -538,6 +1182,7 @@ public abstract class CacheChannel implements Closeable, AutoCloseable {
         private String name;
         private long size;
         private long ttl;
+        private long weight = -1;
 
         public Region(String name, long size, long ttl) {
             this.name = name;
@@ -545,6 +1190,14 @@ public abstract class CacheChannel implements Closeable, AutoCloseable {
             this.ttl = ttl;
         }
 
+        /**
+         * @param weight 当前数据占用的字节数（估算值），不按字节数限制容量时为 -1
+         */
+        public Region(String name, long size, long ttl, long weight) {
+            this(name, size, ttl);
+            this.weight = weight;
+        }
+
         public String getName() {
             return name;
         }
@@ -569,8 +1222,18 @@ public abstract class CacheChannel implements Closeable, AutoCloseable {
             this.ttl = ttl;
         }
 
+        public long getWeight() {
+            return weight;
+        }
+
+        public void setWeight(long weight) {
+            this.weight = weight;
+        }
+
         @Override
         public String toString() {
+            if (weight >= 0)
+                return String.format("[%s,size:%d,ttl:%d,weight:%d]", name, size, ttl, weight);
             return String.format("[%s,size:%d,ttl:%d]", name, size, ttl);
         }
     }
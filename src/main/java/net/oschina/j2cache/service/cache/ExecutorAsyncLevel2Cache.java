@@ -0,0 +1,86 @@
+package net.oschina.j2cache.service.cache;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongConsumer;
+import java.util.function.Supplier;
+
+/**
+ * ClassName: ExecutorAsyncLevel2Cache
+ * Package: net.oschina.j2cache.service.cache
+ * Description: 没有原生异步接口的二级缓存（例如 Jedis）通过线程池适配成异步接口
+ * 线程池拒绝任务时返回失败的 Future，阻塞操作不会在调用线程（可能是 Netty/Reactor 的事件循环）中执行
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 11:20
+ */
+public interface ExecutorAsyncLevel2Cache extends AsyncLevel2Cache {
+
+    /**
+     * 执行阻塞操作的线程池
+     * @return executor
+     */
+    Executor asyncExecutor();
+
+    @Override
+    default CompletableFuture<byte[]> getBytesAsync(String key) {
+        return supply(() -> getBytes(key));
+    }
+
+    @Override
+    default CompletableFuture<List<byte[]>> getBytesAsync(Collection<String> keys) {
+        return supply(() -> getBytes(keys));
+    }
+
+    @Override
+    default CompletableFuture<Void> setBytesAsync(String key, byte[] bytes, long timeToLiveInSeconds) {
+        return run(() -> {
+            if (timeToLiveInSeconds > 0)
+                setBytes(key, bytes, timeToLiveInSeconds);
+            else
+                setBytes(key, bytes);
+        });
+    }
+
+    @Override
+    default CompletableFuture<Void> setBytesAsync(Map<String, byte[]> bytes, long timeToLiveInSeconds) {
+        return run(() -> {
+            if (timeToLiveInSeconds > 0)
+                setBytes(bytes, timeToLiveInSeconds);
+            else
+                setBytes(bytes);
+        });
+    }
+
+    @Override
+    default CompletableFuture<Void> evictAsync(String... keys) {
+        return run(() -> evict(keys));
+    }
+
+    @Override
+    default CompletableFuture<Long> clearAsync(LongConsumer progress) {
+        return supply(() -> clear(progress));
+    }
+
+    private <T> CompletableFuture<T> supply(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, asyncExecutor());
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private CompletableFuture<Void> run(Runnable task) {
+        try {
+            return CompletableFuture.runAsync(task, asyncExecutor());
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+}
@@ -0,0 +1,60 @@
+package net.oschina.j2cache.service.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * ClassName: KeyPageIterator
+ * Package: net.oschina.j2cache.service.cache
+ * Description:
+ * <p>基于游标分页读取 key 的迭代器（SCAN、HSCAN 等），只在当前页遍历完之后才读取下一页</p>
+ * <p>每一页的读取都是独立的一次调用，两页之间不占用连接，迭代器不需要关闭</p>
+ *
+ * @param <C> 游标类型
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 20:40
+ */
+public abstract class KeyPageIterator<C> implements Iterator<String> {
+
+    private C cursor;
+    private Iterator<String> page = Collections.emptyIterator();
+
+    /**
+     * @param start 第一页的游标
+     */
+    protected KeyPageIterator(C start) {
+        this.cursor = start;
+    }
+
+    /**
+     * 读取一页 key
+     * @param cursor 本页的游标
+     * @param keys 本页读取到的 key 添加到这里（可以为空）
+     * @return 下一页的游标，没有下一页时返回 null
+     */
+    protected abstract C fetch(C cursor, List<String> keys);
+
+    @Override
+    public boolean hasNext() {
+        while (!page.hasNext()) {
+            if (cursor == null)
+                return false;
+            List<String> keys = new ArrayList<>();
+            cursor = fetch(cursor, keys);
+            page = keys.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        return page.next();
+    }
+
+}
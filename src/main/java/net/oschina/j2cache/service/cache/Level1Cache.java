@@ -1,5 +1,11 @@
 package net.oschina.j2cache.service.cache;
 
+import net.oschina.j2cache.service.cluster.ClusterPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 /**
  * ClassName: Level1Cache
  * Package: net.oschina.j2cache.service.cache
@@ -23,4 +29,97 @@ public interface Level1Cache extends Cache {
      */
     long size();
 
+    /**
+     * 返回该缓存区域当前数据占用的字节数（估算值），不按字节数限制容量时返回 -1
+     * @return current weight in bytes
+     */
+    default long weight() {
+        return -1;
+    }
+
+    /**
+     * 返回该缓存区域的提前刷新时间（单位：秒），0 表示不启用 refresh-ahead
+     * @return refresh after write in seconds
+     */
+    default long refreshAfter() {
+        return 0;
+    }
+
+    /**
+     * 判断缓存数据的写入时间是否已经超过提前刷新的阈值，超过后读取仍然返回当前值，
+     * 但由 CacheChannel 在后台重新加载
+     * @param key cache key
+     * @return true if the value should be reloaded in background
+     */
+    default boolean shouldRefresh(String key) {
+        return false;
+    }
+
+    /**
+     * 返回缓存数据写入一级缓存的时间（毫秒），不存在或者不支持时返回 -1
+     * @param key cache key
+     * @return write time in milliseconds
+     */
+    default long writeTime(String key) {
+        return -1;
+    }
+
+    /**
+     * 写入从二级缓存读取到的数据
+     * writeTime 应该是数据从二级缓存读取的时间，而不是写入一级缓存的时间：读取之后其他节点写入二级缓存并广播 evict，
+     * 如果按写入一级缓存的时间判断，这个旧值会因为写入时间晚于广播的时间戳而被保留。
+     * 默认实现无法记录 readTime，写入之后如果距离 readTime 已经超过时钟误差（j2cache.evict.clockSkew），就删除刚写入的数据
+     * @param key cache key
+     * @param value value read from level 2 cache
+     * @param readTime 开始读取二级缓存的时间（毫秒）
+     */
+    default void putRead(String key, Object value, long readTime) {
+        put(key, value);
+        evictIfLate(readTime, key);
+    }
+
+    /**
+     * 批量写入从二级缓存读取到的数据，规则与 putRead(key, value, readTime) 相同
+     * @param elements values read from level 2 cache
+     * @param readTime 开始读取二级缓存的时间（毫秒）
+     */
+    default void putRead(Map<String, Object> elements, long readTime) {
+        put(elements);
+        evictIfLate(readTime, elements.keySet().toArray(new String[0]));
+    }
+
+    /**
+     * 距离 readTime 超过时钟误差时删除刚写入的数据（只删除此刻之前写入的，不影响之后写入的新值）
+     * @param readTime 开始读取二级缓存的时间（毫秒）
+     * @param keys cache keys
+     */
+    default void evictIfLate(long readTime, String... keys) {
+        long now = System.currentTimeMillis();
+        if (keys.length > 0 && now - readTime > ClusterPolicy.EVICT_CLOCK_SKEW)
+            evict(now, keys);
+    }
+
+    /**
+     * 只删除在 stamp 之前（含）写入的数据。晚于 stamp 写入的数据是在对应的二级缓存写入之后才读取的，
+     * 不需要删除；无法获得写入时间的数据总是删除
+     * @param stamp 时间戳（毫秒），小于等于 0 时删除全部 keys
+     * @param keys cache keys
+     */
+    default void evict(long stamp, String... keys) {
+        if (stamp <= 0) {
+            evict(keys);
+            return;
+        }
+        List<String> stale = new ArrayList<>(keys.length);
+        for (String key : keys) {
+            long writeTime = writeTime(key);
+            if (writeTime < 0 || writeTime <= stamp)
+                stale.add(key);
+        }
+        if (stale.size() == keys.length)
+            evict(keys);
+        else if (!stale.isEmpty())
+            evict(stale.toArray(new String[0]));
+    }
+
 }
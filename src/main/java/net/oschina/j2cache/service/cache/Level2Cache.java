@@ -11,6 +11,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -107,6 +108,23 @@ public interface Level2Cache extends Cache {
      */
     void clear();
 
+    /**
+     * 分批清除缓存数据，每删除一批后通过 progress 报告累计删除的数量
+     * 默认实现直接调用 clear()，不报告进度
+     * @param progress 累计删除的数量
+     * @return 删除的数量，无法统计时返回 -1
+     */
+    default long clear(LongConsumer progress) {
+        clear();
+        return -1;
+    }
+
+    /**
+     * 收到其他节点清除该区域的广播时调用，二级缓存可以在这里丢弃本地保存的状态（例如区域的 generation）
+     */
+    default void onRemoteClear() {
+    }
+
     @Override
     default Object get(String key) {
         byte[] bytes = getBytes(key);
@@ -0,0 +1,170 @@
+package net.oschina.j2cache.service.cache;
+
+import net.oschina.j2cache.model.CacheObject;
+import net.oschina.j2cache.service.cache.impl.CacheProviderHolder;
+import net.oschina.j2cache.service.metrics.CacheMetrics;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ClassName: ReactiveCacheChannel
+ * Package: net.oschina.j2cache.service.cache
+ * Description:
+ * <p>基于 Project Reactor 的缓存读取入口，包装已有的 CacheChannel</p>
+ * <p>一级缓存命中时直接返回 Mono.just，不经过任何调度；一级缓存未命中时，
+ * 如果二级缓存实现了 ReactiveLevel2Cache（Lettuce）则使用响应式命令读取，
+ * 否则退化为 CacheChannel 的异步接口</p>
+ * <p>Flux 形式的批量读取按 batchSize 分组，每组只发起一次二级缓存批量读取，
+ * 并且只在下游请求数据时才读取下一组，从而遵守背压</p>
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 14:35
+ */
+public class ReactiveCacheChannel {
+
+    private final static int DEFAULT_BATCH_SIZE = 100;
+
+    private final CacheChannel channel;
+    private final int batchSize;
+
+    public ReactiveCacheChannel(CacheChannel channel) {
+        this(channel, DEFAULT_BATCH_SIZE);
+    }
+
+    /**
+     * @param channel 被包装的 CacheChannel
+     * @param batchSize Flux 批量读取时每次访问二级缓存的 key 数量
+     */
+    public ReactiveCacheChannel(CacheChannel channel, int batchSize) {
+        if (batchSize <= 0)
+            throw new IllegalArgumentException("batchSize must be positive");
+        this.channel = channel;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * 读取缓存（返回的对象不会为空）
+     * @param region Cache region name
+     * @param key Cache data key
+     * @param cacheNullObject 是否缓存空对象
+     * @return cache object
+     */
+    public Mono<CacheObject> get(String region, String key, boolean...cacheNullObject) {
+
+        channel.assertNotClose();
+
+        CacheProviderHolder holder = channel.holder();
+        Object value = holder.getLevel1Cache(region).get(key);
+        if (value != null)
+            return Mono.just(CacheMetrics.record(new CacheObject(region, key, CacheObject.LEVEL_1, value)));
+
+        Level2Cache level2 = holder.getLevel2Cache(region);
+        if (!(level2 instanceof ReactiveLevel2Cache))
+            return Mono.fromFuture(() -> channel.getAsync(region, key, cacheNullObject));
+
+        boolean cacheNull = (cacheNullObject.length > 0) ? cacheNullObject[0] : channel.isDefaultCacheNullObject();
+        return Mono.defer(() -> {
+                    long readTime = System.currentTimeMillis();
+                    return timed(region, ((ReactiveLevel2Cache) level2).getReactive(key)).map(l2Value -> {
+                        holder.getLevel1Cache(region).putRead(key, l2Value, readTime);
+                        return new CacheObject(region, key, CacheObject.LEVEL_2, l2Value);
+                    });
+                })
+                .switchIfEmpty(Mono.defer(() -> {
+                    Mono<Void> nullObject = cacheNull ? Mono.fromFuture(() -> channel.setAsync(region, key, null, true)) : Mono.empty();
+                    return nullObject.then(Mono.fromSupplier(() -> new CacheObject(region, key, CacheObject.LEVEL_2, null)));
+                }))
+                .map(CacheMetrics::record);
+    }
+
+    /**
+     * 批量读取缓存，结果顺序与 keys 的顺序一致
+     * @param region Cache region name
+     * @param keys cache keys
+     * @return cache objects
+     */
+    public Flux<CacheObject> get(String region, Flux<String> keys) {
+        return keys.buffer(batchSize).concatMap(batch -> getBatch(region, batch), 1);
+    }
+
+    /**
+     * 批量读取缓存，结果顺序与 keys 的顺序一致
+     * @param region Cache region name
+     * @param keys cache keys
+     * @return cache objects
+     */
+    public Flux<CacheObject> get(String region, List<String> keys) {
+        return get(region, Flux.fromIterable(keys));
+    }
+
+    private Flux<CacheObject> getBatch(String region, List<String> keys) {
+
+        channel.assertNotClose();
+
+        CacheProviderHolder holder = channel.holder();
+        Map<String, Object> objs = holder.getLevel1Cache(region).get(keys);
+        List<String> level2Keys = new ArrayList<>();
+        for (String key : keys) {
+            if (objs.get(key) == null)
+                level2Keys.add(key);
+        }
+
+        Mono<Map<String, Object>> level2Values;
+        if (level2Keys.isEmpty())
+            level2Values = Mono.just(Collections.emptyMap());
+        else {
+            Level2Cache level2 = holder.getLevel2Cache(region);
+            if (level2 instanceof ReactiveLevel2Cache)
+                level2Values = timed(region, ((ReactiveLevel2Cache) level2).getReactive(level2Keys));
+            else if (level2 instanceof AsyncLevel2Cache)
+                level2Values = timed(region, Mono.fromFuture(() -> ((AsyncLevel2Cache) level2).getAsync(level2Keys)));
+            else
+                level2Values = timed(region, Mono.fromCallable(() -> level2.get(level2Keys))).subscribeOn(Schedulers.boundedElastic());
+            Mono<Map<String, Object>> source = level2Values;
+            level2Values = Mono.defer(() -> {
+                long readTime = System.currentTimeMillis();
+                return source.doOnNext(values -> {
+                    Map<String, Object> found = new HashMap<>();
+                    values.forEach((k, v) -> {
+                        if (v != null)
+                            found.put(k, v);
+                    });
+                    if (!found.isEmpty())
+                        holder.getLevel1Cache(region).putRead(found, readTime);
+                });
+            });
+        }
+
+        return level2Values.flatMapIterable(values -> {
+            List<CacheObject> results = new ArrayList<>(keys.size());
+            for (String key : keys) {
+                Object value = objs.get(key);
+                if (value != null)
+                    results.add(new CacheObject(region, key, CacheObject.LEVEL_1, value));
+                else
+                    results.add(new CacheObject(region, key, CacheObject.LEVEL_2, values.get(key)));
+            }
+            results.forEach(CacheMetrics::record);
+            return results;
+        });
+    }
+
+    /**
+     * 记录二级缓存读取的耗时，从订阅开始计时，到完成、出错或取消为止
+     */
+    private static <T> Mono<T> timed(String region, Mono<T> level2) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return level2.doFinally(signal -> CacheMetrics.region(region).recordL2(System.nanoTime() - start));
+        });
+    }
+
+}
@@ -0,0 +1,80 @@
+package net.oschina.j2cache.service.cache;
+
+import net.oschina.j2cache.exception.CacheException;
+import net.oschina.j2cache.exception.DeserializeException;
+import net.oschina.j2cache.util.serializer.SerializationUtils;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ClassName: ReactiveLevel2Cache
+ * Package: net.oschina.j2cache.service.cache
+ * Description: 支持响应式读取的二级缓存接口，返回的 Mono 在订阅时才真正访问缓存
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 14:20
+ */
+public interface ReactiveLevel2Cache extends Level2Cache {
+
+    /**
+     * 读取缓存数据字节数组，不存在时返回空的 Mono
+     * @param key cache key
+     * @return cache data
+     */
+    Mono<byte[]> getBytesReactive(String key);
+
+    /**
+     * 同时读取多个 Key，结果顺序与 keys 一致，不存在的 key 对应 null
+     * @param keys multiple cache key
+     * @return cache values
+     */
+    Mono<List<byte[]>> getBytesReactive(List<String> keys);
+
+    /**
+     * 读取缓存对象，不存在时返回空的 Mono
+     * @param key cache key
+     * @return cache object
+     */
+    default Mono<Object> getReactive(String key) {
+        return getBytesReactive(key).handle((bytes, sink) -> {
+            Object obj = deserialize(key, bytes);
+            if (obj != null)
+                sink.next(obj);
+        });
+    }
+
+    /**
+     * 批量读取缓存对象，结果中只包含存在的 key
+     * @param keys cache keys
+     * @return key-value objects
+     */
+    default Mono<Map<String, Object>> getReactive(List<String> keys) {
+        return getBytesReactive(keys).map(bytes -> {
+            Map<String, Object> results = new HashMap<>();
+            for (int i = 0; i < keys.size(); i++) {
+                Object obj = deserialize(keys.get(i), bytes.get(i));
+                if (obj != null)
+                    results.put(keys.get(i), obj);
+            }
+            return results;
+        });
+    }
+
+    private Object deserialize(String key, byte[] bytes) {
+        try {
+            return SerializationUtils.deserialize(bytes);
+        } catch (DeserializeException e) {
+            //此处运行在 IO 线程上，不做同步的 evict，由后续的同步读取负责清理
+            log.warn("Failed to deserialize object with key:" + key + ",message: " + e.getMessage());
+            return null;
+        } catch (IOException e) {
+            throw new CacheException(e);
+        }
+    }
+
+}
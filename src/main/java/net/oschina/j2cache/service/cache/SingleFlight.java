@@ -0,0 +1,225 @@
+package net.oschina.j2cache.service.cache;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * ClassName: SingleFlight
+ * Package: net.oschina.j2cache.service.cache
+ * Description:
+ * <p>同一个 region/key 的并发加载合并为一次执行，其余调用者等待并共享同一个结果</p>
+ * <p>正在执行的加载以 CompletableFuture 的形式登记，执行结束后立即移除；
+ * 当登记数量超过上限时退化为固定数量的分段锁，保证内存占用有界</p>
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 10:12
+ */
+public class SingleFlight {
+
+    private final static int DEFAULT_STRIPES = 64;
+    private final static int DEFAULT_MAX_IN_FLIGHT = 4096;
+
+    private final ConcurrentHashMap<FlightKey, Flight<?>> flights = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes;
+    private final int maxInFlight;
+
+    public SingleFlight() {
+        this(DEFAULT_STRIPES, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * @param stripes 分段锁的数量（向上取整为 2 的幂）
+     * @param maxInFlight 同时登记的加载数量上限
+     */
+    public SingleFlight(int stripes, int maxInFlight) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++)
+            this.stripes[i] = new ReentrantLock();
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * 执行加载，同一时刻相同 region/key 只有一个线程真正执行 loader
+     *
+     * <strong>注意：loader 内部需要再次检查缓存，因为等待者可能恰好在上一次加载结束后才到达</strong>
+     *
+     * @param region cache region
+     * @param key cache key
+     * @param loader 实际的加载逻辑
+     * @param <T> result type
+     * @return 加载结果（与其他并发调用者共享）
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String region, String key, Supplier<T> loader) {
+        FlightKey fk = new FlightKey(region, key);
+        Flight<?> existing = flights.get(fk);
+        if (existing == null) {
+            if (flights.size() >= maxInFlight)
+                return executeStriped(fk, loader);
+            Flight<T> flight = new Flight<>(Thread.currentThread());
+            existing = flights.putIfAbsent(fk, flight);
+            if (existing == null)
+                return lead(fk, flight, loader);
+        }
+        //loader 中再次读取同一个 key 时直接执行，避免自己等待自己
+        if (existing.owner == Thread.currentThread())
+            return loader.get();
+        return (T) await(existing);
+    }
+
+    /**
+     * 异步执行加载，同一时刻相同 region/key 只会调用一次 loader，其余调用者等待同一次加载的结果
+     * 每个调用者得到的是共享 Future 的副本，调用者 complete/cancel 自己的副本不会影响其他调用者；
+     * 登记数量超过上限时不再合并，直接调用 loader（异步加载不能像同步加载那样退化为分段锁）
+     *
+     * @param region cache region
+     * @param key cache key
+     * @param loader 发起异步加载的逻辑
+     * @param <T> result type
+     * @return 加载结果
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> executeAsync(String region, String key, Supplier<CompletableFuture<T>> loader) {
+        FlightKey fk = new FlightKey(region, key);
+        Flight<?> existing = flights.get(fk);
+        if (existing == null) {
+            if (flights.size() >= maxInFlight)
+                return invoke(loader);
+            Flight<T> flight = new Flight<>(Thread.currentThread());
+            existing = flights.putIfAbsent(fk, flight);
+            if (existing == null)
+                return leadAsync(fk, flight, loader);
+        }
+        return ((CompletableFuture<T>) existing).copy();
+    }
+
+    private <T> CompletableFuture<T> leadAsync(FlightKey fk, Flight<T> flight, Supplier<CompletableFuture<T>> loader) {
+        CompletableFuture<T> source;
+        try {
+            source = loader.get();
+        } catch (Throwable e) {
+            flights.remove(fk, flight);
+            flight.completeExceptionally(e);
+            return flight.copy();
+        }
+        source.whenComplete((v, e) -> {
+            flights.remove(fk, flight);
+            if (e != null)
+                flight.completeExceptionally(e);
+            else
+                flight.complete(v);
+        });
+        return flight.copy();
+    }
+
+    private static <T> CompletableFuture<T> invoke(Supplier<CompletableFuture<T>> loader) {
+        try {
+            return loader.get();
+        } catch (Throwable e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * @return 当前正在执行的加载数量
+     */
+    public int inFlight() {
+        return flights.size();
+    }
+
+    private <T> T lead(FlightKey fk, Flight<T> flight, Supplier<T> loader) {
+        try {
+            T result = loader.get();
+            flight.complete(result);
+            return result;
+        } catch (Throwable e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            flights.remove(fk, flight);
+        }
+    }
+
+    private <T> T executeStriped(FlightKey fk, Supplier<T> loader) {
+        ReentrantLock lock = stripes[spread(fk.hashCode()) & (stripes.length - 1)];
+        lock.lock();
+        try {
+            return loader.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Object await(Flight<?> flight) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return flight.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    throw rethrow(e.getCause());
+                }
+            }
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException)
+            return (RuntimeException) e;
+        if (e instanceof Error)
+            throw (Error) e;
+        return new CompletionException(e);
+    }
+
+    private static int spread(int h) {
+        return h ^ (h >>> 16);
+    }
+
+    private static class Flight<T> extends CompletableFuture<T> {
+        private final Thread owner;
+
+        Flight(Thread owner) {
+            this.owner = owner;
+        }
+    }
+
+    private static class FlightKey {
+        private final String region;
+        private final String key;
+        private final int hash;
+
+        FlightKey(String region, String key) {
+            this.region = region;
+            this.key = key;
+            this.hash = 31 * Objects.hashCode(region) + Objects.hashCode(key);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof FlightKey))
+                return false;
+            FlightKey other = (FlightKey) o;
+            return Objects.equals(key, other.key) && Objects.equals(region, other.region);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+}
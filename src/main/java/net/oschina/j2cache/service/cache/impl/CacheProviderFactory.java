@@ -8,6 +8,7 @@ import net.oschina.j2cache.service.cache.impl.ehcache.EhCacheProvider3;
 import net.oschina.j2cache.service.cache.impl.lettuce.LettuceCacheProvider;
 import net.oschina.j2cache.service.cache.impl.memcached.XmemcachedCacheProvider;
 import net.oschina.j2cache.service.cache.impl.nil.NullCacheProvider;
+import net.oschina.j2cache.service.cache.impl.offheap.OffHeapProvider;
 import net.oschina.j2cache.service.cache.impl.redis.ReadonlyRedisCacheProvider;
 import net.oschina.j2cache.service.cache.impl.redis.RedisCacheProvider;
 
@@ -42,6 +43,8 @@ public class CacheProviderFactory {
                 return new EhCacheProvider3();
             case "caffeine":
                 return new CaffeineProvider();
+            case "offheap":
+                return new OffHeapProvider();
             case "redis":
                 return new RedisCacheProvider();
             case "readonly-redis":
@@ -0,0 +1,205 @@
+package net.oschina.j2cache.service.cache.impl.caffeine;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import net.oschina.j2cache.exception.CacheException;
+import net.oschina.j2cache.exception.DeserializeException;
+import net.oschina.j2cache.service.cache.AbstractL1Cache;
+import net.oschina.j2cache.service.cache.BytesLevel1Cache;
+import net.oschina.j2cache.util.serializer.SerializationUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ClassName: CaffeineBytesCache
+ * Package: net.oschina.j2cache.service.cache.impl.caffeine
+ * Description:
+ * <p>保存序列化后字节的 Caffeine 缓存（caffeine.region.X = 64MB,30m,storage=bytes），
+ * 容量按字节数限制（maximumWeight），内存占用可以预估；二级缓存读取到的字节直接写入，不需要重新序列化</p>
+ * <p>可选的 front 缓存保存少量反序列化后的对象（按条数限制），热点数据读取时不必每次反序列化；
+ * front 中的数据总是与字节缓存一同写入和删除</p>
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 22:40
+ */
+public class CaffeineBytesCache extends AbstractL1Cache implements BytesLevel1Cache {
+
+    private final static Logger log = LoggerFactory.getLogger(CaffeineBytesCache.class);
+
+    private Cache<String, byte[]> cache;
+    private Cache<String, Object> front;
+    private long capacity ;
+    private long expire ;
+    private long refresh ;
+
+    /**
+     * @param cache 按字节数限制容量的缓存
+     * @param front 反序列化后的对象缓存，为 null 时不启用
+     * @param capacity 最大字节数
+     * @param expire 过期时间（秒）
+     * @param refresh refresh-ahead threshold in second
+     */
+    public CaffeineBytesCache(Cache<String, byte[]> cache, Cache<String, Object> front, long capacity, long expire, long refresh) {
+        this.cache = cache;
+        this.front = front;
+        this.capacity = capacity;
+        this.expire = expire;
+        this.refresh = refresh;
+    }
+
+    /**
+     * 条目占用的字节数估算：key 的字符、value 的字节以及固定的对象开销
+     */
+    static int weigh(String key, byte[] value) {
+        return 64 + key.length() * 2 + value.length;
+    }
+
+    @Override
+    public long ttl() {
+        return expire;
+    }
+
+    /**
+     * 字节模式按字节数限制容量，这里返回最大字节数
+     */
+    @Override
+    public long size() {
+        return capacity;
+    }
+
+    @Override
+    public long weight() {
+        return cache.policy().eviction()
+                .map(policy -> policy.weightedSize().orElse(-1L))
+                .orElse(-1L);
+    }
+
+    @Override
+    public long refreshAfter() {
+        return refresh;
+    }
+
+    @Override
+    public boolean shouldRefresh(String key) {
+        if (refresh <= 0)
+            return false;
+        return cache.policy().expireAfterWrite()
+                .map(policy -> policy.ageOf(key, TimeUnit.SECONDS).orElse(0) >= refresh)
+                .orElse(false);
+    }
+
+    @Override
+    public long writeTime(String key) {
+        return cache.policy().expireAfterWrite().map(policy -> {
+            OptionalLong age = policy.ageOf(key, TimeUnit.MILLISECONDS);
+            return age.isPresent() ? System.currentTimeMillis() - age.getAsLong() : -1L;
+        }).orElse(-1L);
+    }
+
+    @Override
+    public byte[] getBytes(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    @Override
+    public void putBytes(String key, byte[] bytes) {
+        if (bytes == null || bytes.length == 0) {
+            evict(key);
+            return;
+        }
+        cache.put(key, bytes);
+        if (front != null)
+            front.invalidate(key);
+    }
+
+    @Override
+    public Object promote(String key, byte[] bytes, long readTime) {
+        Object value = BytesLevel1Cache.super.promote(key, bytes, readTime);
+        //写入太晚时字节数据已经被 evictIfLate 删除，front 中也不能保存
+        if (value != null && front != null && cache.getIfPresent(key) == bytes)
+            front.put(key, value);
+        return value;
+    }
+
+    @Override
+    protected Object getFromCache(String key) {
+        if (front != null) {
+            Object value = front.getIfPresent(key);
+            if (value != null)
+                return value;
+        }
+        byte[] bytes = cache.getIfPresent(key);
+        if (bytes == null)
+            return null;
+        try {
+            Object value = SerializationUtils.deserialize(bytes);
+            if (value != null && front != null)
+                front.put(key, value);
+            return value;
+        } catch (DeserializeException e) {
+            log.warn("Failed to deserialize object with key:" + key + ",message: " + e.getMessage());
+            evict(key);
+            return null;
+        } catch (IOException e) {
+            throw new CacheException(e);
+        }
+    }
+
+    @Override
+    protected Map<String, Object> getFromCache(Collection<String> keys) {
+        Map<String, Object> results = new HashMap<>(keys.size());
+        for (String key : keys) {
+            Object value = getFromCache(key);
+            if (value != null)
+                results.put(key, value);
+        }
+        return results;
+    }
+
+    @Override
+    protected void putInCache(String key, Object value) {
+        byte[] bytes = SerializationUtils.serializeWithoutException(value);
+        if (bytes == null || bytes.length == 0) {
+            evict(key);
+            return;
+        }
+        cache.put(key, bytes);
+        if (front != null)
+            front.put(key, value);
+    }
+
+    @Override
+    protected void putInCache(Map<String, Object> elements) {
+        elements.forEach(this::putInCache);
+    }
+
+    @Override
+    protected void evictFromCache(String... keys) {
+        List<String> list = Arrays.asList(keys);
+        cache.invalidateAll(list);
+        if (front != null)
+            front.invalidateAll(list);
+    }
+
+    @Override
+    protected void clearCache() {
+        cache.invalidateAll();
+        if (front != null)
+            front.invalidateAll();
+    }
+
+    @Override
+    protected Collection<String> getKeysFromCache() {
+        return cache.asMap().keySet();
+    }
+
+}
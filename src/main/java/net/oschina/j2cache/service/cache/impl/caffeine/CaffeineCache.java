@@ -10,6 +10,8 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -26,11 +28,17 @@ public class CaffeineCache extends AbstractL1Cache {
     private Cache<String, Object> cache;
     private long size ;
     private long expire ;
+    private long refresh ;
 
     public CaffeineCache(Cache<String, Object> cache, long size, long expire) {
+        this(cache, size, expire, 0);
+    }
+
+    public CaffeineCache(Cache<String, Object> cache, long size, long expire, long refresh) {
         this.cache = cache;
         this.size = size;
         this.expire = expire;
+        this.refresh = refresh;
     }
 
     @Override
@@ -41,6 +49,35 @@ public class CaffeineCache extends AbstractL1Cache {
     @Override
     public long size() { return size; }
 
+    @Override
+    public long weight() {
+        return cache.policy().eviction()
+                .map(policy -> policy.weightedSize().orElse(-1L))
+                .orElse(-1L);
+    }
+
+    @Override
+    public long refreshAfter() {
+        return refresh;
+    }
+
+    @Override
+    public boolean shouldRefresh(String key) {
+        if (refresh <= 0)
+            return false;
+        return cache.policy().expireAfterWrite()
+                .map(policy -> policy.ageOf(key, TimeUnit.SECONDS).orElse(0) >= refresh)
+                .orElse(false);
+    }
+
+    @Override
+    public long writeTime(String key) {
+        return cache.policy().expireAfterWrite().map(policy -> {
+            OptionalLong age = policy.ageOf(key, TimeUnit.MILLISECONDS);
+            return age.isPresent() ? System.currentTimeMillis() - age.getAsLong() : -1L;
+        }).orElse(-1L);
+    }
+
     @Override
     protected Object getFromCache(String key) {
         return cache.getIfPresent(key);
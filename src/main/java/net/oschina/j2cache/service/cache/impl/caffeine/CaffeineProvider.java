@@ -2,12 +2,15 @@ package net.oschina.j2cache.service.cache.impl.caffeine;
 
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Weigher;
 import net.oschina.j2cache.exception.CacheException;
 import net.oschina.j2cache.model.CacheObject;
 import net.oschina.j2cache.service.cache.Cache;
 import net.oschina.j2cache.service.cache.CacheChannel;
 import net.oschina.j2cache.service.cache.CacheExpiredListener;
 import net.oschina.j2cache.service.cache.CacheProvider;
+import net.oschina.j2cache.service.cache.Level1Cache;
+import net.oschina.j2cache.util.ConfigUtils;
 import net.oschina.j2cache.util.matcher.AntPathMatcher;
 import net.oschina.j2cache.util.matcher.PatternMatcher;
 import org.slf4j.Logger;
@@ -36,7 +39,7 @@ public class CaffeineProvider implements CacheProvider {
 
     private final static String PREFIX_REGION = "region.";
     private final static String DEFAULT_REGION = "default";
-    private ConcurrentHashMap<String, CaffeineCache> caches = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<String, Level1Cache> caches = new ConcurrentHashMap<>();
     private ConcurrentHashMap<String, CacheConfig> cacheConfigs = new ConcurrentHashMap<>();
     private PatternMatcher patternMatcher = new AntPathMatcher();
 
@@ -53,7 +56,7 @@ public class CaffeineProvider implements CacheProvider {
     @Override
     public Collection<CacheChannel.Region> regions() {
         Collection<CacheChannel.Region> regions = new ArrayList<>();
-        caches.forEach((k,c) -> regions.add(new CacheChannel.Region(k, c.size(), c.ttl())));
+        caches.forEach((k,c) -> regions.add(new CacheChannel.Region(k, c.size(), c.ttl(), c.weight())));
         return regions;
     }
 
@@ -67,13 +70,13 @@ public class CaffeineProvider implements CacheProvider {
                 if (config == null)
                     throw new CacheException(String.format("Undefined [default] caffeine cache"));
             }
-            return newCaffeineCache(region, config.size, config.expire, listener);
+            return newCaffeineCache(region, config, config.expire, listener);
         });
     }
 
     @Override
     public Cache buildCache(String region, long timeToLiveInSeconds, CacheExpiredListener listener) {
-        CaffeineCache cache = caches.computeIfAbsent(region, v -> {
+        Level1Cache cache = caches.computeIfAbsent(region, v -> {
             CacheConfig config = findCacheConfig(region);
             if(config != null && config.expire != timeToLiveInSeconds)
                 throw new IllegalArgumentException(String.format("Region [%s] TTL %d not match with %d", region, config.expire, timeToLiveInSeconds));
@@ -85,7 +88,7 @@ public class CaffeineProvider implements CacheProvider {
             }
 
             log.info("Started caffeine region [{}] with TTL: {}", region, timeToLiveInSeconds);
-            return newCaffeineCache(region, config.size, timeToLiveInSeconds, listener);
+            return newCaffeineCache(region, config, timeToLiveInSeconds, listener);
         });
 
         if(cache != null && cache.ttl() != timeToLiveInSeconds)
@@ -100,19 +103,40 @@ public class CaffeineProvider implements CacheProvider {
         caches.remove(region);
     }
 
+    /**
+     * 按 region 配置的存储方式创建缓存
+     * @param region region name
+     * @param config region config
+     * @param expire cache object expire time in second
+     * @param listener j2cache cache listener
+     * @return CaffeineCache or CaffeineBytesCache
+     */
+    private Level1Cache newCaffeineCache(String region, CacheConfig config, long expire, CacheExpiredListener listener) {
+        if (config.bytes)
+            return newCaffeineBytesCache(region, config.size, expire, config.refresh, config.front, listener);
+        Weigher<String, Object> weigher = config.weighted ? ObjectWeighers.create(config.weigher) : null;
+        return newCaffeineCache(region, config.size, expire, config.refresh, weigher, listener);
+    }
+
     /**
      * 返回对 Caffeine cache 的 封装
      * @param region region name
-     * @param size   max cache object size in memory
+     * @param size   max cache object size in memory, or max bytes if weigher is not null
      * @param expire cache object expire time in second
      *               if this parameter set to 0s or negative numbers
      *               means never expire
+     * @param refresh refresh-ahead threshold in second, 0 means disabled
+     * @param weigher 按字节数限制容量时的 weigher，为 null 时按条数限制
      * @param listener  j2cache cache listener
      * @return CaffeineCache
      */
-    private CaffeineCache newCaffeineCache(String region, long size, long expire, CacheExpiredListener listener) {
+    private CaffeineCache newCaffeineCache(String region, long size, long expire, long refresh, Weigher<String, Object> weigher, CacheExpiredListener listener) {
         Caffeine<Object, Object> caffeine = Caffeine.newBuilder();
-        caffeine = caffeine.maximumSize(size)
+        if (weigher != null)
+            caffeine = caffeine.maximumWeight(size).weigher((Object k, Object v) -> weigher.weigh((String) k, v));
+        else
+            caffeine = caffeine.maximumSize(size);
+        caffeine = caffeine
                 .removalListener((k,v, cause) -> {
                     /*
                      * 程序删除的缓存不做通知处理，因为上层已经做了处理
@@ -125,7 +149,50 @@ public class CaffeineProvider implements CacheProvider {
             caffeine = caffeine.expireAfterWrite(expire, TimeUnit.SECONDS);
         }
         com.github.benmanes.caffeine.cache.Cache<String, Object> loadingCache = caffeine.build();
-        return new CaffeineCache(loadingCache, size, expire);
+        if (refresh > 0 && (expire <= 0 || refresh >= expire)) {
+            log.warn("Caffeine region [{}] refresh {}s must be less than expire {}s, refresh-ahead disabled.", region, refresh, expire);
+            refresh = 0;
+        }
+        return new CaffeineCache(loadingCache, size, expire, refresh);
+    }
+
+    /**
+     * 返回保存序列化字节的 Caffeine cache，容量按字节数限制
+     * @param region region name
+     * @param capacity max bytes in memory
+     * @param expire cache object expire time in second
+     * @param refresh refresh-ahead threshold in second, 0 means disabled
+     * @param front max size of the deserialized object cache, 0 means disabled
+     * @param listener  j2cache cache listener
+     * @return CaffeineBytesCache
+     */
+    private CaffeineBytesCache newCaffeineBytesCache(String region, long capacity, long expire, long refresh, long front, CacheExpiredListener listener) {
+        Caffeine<Object, Object> frontBuilder = null;
+        if (front > 0) {
+            frontBuilder = Caffeine.newBuilder().maximumSize(front);
+            if (expire > 0)
+                frontBuilder = frontBuilder.expireAfterWrite(expire, TimeUnit.SECONDS);
+        }
+        com.github.benmanes.caffeine.cache.Cache<String, Object> frontCache = (frontBuilder == null) ? null : frontBuilder.build();
+        Caffeine<String, byte[]> caffeine = Caffeine.newBuilder()
+                .maximumWeight(capacity)
+                .weigher(CaffeineBytesCache::weigh)
+                .removalListener((String k, byte[] v, RemovalCause cause) -> {
+                    //字节缓存中的数据被淘汰或过期时，front 中的对象也要删除
+                    if (cause != RemovalCause.REPLACED && frontCache != null)
+                        frontCache.invalidate(k);
+                    //与对象模式相同，只通知过期等非程序删除的情况
+                    if(cause != RemovalCause.EXPLICIT && cause != RemovalCause.REPLACED && cause != RemovalCause.SIZE)
+                        listener.notifyElementExpired(region, k);
+                });
+        if (expire > 0) {
+            caffeine = caffeine.expireAfterWrite(expire, TimeUnit.SECONDS);
+        }
+        if (refresh > 0 && (expire <= 0 || refresh >= expire)) {
+            log.warn("Caffeine region [{}] refresh {}s must be less than expire {}s, refresh-ahead disabled.", region, refresh, expire);
+            refresh = 0;
+        }
+        return new CaffeineBytesCache(caffeine.build(), frontCache, capacity, expire, refresh);
     }
 
     /**
@@ -134,7 +201,16 @@ public class CaffeineProvider implements CacheProvider {
      * <li>caffeine.region.default = 10000,1h</li>
      * <li>caffeine.region.Users = 10000,1h</li>
      * <li>caffeine.region.Blogs = 80000,30m</li>
+     * <li>caffeine.region.Hots = 10000,1h,refresh=50m</li>
+     * <li>caffeine.region.Blogs = 512MB,30m</li>
+     * <li>caffeine.region.Posts = 256MB,30m,weigher=serialized</li>
+     * <li>caffeine.region.Large = 64MB,30m,storage=bytes,front=1000</li>
      * </ul>
+     * <p>第一项带有单位（B/KB/MB/GB）时按估算的字节数限制容量，weigher 可以是 deep（默认）、shallow、serialized
+     * 或者 Weigher 实现类的类名，详见 ObjectWeighers</p>
+     * <p>refresh 表示写入超过该时间后，使用 loader 读取时返回当前值并在后台重新加载</p>
+     * <p>storage=bytes 表示保存序列化后的字节，第一项为最大字节数（支持 KB/MB/GB），
+     * front 为反序列化对象缓存的最大条数（默认 0，不启用）</p>
      * @param props current configuration settings.
      */
     @Override
@@ -222,44 +298,59 @@ public class CaffeineProvider implements CacheProvider {
 
         private long size = 0L;
         private long expire = 0L;
+        private long refresh = 0L;
+        private boolean bytes = false;
+        private long front = 0L;
+        private boolean weighted = false;
+        private String weigher = "deep";
 
         public static CacheConfig parse(String cfg) {
-            CacheConfig cacheConfig = null;
             String[] cfgs = cfg.split(",");
-            if(cfgs.length == 1) {
-                cacheConfig = new CacheConfig();
-                String sSize = cfgs[0].trim();
-                cacheConfig.size = Long.parseLong(sSize);
-            }
-            else if(cfgs.length == 2) {
-                cacheConfig = new CacheConfig();
-                String sSize = cfgs[0].trim();
-                String sExpire = cfgs[1].trim();
-                cacheConfig.size = Long.parseLong(sSize);
-                char unit = Character.toLowerCase(sExpire.charAt(sExpire.length()-1));
-                cacheConfig.expire = Long.parseLong(sExpire.substring(0, sExpire.length() - 1));
-                switch(unit){
-                    case 's'://seconds
-                        break;
-                    case 'm'://minutes
-                        cacheConfig.expire *= 60;
-                        break;
-                    case 'h'://hours
-                        cacheConfig.expire *= 3600;
-                        break;
-                    case 'd'://days
-                        cacheConfig.expire *= 86400;
-                        break;
-                    default:
-                        throw new IllegalArgumentException("Unknown expire unit:" + unit);
+            if(cfgs.length < 1 || cfgs.length > 6)
+                return null;
+            CacheConfig cacheConfig = new CacheConfig();
+            for (int i = 1; i < cfgs.length; i++) {
+                String option = cfgs[i].trim();
+                int idx = option.indexOf('=');
+                if (idx < 0) {
+                    if (i != 1)
+                        throw new IllegalArgumentException("Expire must follow size:" + cfg);
+                    cacheConfig.expire = ConfigUtils.parseSeconds(option);
                 }
+                else if ("refresh".equalsIgnoreCase(option.substring(0, idx).trim()))
+                    cacheConfig.refresh = ConfigUtils.parseSeconds(option.substring(idx + 1).trim());
+                else if ("storage".equalsIgnoreCase(option.substring(0, idx).trim()))
+                    cacheConfig.bytes = parseStorage(option.substring(idx + 1).trim());
+                else if ("front".equalsIgnoreCase(option.substring(0, idx).trim()))
+                    cacheConfig.front = Long.parseLong(option.substring(idx + 1).trim());
+                else if ("weigher".equalsIgnoreCase(option.substring(0, idx).trim()))
+                    cacheConfig.weigher = option.substring(idx + 1).trim();
+                else
+                    throw new IllegalArgumentException("Unknown caffeine option:" + option);
             }
+            //字节模式下第一项为字节数；对象模式下第一项带单位时按估算的字节数限制容量
+            String size = cfgs[0].trim();
+            cacheConfig.weighted = !cacheConfig.bytes && !Character.isDigit(size.charAt(size.length() - 1));
+            cacheConfig.size = (cacheConfig.bytes || cacheConfig.weighted) ? ConfigUtils.parseBytes(size) : Long.parseLong(size);
+            if (cacheConfig.front > 0 && !cacheConfig.bytes)
+                throw new IllegalArgumentException("Front cache requires storage=bytes:" + cfg);
+            if (!cacheConfig.weighted && cfg.toLowerCase().contains("weigher="))
+                throw new IllegalArgumentException("Weigher requires a capacity in bytes (e.g. 512MB):" + cfg);
             return cacheConfig;
         }
 
+        private static boolean parseStorage(String value) {
+            if ("bytes".equalsIgnoreCase(value))
+                return true;
+            if ("object".equalsIgnoreCase(value))
+                return false;
+            throw new IllegalArgumentException("Unknown caffeine storage:" + value);
+        }
+
         @Override
         public String toString() {
-            return String.format("[SIZE:%d,EXPIRE:%d]", size, expire);
+            return String.format("[SIZE:%d,EXPIRE:%d,REFRESH:%d,STORAGE:%s,FRONT:%d,WEIGHER:%s]", size, expire, refresh,
+                    bytes ? "bytes" : "object", front, weighted ? weigher : "none");
         }
 
     }
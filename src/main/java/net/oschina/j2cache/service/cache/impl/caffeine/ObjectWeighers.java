@@ -0,0 +1,206 @@
+package net.oschina.j2cache.service.cache.impl.caffeine;
+
+import com.github.benmanes.caffeine.cache.Weigher;
+import net.oschina.j2cache.exception.CacheException;
+import net.oschina.j2cache.util.serializer.SerializationUtils;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ClassName: ObjectWeighers
+ * Package: net.oschina.j2cache.service.cache.impl.caffeine
+ * Description:
+ * <p>按字节数限制容量的 Caffeine region（caffeine.region.Blogs = 512MB,30m）使用的 weigher</p>
+ * <ul>
+ *     <li>serialized：序列化后的字节数，最接近二级缓存中的大小，但每次写入都需要序列化一次</li>
+ *     <li>shallow：对象本身占用的堆内存（对象头 + 字段），不包含引用的对象</li>
+ *     <li>deep：沿引用遍历整个对象图估算的堆内存（默认），JDK 内部类不可反射时按集合大小估算</li>
+ *     <li>类名：实现 com.github.benmanes.caffeine.cache.Weigher 的自定义类</li>
+ * </ul>
+ * <p>估算按 64 位 JVM、开启压缩指针（对象头 12 字节、引用 4 字节、8 字节对齐）计算</p>
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 23:05
+ */
+public class ObjectWeighers {
+
+    private final static int HEADER = 12;
+    private final static int ARRAY_HEADER = 16;
+    private final static int REFERENCE = 4;
+    private final static int ENTRY_OVERHEAD = 64;     //Caffeine 节点与 key 之外的固定开销
+    private final static int MAX_VISITED = 10000;     //深度估算时最多访问的对象数量
+
+    private final static ClassValue<Layout> layouts = new ClassValue<Layout>() {
+        @Override
+        protected Layout computeValue(Class<?> type) {
+            return new Layout(type);
+        }
+    };
+
+    private ObjectWeighers() {}
+
+    /**
+     * 按名称创建 weigher
+     * @param name serialized、shallow、deep 或者 Weigher 实现类的类名
+     * @return weigher
+     */
+    @SuppressWarnings("unchecked")
+    public static Weigher<String, Object> create(String name) {
+        switch (name.toLowerCase()) {
+            case "serialized":
+                return (key, value) -> weight(key, SerializationUtils.serializeWithoutException(value).length);
+            case "shallow":
+                return (key, value) -> weight(key, shallowSize(value));
+            case "deep":
+                return (key, value) -> weight(key, deepSize(value));
+            default:
+                try {
+                    return (Weigher<String, Object>) Class.forName(name).getDeclaredConstructor().newInstance();
+                } catch (ReflectiveOperationException | ClassCastException e) {
+                    throw new CacheException("Failed to create caffeine weigher " + name, e);
+                }
+        }
+    }
+
+    /**
+     * @return 对象本身占用的字节数，不包含引用的对象
+     */
+    public static long shallowSize(Object obj) {
+        if (obj == null)
+            return 0;
+        Class<?> type = obj.getClass();
+        if (type.isArray())
+            return arraySize(obj, type.getComponentType());
+        return layouts.get(type).size;
+    }
+
+    /**
+     * @return 对象及其引用的所有对象占用的字节数（估算值）
+     */
+    public static long deepSize(Object obj) {
+        if (obj == null)
+            return 0;
+        IdentityHashMap<Object, Boolean> visited = new IdentityHashMap<>();
+        Deque<Object> pending = new ArrayDeque<>();
+        pending.push(obj);
+        long size = 0;
+        while (!pending.isEmpty() && visited.size() < MAX_VISITED) {
+            Object current = pending.pop();
+            if (visited.put(current, Boolean.TRUE) != null || isShared(current))
+                continue;
+            Class<?> type = current.getClass();
+            if (type.isArray()) {
+                size += arraySize(current, type.getComponentType());
+                if (!type.getComponentType().isPrimitive()) {
+                    for (int i = 0, len = Array.getLength(current); i < len; i++)
+                        push(pending, Array.get(current, i));
+                }
+            }
+            else if (current instanceof String)
+                size += align(HEADER + 4 + 4) + align(ARRAY_HEADER + ((String) current).length());
+            else if (current instanceof Collection && !layouts.get(type).accessible) {
+                //JDK 集合的内部字段不可反射，按每个元素一个节点估算
+                Collection<?> c = (Collection<?>) current;
+                size += layouts.get(type).size + (long) c.size() * 24;
+                c.forEach(e -> push(pending, e));
+            }
+            else if (current instanceof Map && !layouts.get(type).accessible) {
+                Map<?, ?> m = (Map<?, ?>) current;
+                size += layouts.get(type).size + (long) m.size() * 40;
+                m.forEach((k, v) -> {
+                    push(pending, k);
+                    push(pending, v);
+                });
+            }
+            else {
+                Layout layout = layouts.get(type);
+                size += layout.size;
+                for (Field field : layout.references) {
+                    try {
+                        push(pending, field.get(current));
+                    } catch (IllegalAccessException e) {
+                        //不可访问的字段只计算引用本身
+                    }
+                }
+            }
+        }
+        return size;
+    }
+
+    private static int weight(String key, long size) {
+        long weight = ENTRY_OVERHEAD + align(ARRAY_HEADER + key.length()) + size;
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    private static void push(Deque<Object> pending, Object obj) {
+        if (obj != null)
+            pending.push(obj);
+    }
+
+    /**
+     * 枚举、Class 等对象是全局共享的，不计入缓存数据的大小
+     */
+    private static boolean isShared(Object obj) {
+        return obj instanceof Enum || obj instanceof Class;
+    }
+
+    private static long arraySize(Object array, Class<?> component) {
+        int length = Array.getLength(array);
+        return align(ARRAY_HEADER + (long) length * sizeOf(component));
+    }
+
+    private static int sizeOf(Class<?> type) {
+        if (type == long.class || type == double.class)
+            return 8;
+        if (type == int.class || type == float.class)
+            return 4;
+        if (type == short.class || type == char.class)
+            return 2;
+        if (type == byte.class || type == boolean.class)
+            return 1;
+        return REFERENCE;
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    /**
+     * 类的实例字段布局：实例大小以及需要继续遍历的引用字段
+     */
+    private static class Layout {
+
+        private final long size;
+        private final List<Field> references = new ArrayList<>();
+        private boolean accessible = true;
+
+        Layout(Class<?> type) {
+            long fields = 0;
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()))
+                        continue;
+                    fields += sizeOf(field.getType());
+                    if (field.getType().isPrimitive())
+                        continue;
+                    if (field.trySetAccessible())
+                        references.add(field);
+                    else
+                        accessible = false;
+                }
+            }
+            this.size = align(HEADER + fields);
+        }
+    }
+
+}
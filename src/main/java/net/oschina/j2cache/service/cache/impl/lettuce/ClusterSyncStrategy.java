@@ -1,6 +1,8 @@
 package net.oschina.j2cache.service.cache.impl.lettuce;
 
 import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.async.BaseRedisAsyncCommands;
+import io.lettuce.core.api.reactive.BaseRedisReactiveCommands;
 import io.lettuce.core.api.sync.BaseRedisCommands;
 import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
 
@@ -20,4 +22,18 @@ public class ClusterSyncStrategy implements SyncStrategy {
             return ((StatefulRedisClusterConnection) conn).sync();
         return null;
     }
+
+    @Override
+    public BaseRedisAsyncCommands async(StatefulConnection conn) {
+        if (conn instanceof StatefulRedisClusterConnection)
+            return ((StatefulRedisClusterConnection) conn).async();
+        return null;
+    }
+
+    @Override
+    public BaseRedisReactiveCommands reactive(StatefulConnection conn) {
+        if (conn instanceof StatefulRedisClusterConnection)
+            return ((StatefulRedisClusterConnection) conn).reactive();
+        return null;
+    }
 }
\ No newline at end of file
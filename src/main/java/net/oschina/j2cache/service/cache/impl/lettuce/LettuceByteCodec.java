@@ -1,8 +1,10 @@
 package net.oschina.j2cache.service.cache.impl.lettuce;
 
 import io.lettuce.core.codec.RedisCodec;
+import net.oschina.j2cache.util.KeyEncoder;
 
 import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 /**
  * ClassName: LettuceByteCodec
@@ -19,7 +21,7 @@ public class LettuceByteCodec implements RedisCodec<String, byte[]> {
 
     @Override
     public String decodeKey(ByteBuffer byteBuffer) {
-        return new String(getBytes(byteBuffer));
+        return StandardCharsets.UTF_8.decode(byteBuffer).toString();
     }
 
     @Override
@@ -29,7 +31,7 @@ public class LettuceByteCodec implements RedisCodec<String, byte[]> {
 
     @Override
     public ByteBuffer encodeKey(String s) {
-        return ByteBuffer.wrap(s.getBytes());
+        return ByteBuffer.wrap(KeyEncoder.utf8(s));
     }
 
     @Override
@@ -2,11 +2,19 @@ package net.oschina.j2cache.service.cache.impl.lettuce;
 
 import io.lettuce.core.api.StatefulConnection;
 import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.BaseRedisAsyncCommands;
+import io.lettuce.core.api.reactive.BaseRedisReactiveCommands;
 import io.lettuce.core.api.sync.BaseRedisCommands;
 import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
 import net.oschina.j2cache.exception.CacheException;
-import net.oschina.j2cache.service.cache.Level2Cache;
+import net.oschina.j2cache.service.cache.AsyncLevel2Cache;
+import net.oschina.j2cache.service.cache.ReactiveLevel2Cache;
 import org.apache.commons.pool2.impl.GenericObjectPool;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.function.Function;
 
 /**
  * ClassName: LettuceCache
@@ -17,7 +25,7 @@ import org.apache.commons.pool2.impl.GenericObjectPool;
  * @version 1.0
  * @date 2023/10/23 1:26
  */
-public abstract class LettuceCache implements Level2Cache {
+public abstract class LettuceCache implements AsyncLevel2Cache, ReactiveLevel2Cache {
 
     protected String namespace;
     protected String region;
@@ -27,13 +35,47 @@ public abstract class LettuceCache implements Level2Cache {
 
     protected StatefulConnection connect() {
         try {
-            setStrategy(pool.borrowObject());
-            return pool.borrowObject();
+            StatefulConnection conn = pool.borrowObject();
+            setStrategy(conn);
+            return conn;
         } catch (Exception e) {
             throw new CacheException(e);
         }
     }
 
+    /**
+     * 使用 Lettuce 的异步命令执行操作，命令完成后连接自动归还连接池
+     * @param command 异步命令
+     * @param <T> result type
+     * @return 命令结果
+     */
+    protected <T> CompletableFuture<T> execAsync(Function<BaseRedisAsyncCommands, CompletionStage<T>> command) {
+        StatefulConnection connection;
+        try {
+            connection = connect();
+        } catch (CacheException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<T> future;
+        try {
+            future = command.apply(async(connection)).toCompletableFuture();
+        } catch (RuntimeException e) {
+            connection.close();
+            return CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((r, e) -> connection.close());
+    }
+
+    /**
+     * 使用 Lettuce 的响应式命令执行操作，订阅时才从连接池借出连接，结束或取消时归还
+     * @param command 响应式命令
+     * @param <T> result type
+     * @return 命令结果
+     */
+    protected <T> Mono<T> execReactive(Function<BaseRedisReactiveCommands, Mono<T>> command) {
+        return Mono.using(this::connect, connection -> command.apply(reactive(connection)), StatefulConnection::close);
+    }
+
     /**
      * 策略模式进行处理
      * */
@@ -52,4 +94,12 @@ public abstract class LettuceCache implements Level2Cache {
         return strategy == null ? null : strategy.sync(conn);
     }
 
+    protected BaseRedisAsyncCommands async(StatefulConnection conn) {
+        return strategy == null ? null : strategy.async(conn);
+    }
+
+    protected BaseRedisReactiveCommands reactive(StatefulConnection conn) {
+        return strategy == null ? null : strategy.reactive(conn);
+    }
+
 }
@@ -17,12 +17,17 @@ import net.oschina.j2cache.model.Command;
 import net.oschina.j2cache.service.cache.*;
 import net.oschina.j2cache.service.cache.impl.CacheProviderHolder;
 import net.oschina.j2cache.service.cluster.ClusterPolicy;
+import net.oschina.j2cache.service.cluster.CommandCodec;
+import net.oschina.j2cache.service.metrics.CacheMetrics;
 import org.apache.commons.pool2.impl.GenericObjectPool;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 
 /**
  * ClassName: LettuceCacheProvider
@@ -36,12 +41,17 @@ import java.util.concurrent.ConcurrentHashMap;
  *  lettuce.password =
  *  lettuce.database = 0
  *  lettuce.sentinelMasterId =
+ *  lettuce.publishMaxInFlight = 1000
+ *  lettuce.publish.overflow = block|drop
+ *  lettuce.publish.timeout = 1000
+ *  lettuce.generations = false
+ *  lettuce.generationReap = true
  *
  * @author JX
  * @version 1.0
  * @date 2023/10/23 1:27
  */
-public class LettuceCacheProvider extends RedisPubSubAdapter<String, String> implements CacheProvider, ClusterPolicy {
+public class LettuceCacheProvider extends RedisPubSubAdapter<String, byte[]> implements CacheProvider, ClusterPolicy {
 
     private int LOCAL_COMMAND_ID = Command.genRandomSrc(); //命令源标识，随机生成，每个节点都有唯一标识
 
@@ -49,7 +59,11 @@ public class LettuceCacheProvider extends RedisPubSubAdapter<String, String> imp
 
     private static AbstractRedisClient redisClient;
     GenericObjectPool<StatefulConnection<String, byte[]>> pool;
-    private StatefulRedisPubSubConnection<String, String> pubsub_subscriber;
+    private StatefulRedisPubSubConnection<String, byte[]> pubsub_subscriber;
+    private volatile StatefulRedisPubSubConnection<String, byte[]> pubsub_publisher;
+    private Semaphore publishPermits;
+    private long publishTimeout;    //等待 publishPermits 的毫秒数，0 表示不等待
+    private CommandCodec commandCodec;
     private String storage;
 
     private CacheProviderHolder holder;
@@ -57,9 +71,30 @@ public class LettuceCacheProvider extends RedisPubSubAdapter<String, String> imp
     private String channel;
     private String namespace;
     private int scanCount;
+    private boolean generations;
+    private boolean generationReap;
 
     private final ConcurrentHashMap<String, Level2Cache> regions = new ConcurrentHashMap();
 
+    /**
+     * @return 二级缓存使用的 Lettuce 客户端，start 之前为 null
+     */
+    static AbstractRedisClient redisClient() {
+        return redisClient;
+    }
+
+    String getNamespace() {
+        return namespace;
+    }
+
+    String getStorage() {
+        return storage;
+    }
+
+    boolean isGenerations() {
+        return generations;
+    }
+
     @Override
     public String name() {
         return "lettuce";
@@ -80,6 +115,8 @@ public class LettuceCacheProvider extends RedisPubSubAdapter<String, String> imp
         this.namespace = props.getProperty("namespace");
         this.scanCount = Integer.valueOf(props.getProperty("scanCount", "1000"));
         this.storage = props.getProperty("storage", "hash");
+        this.generations = Boolean.parseBoolean(props.getProperty("generations", "false"));
+        this.generationReap = Boolean.parseBoolean(props.getProperty("generationReap", "true"));
         this.channel = props.getProperty("channel", "j2cache");
 
         String scheme = props.getProperty("scheme", "redis");
@@ -178,7 +215,7 @@ public class LettuceCacheProvider extends RedisPubSubAdapter<String, String> imp
     public Cache buildCache(String region, CacheExpiredListener listener) {
         return regions.computeIfAbsent(this.namespace + ":" + region, v -> "hash".equalsIgnoreCase(this.storage)?
                 new LettuceHashCache(this.namespace, region, pool):
-                new LettuceGenericCache(this.namespace, region, pool, scanCount));
+                new LettuceGenericCache(this.namespace, region, pool, scanCount, generations, generationReap));
     }
 
     @Override
@@ -201,24 +238,30 @@ public class LettuceCacheProvider extends RedisPubSubAdapter<String, String> imp
         holder.getLevel1Cache(region).evict(keys);
     }
 
+    @Override
+    public void evict(String region, long stamp, String... keys) {
+        holder.getLevel1Cache(region).evict(stamp, keys);
+    }
+
     /**
      * 清除本地整个缓存区域
      * @param region 区域名称
      */
     @Override
     public void clear(String region) {
+        holder.getLevel2Cache(region).onRemoteClear();
         holder.getLevel1Cache(region).clear();
     }
 
     /**
-     * Get PubSub connection
+     * Get PubSub connection，消息以字节形式收发，由 CommandCodec 识别 JSON 与二进制格式
      * @return connection instance
      */
-    private StatefulRedisPubSubConnection pubsub() {
+    private StatefulRedisPubSubConnection<String, byte[]> pubsub() {
         if(redisClient instanceof RedisClient)
-            return ((RedisClient)redisClient).connectPubSub();
+            return ((RedisClient)redisClient).connectPubSub(codec);
         else if(redisClient instanceof RedisClusterClient)
-            return ((RedisClusterClient)redisClient).connectPubSub();
+            return ((RedisClusterClient)redisClient).connectPubSub(codec);
         return null;
     }
 
@@ -227,38 +270,132 @@ public class LettuceCacheProvider extends RedisPubSubAdapter<String, String> imp
         long ct = System.currentTimeMillis();
         this.holder = holder;
         this.channel = props.getProperty("channel", "j2cache");
-        this.publish(Command.join());
+        this.commandCodec = new CommandCodec(props, LOCAL_COMMAND_ID);
+        if (redisClient instanceof RedisClusterClient && commandCodec.needsMembers())
+            log.warn("PUBSUB NUMSUB only counts subscribers of one node in redis cluster, broadcast stays json until format.members is set");
+        this.publishPermits = new Semaphore(Integer.parseInt(props.getProperty("publishMaxInFlight", "1000")));
+        this.publishTimeout = "drop".equalsIgnoreCase(props.getProperty("publish.overflow", "block")) ? 0
+                : Long.parseLong(props.getProperty("publish.timeout", "1000"));
 
         this.pubsub_subscriber = this.pubsub();
         this.pubsub_subscriber.addListener(this);
-        RedisPubSubAsyncCommands<String, String> async = this.pubsub_subscriber.async();
+        RedisPubSubAsyncCommands<String, byte[]> async = this.pubsub_subscriber.async();
         async.subscribe(this.channel);
 
         log.info("Connected to redis channel:{}, time {}ms.", this.channel, System.currentTimeMillis()-ct);
     }
 
+    /**
+     * 订阅成功（包括断线重连后重新订阅）后才宣告加入，保证能收到其他节点的 JOIN 应答；
+     * 回调在 Lettuce 的 IO 线程上，publish 可能等待 publishPermits，因此放到其他线程执行
+     */
+    @Override
+    public void subscribed(String channel, long count) {
+        CompletableFuture.runAsync(() -> {
+            refreshMembers();
+            this.publish(Command.join());
+        });
+    }
+
+    /**
+     * 收到其他节点的 JOIN/QUIT 时重新统计节点数，JOIN 还需要应答，与 subscribed 一样不在 IO 线程上执行
+     */
     @Override
-    public void message(String channel, String message) {
-        Command cmd = Command.parse(message);
+    public void message(String channel, byte[] message) {
+        Command cmd = commandCodec.decode(message);
+        if (cmd != null && !isLocalCommand(cmd) && isMembershipChange(cmd)) {
+            CompletableFuture.runAsync(() -> {
+                refreshMembers();
+                handleCommand(cmd);
+            });
+            return;
+        }
         handleCommand(cmd);
     }
 
+    private static boolean isMembershipChange(Command cmd) {
+        return cmd.getOperator() == Command.OPT_QUIT
+                || (cmd.getOperator() == Command.OPT_JOIN && !Command.JOIN_REPLY.equals(cmd.getRegion()));
+    }
+
+    /**
+     * 通过 PUBSUB NUMSUB 获取订阅频道的节点数，集群模式下只能统计一个节点上的订阅者，不使用
+     */
+    private void refreshMembers() {
+        if (redisClient instanceof RedisClusterClient || !commandCodec.needsMembers())
+            return;
+        this.publisher().async().pubsubNumsub(this.channel).whenComplete((counts, e) -> {
+            if (e != null) {
+                log.warn("Failed to count subscribers of redis channel:{}", this.channel, e);
+                return;
+            }
+            Long subscribers = counts.get(this.channel);
+            commandCodec.setMembers((subscribers == null) ? -1 : subscribers.intValue());
+        });
+    }
+
+    /**
+     * 异步发布消息，使用一个长期持有的连接（断线后由 Lettuce 自动重连），
+     * 同时等待响应的消息数量超过 publishMaxInFlight 时按 publish.overflow 处理：
+     * block 最多阻塞调用者 publish.timeout 毫秒，drop 不等待，仍然没有空位时丢弃该消息（例如 Redis 长时间无响应）
+     * @param cmd command to send
+     */
     @Override
     public void publish(Command cmd) {
         cmd.setSrc(LOCAL_COMMAND_ID);
-        try (StatefulRedisPubSubConnection<String, String> connection = this.pubsub()){
-            RedisPubSubCommands<String, String> sync = connection.sync();
-            sync.publish(this.channel, cmd.json());
+        byte[] message = commandCodec.encode(cmd);
+        boolean acquired;
+        try {
+            acquired = publishPermits.tryAcquire(publishTimeout, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            CacheMetrics.recordBroadcastDropped();
+            log.warn("Too many pending publishes to redis channel:{}, drop {}", this.channel, cmd);
+            return;
+        }
+        try {
+            this.publisher().async().publish(this.channel, message).whenComplete((receivers, e) -> {
+                publishPermits.release();
+                if (e != null)
+                    log.error("Failed to publish {} to redis channel:{}", cmd, this.channel, e);
+            });
+        } catch (RuntimeException e) {
+            publishPermits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * 用于发布消息的连接，处于订阅状态的连接不能再发布消息，因此与 pubsub_subscriber 分开
+     */
+    private StatefulRedisPubSubConnection<String, byte[]> publisher() {
+        StatefulRedisPubSubConnection<String, byte[]> connection = this.pubsub_publisher;
+        if (connection == null) {
+            synchronized (this) {
+                connection = this.pubsub_publisher;
+                if (connection == null)
+                    this.pubsub_publisher = connection = this.pubsub();
+            }
         }
+        return connection;
     }
 
     @Override
     public void disconnect() {
         try {
-            this.publish(Command.quit());
+            //同步发送退出消息，同一个连接上的命令按顺序执行，返回时之前的异步消息也都已经发送完成
+            Command quit = Command.quit();
+            quit.setSrc(LOCAL_COMMAND_ID);
+            RedisPubSubCommands<String, byte[]> sync = this.publisher().sync();
+            sync.publish(this.channel, commandCodec.encode(quit));
             super.unsubscribed(this.channel, 1);
         } finally {
             this.pubsub_subscriber.close();
+            if (this.pubsub_publisher != null)
+                this.pubsub_publisher.close();
         }
     }
 }
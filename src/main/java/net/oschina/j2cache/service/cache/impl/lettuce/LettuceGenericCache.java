@@ -1,20 +1,36 @@
 package net.oschina.j2cache.service.cache.impl.lettuce;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
 
 import org.apache.commons.pool2.impl.GenericObjectPool;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.oschina.j2cache.service.cache.KeyPageIterator;
 
 import io.lettuce.core.KeyScanCursor;
 import io.lettuce.core.ScanArgs;
 import io.lettuce.core.ScanCursor;
 import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.async.RedisKeyAsyncCommands;
+import io.lettuce.core.api.async.RedisStringAsyncCommands;
+import io.lettuce.core.api.reactive.RedisStringReactiveCommands;
 import io.lettuce.core.api.sync.RedisKeyCommands;
 import io.lettuce.core.api.sync.RedisStringCommands;
+import reactor.core.publisher.Mono;
 
 /**
  * ClassName: LettuceGenericCache
@@ -27,7 +43,26 @@ import io.lettuce.core.api.sync.RedisStringCommands;
  */
 public class LettuceGenericCache extends LettuceCache {
 
+    private final static Logger log = LoggerFactory.getLogger(LettuceGenericCache.class);
+
+    //本地缓存的 generation 的最长使用时间（毫秒），超过后在后台重新读取，用于兜底丢失的清除广播
+    private final static long GENERATION_REFRESH = Long.getLong("j2cache.generation.refresh", 1000L);
+
+    private String generationKey;
+    private boolean generationReap;
+    private final AtomicReference<Generation> generation = new AtomicReference<>();
+    private final AtomicBoolean reloading = new AtomicBoolean();
+
     public LettuceGenericCache(String namespace, String region, GenericObjectPool<StatefulConnection<String, byte[]>> pool, int scanCount) {
+        this(namespace, region, pool, scanCount, false, false);
+    }
+
+    /**
+     * @param generations 使用 namespace:region:generation:key 的格式，clear 只需要递增 generation
+     * @param generationReap clear 之后在后台删除上一个 generation 的数据，否则只能等待数据过期
+     */
+    public LettuceGenericCache(String namespace, String region, GenericObjectPool<StatefulConnection<String, byte[]>> pool, int scanCount,
+                               boolean generations, boolean generationReap) {
         if (region == null || region.isEmpty())
             region = "_"; // 缺省region
 
@@ -35,6 +70,14 @@ public class LettuceGenericCache extends LettuceCache {
         this.namespace = namespace;
         this.region = getRegionName(region);
         this.scanCount = scanCount;
+        if (generations) {
+            this.generationKey = this.region + "#gen";
+            this.generationReap = generationReap;
+            try(StatefulConnection<String, byte[]> connection = super.connect()) {
+                RedisStringCommands<String, byte[]> cmd = (RedisStringCommands)super.sync(connection);
+                this.generation.set(new Generation(this.region, parseGeneration(cmd.get(generationKey))));
+            }
+        }
     }
 
     /**
@@ -51,7 +94,49 @@ public class LettuceGenericCache extends LettuceCache {
     }
 
     private String _key(String key) {
-        return this.region + ":" + key;
+        return prefix() + key;
+    }
+
+    /**
+     * @return 当前 key 格式的前缀，generation 模式下包含 generation
+     */
+    private String prefix() {
+        if (generationKey == null)
+            return this.region + ":";
+        Generation current = generation.get();
+        if (System.currentTimeMillis() - current.loadedAt >= GENERATION_REFRESH)
+            reloadGeneration(current);
+        return current.prefix;
+    }
+
+    /**
+     * 在后台重新读取 generation，读取期间继续使用当前的值（调用者可能是 Lettuce 的 IO 线程，不能阻塞）
+     */
+    private void reloadGeneration(Generation expected) {
+        if (!reloading.compareAndSet(false, true))
+            return;
+        execAsync(cmd -> ((RedisStringAsyncCommands<String, byte[]>)cmd).get(generationKey)).whenComplete((value, e) -> {
+            reloading.set(false);
+            if (e != null)
+                log.warn("Failed to reload generation of region {}", region, e);
+            else
+                generation.compareAndSet(expected, new Generation(region, parseGeneration(value)));
+        });
+    }
+
+    /**
+     * 其他节点清除了该区域（递增了 generation），立即在后台重新读取
+     */
+    @Override
+    public void onRemoteClear() {
+        if (generationKey != null) {
+            reloading.set(false);
+            reloadGeneration(generation.get());
+        }
+    }
+
+    private static long parseGeneration(byte[] value) {
+        return (value == null) ? 0 : Long.parseLong(new String(value, StandardCharsets.UTF_8));
     }
 
     @Override
@@ -120,6 +205,63 @@ public class LettuceGenericCache extends LettuceCache {
         }
     }
 
+    @Override
+    public CompletableFuture<byte[]> getBytesAsync(String key) {
+        return execAsync(cmd -> ((RedisStringAsyncCommands<String, byte[]>)cmd).get(_key(key)));
+    }
+
+    @Override
+    public CompletableFuture<List<byte[]>> getBytesAsync(Collection<String> keys) {
+        return execAsync(cmd -> ((RedisStringAsyncCommands<String, byte[]>)cmd)
+                .mget(keys.stream().map(k -> _key(k)).toArray(String[]::new))
+                .thenApply(kvs -> kvs.stream().map(kv -> kv.hasValue()?kv.getValue():null).collect(Collectors.toList())));
+    }
+
+    @Override
+    public Mono<byte[]> getBytesReactive(String key) {
+        return execReactive(cmd -> ((RedisStringReactiveCommands<String, byte[]>)cmd).get(_key(key)));
+    }
+
+    @Override
+    public Mono<List<byte[]>> getBytesReactive(List<String> keys) {
+        return execReactive(cmd -> ((RedisStringReactiveCommands<String, byte[]>)cmd)
+                .mget(keys.stream().map(k -> _key(k)).toArray(String[]::new))
+                .collectList()
+                .map(values -> values.stream().map(kv -> kv.hasValue()?kv.getValue():null).collect(Collectors.toList())));
+    }
+
+    @Override
+    public CompletableFuture<Void> setBytesAsync(String key, byte[] bytes, long timeToLiveInSeconds) {
+        return execAsync(cmd -> {
+            RedisStringAsyncCommands<String, byte[]> async = (RedisStringAsyncCommands<String, byte[]>)cmd;
+            if (timeToLiveInSeconds > 0)
+                return async.setex(_key(key), timeToLiveInSeconds, bytes).thenAccept(r -> {});
+            return async.set(_key(key), bytes).thenAccept(r -> {});
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> setBytesAsync(Map<String, byte[]> bytes, long timeToLiveInSeconds) {
+        return execAsync(cmd -> {
+            RedisStringAsyncCommands<String, byte[]> async = (RedisStringAsyncCommands<String, byte[]>)cmd;
+            if (timeToLiveInSeconds <= 0)
+                return async.mset(bytes.entrySet().stream().collect(Collectors.toMap(k -> _key(k.getKey()), Map.Entry::getValue))).thenAccept(r -> {});
+            //同一个连接上的异步命令会被自动流水线化发送
+            return CompletableFuture.allOf(bytes.entrySet().stream()
+                    .map(e -> async.setex(_key(e.getKey()), timeToLiveInSeconds, e.getValue()).toCompletableFuture())
+                    .toArray(CompletableFuture[]::new));
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> evictAsync(String... keys) {
+        if (keys == null || keys.length == 0)
+            return CompletableFuture.completedFuture(null);
+        return execAsync(cmd -> ((RedisKeyAsyncCommands<String, byte[]>)cmd)
+                .del(Arrays.stream(keys).map(k -> _key(k)).toArray(String[]::new))
+                .thenAccept(r -> {}));
+    }
+
 
     /**
      * 1、线上redis服务大概率会禁用或重命名keys命令；
@@ -130,30 +272,48 @@ public class LettuceGenericCache extends LettuceCache {
     public Collection<String> keys() {
         try(StatefulConnection<String, byte[]> connection = super.connect()) {
             RedisKeyCommands<String, byte[]> cmd = (RedisKeyCommands)super.sync(connection);
-
-            Collection<String> keys = keys(cmd);
-
-            return keys.stream().map(k -> k.substring(this.region.length()+1)).collect(Collectors.toList());
+            List<String> keys = new ArrayList<>();
+            String prefix = prefix();
+            scan(cmd, prefix, page -> page.forEach(k -> keys.add(k.substring(prefix.length()))));
+            return keys;
         }
     }
 
-    private Collection<String> keys(RedisKeyCommands<String, byte[]> cmd) {
-        Collection<String> keys = new ArrayList<>();
-        Collection<String> partKeys = null;
-        ScanCursor scanCursor = ScanCursor.INITIAL;
+    /**
+     * 以 SCAN 游标分页遍历，每一页单独借用一次连接
+     */
+    @Override
+    public Iterator<String> scanKeys(int pageSize) {
+        String prefix = prefix();
         ScanArgs scanArgs = new ScanArgs();
-        scanArgs.match(this.region + ":*").limit(scanCount);
-        KeyScanCursor<String> keyScanCursor = null;
-        while (!scanCursor.isFinished()) {
-            keyScanCursor = cmd.scan(scanCursor, scanArgs);
-            partKeys = keyScanCursor.getKeys();
-            if(partKeys != null && partKeys.size() != 0) {
-                keys.addAll(partKeys);
+        scanArgs.match(prefix + "*").limit(pageSize);
+        return new KeyPageIterator<ScanCursor>(ScanCursor.INITIAL) {
+            @Override
+            protected ScanCursor fetch(ScanCursor cursor, List<String> keys) {
+                try(StatefulConnection<String, byte[]> connection = connect()) {
+                    RedisKeyCommands<String, byte[]> cmd = (RedisKeyCommands)sync(connection);
+                    KeyScanCursor<String> scan = cmd.scan(cursor, scanArgs);
+                    scan.getKeys().forEach(k -> keys.add(k.substring(prefix.length())));
+                    return scan.isFinished() ? null : scan;
+                }
             }
+        };
+    }
+
+    /**
+     * 按 SCAN 分页遍历 region 中的 key，每一页交给 page 处理，不在内存中保存全部的 key
+     */
+    private void scan(RedisKeyCommands<String, byte[]> cmd, String prefix, Consumer<List<String>> page) {
+        ScanArgs scanArgs = new ScanArgs();
+        scanArgs.match(prefix + "*").limit(scanCount);
+        ScanCursor scanCursor = ScanCursor.INITIAL;
+        while (!scanCursor.isFinished()) {
+            KeyScanCursor<String> keyScanCursor = cmd.scan(scanCursor, scanArgs);
+            List<String> partKeys = keyScanCursor.getKeys();
+            if (partKeys != null && !partKeys.isEmpty())
+                page.accept(partKeys);
             scanCursor = keyScanCursor;
         }
-
-        return keys;
     }
 
     @Override
@@ -164,13 +324,99 @@ public class LettuceGenericCache extends LettuceCache {
         }
     }
 
+    /**
+     * 按 SCAN 分页删除，每一页使用一条 UNLINK，内存只占用一页 key，Redis 在后台线程中释放数据
+     */
     @Override
     public void clear() {
+        clear(deleted -> {});
+    }
+
+    /**
+     * generation 模式下只递增 generation，旧数据由后台任务删除或者等待过期，返回 -1
+     */
+    @Override
+    public long clear(LongConsumer progress) {
+        if (generationKey != null) {
+            try(StatefulConnection<String, byte[]> connection = super.connect()) {
+                RedisStringCommands<String, byte[]> cmd = (RedisStringCommands)super.sync(connection);
+                nextGeneration(cmd.incr(generationKey));
+            }
+            return -1;
+        }
         try(StatefulConnection<String, byte[]> connection = super.connect()) {
             RedisKeyCommands<String, byte[]> cmd = (RedisKeyCommands)super.sync(connection);
-            Collection<String> keys = keys(cmd);
-            if(keys != null && keys.size() > 0)
-                cmd.del(keys.stream().toArray(String[]::new));
+            long[] deleted = {0};
+            scan(cmd, this.region + ":", page -> {
+                deleted[0] += cmd.unlink(page.toArray(new String[0]));
+                progress.accept(deleted[0]);
+            });
+            return deleted[0];
+        }
+    }
+
+    /**
+     * 完全异步的分页删除：上一页 UNLINK 完成后再发起下一次 SCAN，不占用任何线程等待
+     */
+    @Override
+    public CompletableFuture<Long> clearAsync(LongConsumer progress) {
+        if (generationKey != null) {
+            return execAsync(cmd -> ((RedisStringAsyncCommands<String, byte[]>)cmd).incr(generationKey)).thenApply(next -> {
+                nextGeneration(next);
+                return -1L;
+            });
+        }
+        return unlinkAsync(this.region + ":", progress);
+    }
+
+    /**
+     * 切换到新的 generation，并按配置在后台删除上一个 generation 的数据
+     */
+    private void nextGeneration(long next) {
+        generation.set(new Generation(region, next));
+        if (generationReap) {
+            String prefix = region + ":" + (next - 1) + ":";
+            unlinkAsync(prefix, deleted -> {}).whenComplete((deleted, e) -> {
+                if (e != null)
+                    log.warn("Failed to reap keys of {}*", prefix, e);
+                else
+                    log.debug("Reaped {} keys of {}*", deleted, prefix);
+            });
+        }
+    }
+
+    private CompletableFuture<Long> unlinkAsync(String prefix, LongConsumer progress) {
+        ScanArgs scanArgs = new ScanArgs();
+        scanArgs.match(prefix + "*").limit(scanCount);
+        return execAsync(cmd -> clearAsync((RedisKeyAsyncCommands<String, byte[]>) cmd, ScanCursor.INITIAL, scanArgs, 0L, progress));
+    }
+
+    private CompletionStage<Long> clearAsync(RedisKeyAsyncCommands<String, byte[]> cmd, ScanCursor cursor, ScanArgs scanArgs,
+                                             long deleted, LongConsumer progress) {
+        return cmd.scan(cursor, scanArgs).thenCompose(page -> {
+            List<String> keys = page.getKeys();
+            CompletionStage<Long> unlinked = keys.isEmpty() ? CompletableFuture.completedFuture(0L) : cmd.unlink(keys.toArray(new String[0]));
+            return unlinked.thenCompose(count -> {
+                long total = deleted + count;
+                if (!keys.isEmpty())
+                    progress.accept(total);
+                if (page.isFinished())
+                    return CompletableFuture.completedFuture(total);
+                return clearAsync(cmd, page, scanArgs, total, progress);
+            });
+        });
+    }
+
+    /**
+     * 区域当前的 generation 以及对应的 key 前缀
+     */
+    private static class Generation {
+
+        private final String prefix;
+        private final long loadedAt = System.currentTimeMillis();
+
+        Generation(String region, long value) {
+            this.prefix = region + ":" + value + ":";
         }
     }
 }
@@ -1,13 +1,22 @@
 package net.oschina.j2cache.service.cache.impl.lettuce;
 
+import io.lettuce.core.MapScanCursor;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanCursor;
 import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.async.RedisHashAsyncCommands;
+import io.lettuce.core.api.reactive.RedisHashReactiveCommands;
 import io.lettuce.core.api.sync.RedisHashCommands;
 import io.lettuce.core.api.sync.RedisKeyCommands;
+import net.oschina.j2cache.service.cache.KeyPageIterator;
 import org.apache.commons.pool2.impl.GenericObjectPool;
+import reactor.core.publisher.Mono;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -76,6 +85,54 @@ public class LettuceHashCache extends LettuceCache {
         }
     }
 
+    @Override
+    public CompletableFuture<byte[]> getBytesAsync(String key) {
+        return execAsync(cmd -> ((RedisHashAsyncCommands<String, byte[]>)cmd).hget(this.region, key));
+    }
+
+    @Override
+    public CompletableFuture<List<byte[]>> getBytesAsync(Collection<String> keys) {
+        return execAsync(cmd -> ((RedisHashAsyncCommands<String, byte[]>)cmd)
+                .hmget(this.region, keys.stream().toArray(String[]::new))
+                .thenApply(kvs -> kvs.stream().map(kv -> kv.hasValue()?kv.getValue():null).collect(Collectors.toList())));
+    }
+
+    @Override
+    public Mono<byte[]> getBytesReactive(String key) {
+        return execReactive(cmd -> ((RedisHashReactiveCommands<String, byte[]>)cmd).hget(this.region, key));
+    }
+
+    @Override
+    public Mono<List<byte[]>> getBytesReactive(List<String> keys) {
+        return execReactive(cmd -> ((RedisHashReactiveCommands<String, byte[]>)cmd)
+                .hmget(this.region, keys.stream().toArray(String[]::new))
+                .collectList()
+                .map(values -> values.stream().map(kv -> kv.hasValue()?kv.getValue():null).collect(Collectors.toList())));
+    }
+
+    /**
+     * hash 存储模式无法单独对 key 设置 expire，忽略 timeToLiveInSeconds
+     */
+    @Override
+    public CompletableFuture<Void> setBytesAsync(String key, byte[] bytes, long timeToLiveInSeconds) {
+        return execAsync(cmd -> ((RedisHashAsyncCommands<String, byte[]>)cmd).hset(this.region, key, bytes).thenAccept(r -> {}));
+    }
+
+    /**
+     * hash 存储模式无法单独对 key 设置 expire，忽略 timeToLiveInSeconds
+     */
+    @Override
+    public CompletableFuture<Void> setBytesAsync(Map<String, byte[]> bytes, long timeToLiveInSeconds) {
+        return execAsync(cmd -> ((RedisHashAsyncCommands<String, byte[]>)cmd).hmset(this.region, bytes).thenAccept(r -> {}));
+    }
+
+    @Override
+    public CompletableFuture<Void> evictAsync(String... keys) {
+        if (keys == null || keys.length == 0)
+            return CompletableFuture.completedFuture(null);
+        return execAsync(cmd -> ((RedisHashAsyncCommands<String, byte[]>)cmd).hdel(this.region, keys).thenAccept(r -> {}));
+    }
+
     @Override
     public Collection<String> keys() {
         try(StatefulConnection<String, byte[]> connection = super.connect()) {
@@ -84,6 +141,28 @@ public class LettuceHashCache extends LettuceCache {
         }
     }
 
+    /**
+     * 以 HSCAN 游标分页遍历，避免 HKEYS 一次返回整个 hash 的所有字段。
+     * 注意 HSCAN 每一页会同时返回字段的值，传输量与 HGETALL 相同，只是分摊到多次调用中；
+     * Redis 7.4 的 NOVALUES 选项可以只返回字段，但当前依赖的 Lettuce 6.2 还不支持，值较大的区域建议使用 generic 存储（SCAN 只返回 key）
+     */
+    @Override
+    public Iterator<String> scanKeys(int pageSize) {
+        ScanArgs scanArgs = new ScanArgs();
+        scanArgs.limit(pageSize);
+        return new KeyPageIterator<ScanCursor>(ScanCursor.INITIAL) {
+            @Override
+            protected ScanCursor fetch(ScanCursor cursor, List<String> keys) {
+                try(StatefulConnection<String, byte[]> connection = connect()) {
+                    RedisHashCommands<String, byte[]> cmd = (RedisHashCommands)sync(connection);
+                    MapScanCursor<String, byte[]> scan = cmd.hscan(region, cursor, scanArgs);
+                    keys.addAll(scan.getMap().keySet());
+                    return scan.isFinished() ? null : scan;
+                }
+            }
+        };
+    }
+
     @Override
     public void evict(String... keys) {
         try(StatefulConnection<String, byte[]> connection = super.connect()) {
@@ -0,0 +1,229 @@
+package net.oschina.j2cache.service.cache.impl.lettuce;
+
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateAdapter;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.StringCodec;
+import net.oschina.j2cache.exception.CacheException;
+import net.oschina.j2cache.model.Command;
+import net.oschina.j2cache.service.cache.CacheChannel;
+import net.oschina.j2cache.service.cache.CacheProvider;
+import net.oschina.j2cache.service.cache.impl.CacheProviderHolder;
+import net.oschina.j2cache.service.cluster.ClusterPolicy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.SocketAddress;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * ClassName: LettuceTrackingClusterPolicy
+ * Package: net.oschina.j2cache.service.cache.impl.lettuce
+ * Description:
+ * <p>基于 Redis 6 客户端缓存（CLIENT TRACKING）的一级缓存同步策略（j2cache.broadcast = tracking）</p>
+ * <p>使用一个独立的 RESP3 连接以 BCAST 模式订阅 namespace 前缀下所有 key 的失效通知，
+ * 任何节点修改或删除二级缓存中的数据时由 Redis 推送 invalidate 消息，收到后删除对应的一级缓存数据，
+ * 因此写入时不再需要额外发送广播消息</p>
+ * <p>generic 存储的 key 为 namespace:region:key，失效时删除对应的一条数据；
+ * hash 存储的 key 为 namespace:region，任意字段变化都会使整个 hash 失效，因此清除整个 region；
+ * generations 模式下 key 为 namespace:region:generation:key，clear 递增的 namespace:region#gen 同样会推送失效通知，
+ * 收到后清除整个 region 并重新读取 generation，因此 clear 也不需要额外发送广播</p>
+ * <p>删除与广播的 evict 一样带时间戳：收到通知的本地时间加上 EVICT_CLOCK_SKEW（一级缓存记录的写入时间只精确到毫秒），
+ * 只删除在此之前写入的数据；收到通知之前读取二级缓存、之后才写入一级缓存的旧值，由 Level1Cache.putRead 按读取时间删除</p>
+ * <p>要求二级缓存使用 lettuce（非 redis-cluster 模式）；跟踪连接断开重连后会重新开启跟踪，
+ * 并清除所有一级缓存，因为断开期间的失效通知已经丢失</p>
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 21:30
+ */
+public class LettuceTrackingClusterPolicy implements ClusterPolicy {
+
+    private final static Logger log = LoggerFactory.getLogger(LettuceTrackingClusterPolicy.class);
+
+    private final static String GENERATION_SUFFIX = "#gen";    //与 LettuceGenericCache 的 generation key 一致
+
+    private CacheProviderHolder holder;
+    private RedisClient client;
+    private StatefulRedisConnection<String, String> connection;
+    private RedisConnectionStateAdapter reconnectListener;
+    private String prefix;
+    private boolean hashStorage;
+    private boolean generations;
+
+    @Override
+    public void connect(Properties props, CacheProviderHolder holder) {
+        CacheProvider l2 = holder.getL2Provider();
+        if (!(l2 instanceof LettuceCacheProvider))
+            throw new CacheException("Tracking broadcast requires lettuce as level 2 cache, current is " + l2.name());
+        AbstractRedisClient redisClient = LettuceCacheProvider.redisClient();
+        if (!(redisClient instanceof RedisClient))
+            throw new CacheException("Tracking broadcast does not support redis-cluster scheme");
+
+        LettuceCacheProvider provider = (LettuceCacheProvider) l2;
+        init(holder, provider.getNamespace(), "hash".equalsIgnoreCase(provider.getStorage()), provider.isGenerations());
+        this.client = (RedisClient) redisClient;
+
+        long ct = System.currentTimeMillis();
+        this.connection = client.connect(StringCodec.UTF8);
+        this.connection.addListener(this::onPushMessage);
+        this.reconnectListener = new RedisConnectionStateAdapter() {
+            @Override
+            public void onRedisConnected(RedisChannelHandler<?, ?> channel, SocketAddress address) {
+                if (channel == connection)
+                    onReconnected();
+            }
+        };
+        this.client.addListener(reconnectListener);
+        enableTracking();
+        log.info("Enabled redis client tracking, prefix:[{}], time {}ms.", prefix, System.currentTimeMillis() - ct);
+    }
+
+    /**
+     * 设置 key 的解析规则，与连接无关
+     * @param holder cache provider holder
+     * @param namespace 二级缓存的 namespace
+     * @param hashStorage 二级缓存是否为 hash 存储
+     * @param generations generic 存储是否使用 generation 格式的 key
+     */
+    void init(CacheProviderHolder holder, String namespace, boolean hashStorage, boolean generations) {
+        this.holder = holder;
+        this.prefix = (namespace != null && !namespace.trim().isEmpty()) ? namespace + ":" : "";
+        this.hashStorage = hashStorage;
+        this.generations = generations && !hashStorage;
+    }
+
+    private TrackingArgs trackingArgs() {
+        TrackingArgs args = TrackingArgs.Builder.enabled().bcast();
+        return prefix.isEmpty() ? args : args.prefixes(prefix);
+    }
+
+    private void enableTracking() {
+        connection.sync().clientTracking(trackingArgs());
+    }
+
+    private void onReconnected() {
+        //在 Lettuce 的 IO 线程中回调，不能在这里执行同步命令
+        connection.async().clientTracking(trackingArgs()).whenComplete((r, e) -> {
+            if (e != null)
+                log.error("Failed to enable redis client tracking after reconnect", e);
+        });
+        clearAll();
+    }
+
+    @SuppressWarnings("unchecked")
+    void onPushMessage(PushMessage message) {
+        if (!"invalidate".equals(message.getType()))
+            return;
+        try {
+            long stamp = System.currentTimeMillis() + EVICT_CLOCK_SKEW;
+            List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+            Object keys = (content.size() > 1) ? content.get(1) : null;
+            if (keys == null) {
+                //FLUSHDB/FLUSHALL 时 Redis 推送的 key 列表为空
+                clearAll();
+                return;
+            }
+            for (String key : (List<String>) keys)
+                invalidate(key, stamp);
+        } catch (Exception e) {
+            log.error("Failed to handle redis invalidation message", e);
+        }
+    }
+
+    /**
+     * 把 Redis 中的 key 还原为 region 与缓存 key 并删除对应的一级缓存
+     * @param stamp 删除在此之前写入的一级缓存数据
+     */
+    private void invalidate(String redisKey, long stamp) {
+        if (!redisKey.startsWith(prefix))
+            return;
+        String name = redisKey.substring(prefix.length());
+        if (hashStorage) {
+            this.clear(name);
+            return;
+        }
+        if (generations && name.endsWith(GENERATION_SUFFIX)) {
+            //其他节点 clear 了该区域
+            String region = name.substring(0, name.length() - GENERATION_SUFFIX.length());
+            holder.getLevel2Cache(region).onRemoteClear();
+            this.clear(region);
+            return;
+        }
+        int idx = name.indexOf(':');
+        if (idx <= 0)
+            return;
+        String region = name.substring(0, idx);
+        String key = name.substring(idx + 1);
+        if (generations) {
+            //跳过 generation 部分
+            int end = key.indexOf(':');
+            if (end <= 0 || !isNumber(key, end))
+                return;
+            key = key.substring(end + 1);
+        }
+        this.evict(region, stamp, key);
+    }
+
+    private static boolean isNumber(String str, int end) {
+        for (int i = 0; i < end; i++) {
+            if (!Character.isDigit(str.charAt(i)))
+                return false;
+        }
+        return true;
+    }
+
+    private void clearAll() {
+        for (CacheChannel.Region region : holder.regions())
+            this.clear(region.getName());
+    }
+
+    /**
+     * 失效通知由 Redis 推送，不需要发送任何消息
+     */
+    @Override
+    public void publish(Command cmd) {
+    }
+
+    @Override
+    public void sendEvictCmd(String region, String... keys) {
+    }
+
+    @Override
+    public void sendClearCmd(String region) {
+    }
+
+    @Override
+    public void disconnect() {
+        if (client != null && reconnectListener != null)
+            client.removeListener(reconnectListener);
+        if (connection != null)
+            connection.close();
+    }
+
+    @Override
+    public void evict(String region, String... keys) {
+        holder.getLevel1Cache(region).evict(keys);
+    }
+
+    @Override
+    public void evict(String region, long stamp, String... keys) {
+        holder.getLevel1Cache(region).evict(stamp, keys);
+    }
+
+    @Override
+    public void clear(String region) {
+        holder.getLevel1Cache(region).clear();
+    }
+
+    @Override
+    public boolean isLocalCommand(Command cmd) {
+        return false;
+    }
+
+}
@@ -2,6 +2,8 @@ package net.oschina.j2cache.service.cache.impl.lettuce;
 
 import io.lettuce.core.api.StatefulConnection;
 import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.async.BaseRedisAsyncCommands;
+import io.lettuce.core.api.reactive.BaseRedisReactiveCommands;
 import io.lettuce.core.api.sync.BaseRedisCommands;
 
 /**
@@ -20,4 +22,18 @@ public class SingleNodeSyncStrategy implements SyncStrategy {
             return ((StatefulRedisConnection) conn).sync();
         return null;
     }
+
+    @Override
+    public BaseRedisAsyncCommands async(StatefulConnection conn) {
+        if (conn instanceof StatefulRedisConnection)
+            return ((StatefulRedisConnection) conn).async();
+        return null;
+    }
+
+    @Override
+    public BaseRedisReactiveCommands reactive(StatefulConnection conn) {
+        if (conn instanceof StatefulRedisConnection)
+            return ((StatefulRedisConnection) conn).reactive();
+        return null;
+    }
 }
\ No newline at end of file
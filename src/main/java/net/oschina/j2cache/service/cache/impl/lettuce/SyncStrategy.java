@@ -1,6 +1,8 @@
 package net.oschina.j2cache.service.cache.impl.lettuce;
 
 import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.api.async.BaseRedisAsyncCommands;
+import io.lettuce.core.api.reactive.BaseRedisReactiveCommands;
 import io.lettuce.core.api.sync.BaseRedisCommands;
 
 /**
@@ -14,4 +16,8 @@ import io.lettuce.core.api.sync.BaseRedisCommands;
  */
 public interface SyncStrategy {
     BaseRedisCommands sync(StatefulConnection conn);
+
+    BaseRedisAsyncCommands async(StatefulConnection conn);
+
+    BaseRedisReactiveCommands reactive(StatefulConnection conn);
 }
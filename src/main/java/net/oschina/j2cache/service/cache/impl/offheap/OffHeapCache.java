@@ -0,0 +1,289 @@
+package net.oschina.j2cache.service.cache.impl.offheap;
+
+import net.oschina.j2cache.exception.CacheException;
+import net.oschina.j2cache.exception.DeserializeException;
+import net.oschina.j2cache.service.cache.AbstractL1Cache;
+import net.oschina.j2cache.service.cache.BytesLevel1Cache;
+import net.oschina.j2cache.service.cache.CacheExpiredListener;
+import net.oschina.j2cache.service.cache.KeyPageIterator;
+import net.oschina.j2cache.util.KeyEncoder;
+import net.oschina.j2cache.util.serializer.SerializationUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ClassName: OffHeapCache
+ * Package: net.oschina.j2cache.service.cache.impl.offheap
+ * Description:
+ * <p>堆外一级缓存，数据以 SerializationUtils 序列化后的字节保存在 direct ByteBuffer 中，
+ * 不占用 Java 堆，适合数据量大、对象多的 region（GC 只需要扫描每个分段的索引数组）</p>
+ * <p>按 key 的 hash 分为多个分段，每个分段独立加锁；读取时需要反序列化，
+ * 二级缓存读取到的字节可以通过 putBytes 直接写入</p>
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 22:10
+ */
+public class OffHeapCache extends AbstractL1Cache implements BytesLevel1Cache {
+
+    private final static Logger log = LoggerFactory.getLogger(OffHeapCache.class);
+
+    private final String region;
+    private final OffHeapSegment[] segments;
+    private final int segmentShift;
+    private final long capacity;
+    private final long expire;
+    private final CacheExpiredListener listener;
+
+    /**
+     * @param region region name
+     * @param capacity 堆外内存的总字节数
+     * @param segments 分段数量（向上取整为 2 的幂）
+     * @param expire 过期时间（秒），小于等于 0 表示不过期
+     * @param listener 数据过期时的通知
+     */
+    public OffHeapCache(String region, long capacity, int segments, long expire, CacheExpiredListener listener) {
+        int count = (segments <= 1) ? 1 : Integer.highestOneBit(segments - 1) << 1;
+        long segmentSize = capacity / count;
+        if (segmentSize <= 0 || segmentSize > Integer.MAX_VALUE - 8)
+            throw new CacheException(String.format("Illegal off-heap region [%s] capacity %d with %d segments", region, capacity, count));
+        this.region = region;
+        this.segments = new OffHeapSegment[count];
+        for (int i = 0; i < count; i++)
+            this.segments[i] = new OffHeapSegment((int) segmentSize);
+        this.segmentShift = 32 - Integer.numberOfTrailingZeros(count);
+        this.capacity = segmentSize * count;
+        this.expire = expire;
+        this.listener = listener;
+    }
+
+    @Override
+    public long ttl() {
+        return expire;
+    }
+
+    /**
+     * 堆外缓存按字节限制容量，这里返回总字节数
+     */
+    @Override
+    public long size() {
+        return capacity;
+    }
+
+    /**
+     * @return 当前保存的数据条数
+     */
+    public long count() {
+        long count = 0;
+        for (OffHeapSegment segment : segments)
+            count += segment.count();
+        return count;
+    }
+
+    /**
+     * @return 已使用的堆外内存字节数（包括尚未回收的已删除数据）
+     */
+    @Override
+    public long weight() {
+        long used = 0;
+        for (OffHeapSegment segment : segments)
+            used += segment.used();
+        return used;
+    }
+
+    @Override
+    public long writeTime(String key) {
+        byte[] k = KeyEncoder.utf8(key);
+        int hash = hash(k);
+        return segment(hash).writeTime(k, hash);
+    }
+
+    @Override
+    public byte[] getBytes(String key) {
+        byte[] k = KeyEncoder.utf8(key);
+        int hash = hash(k);
+        OffHeapSegment segment = segment(hash);
+        long now = System.currentTimeMillis();
+        byte[] bytes = segment.get(k, hash, now);
+        if (bytes == null && expire > 0 && segment.removeExpired(k, hash, now))
+            listener.notifyElementExpired(region, key);
+        return bytes;
+    }
+
+    @Override
+    public void putBytes(String key, byte[] bytes) {
+        putBytes(key, bytes, Long.MAX_VALUE);
+    }
+
+    /**
+     * 写入时间记录为 readTime（不晚于当前时间），之后收到的 evict 按时间戳删除；
+     * 写入之前已经处理过的 evict 无法再判断，仍然像默认实现那样在写入太晚时删除数据
+     */
+    @Override
+    public void putBytes(String key, byte[] bytes, long readTime) {
+        if (bytes == null || bytes.length == 0) {
+            evict(key);
+            return;
+        }
+        byte[] k = KeyEncoder.utf8(key);
+        int hash = hash(k);
+        long now = System.currentTimeMillis();
+        long expireAt = (expire > 0) ? now + expire * 1000 : 0;
+        List<String> expired = new ArrayList<>();
+        segment(hash).put(k, hash, bytes, expireAt, now, Math.min(now, readTime), expired);
+        notifyExpired(expired);
+        evictIfLate(readTime, key);
+    }
+
+    @Override
+    public void putRead(String key, Object value, long readTime) {
+        putBytes(key, SerializationUtils.serializeWithoutException(value), readTime);
+    }
+
+    @Override
+    public void putRead(Map<String, Object> elements, long readTime) {
+        elements.forEach((k, v) -> putRead(k, v, readTime));
+    }
+
+    @Override
+    protected Object getFromCache(String key) {
+        byte[] bytes = getBytes(key);
+        if (bytes == null)
+            return null;
+        try {
+            return SerializationUtils.deserialize(bytes);
+        } catch (DeserializeException e) {
+            log.warn("Failed to deserialize object with key:" + key + ",message: " + e.getMessage());
+            evict(key);
+            return null;
+        } catch (IOException e) {
+            throw new CacheException(e);
+        }
+    }
+
+    @Override
+    protected Map<String, Object> getFromCache(Collection<String> keys) {
+        Map<String, Object> results = new HashMap<>(keys.size());
+        for (String key : keys) {
+            Object value = getFromCache(key);
+            if (value != null)
+                results.put(key, value);
+        }
+        return results;
+    }
+
+    @Override
+    protected void putInCache(String key, Object value) {
+        putBytes(key, SerializationUtils.serializeWithoutException(value));
+    }
+
+    @Override
+    protected void putInCache(Map<String, Object> elements) {
+        elements.forEach(this::putInCache);
+    }
+
+    @Override
+    protected void evictFromCache(String... keys) {
+        for (String key : keys) {
+            byte[] k = KeyEncoder.utf8(key);
+            int hash = hash(k);
+            segment(hash).remove(k, hash);
+        }
+    }
+
+    @Override
+    protected void clearCache() {
+        for (OffHeapSegment segment : segments)
+            segment.clear();
+    }
+
+    /**
+     * 立即释放所有分段的 direct 内存（clear 只清空数据，内存保留下来继续使用），
+     * 用于 region 被移除或 provider 停止，之后仍持有该对象的调用者读取不到数据，写入被忽略
+     */
+    void close() {
+        for (OffHeapSegment segment : segments)
+            segment.free();
+    }
+
+    @Override
+    protected Collection<String> getKeysFromCache() {
+        long now = System.currentTimeMillis();
+        List<String> keys = new ArrayList<>();
+        for (OffHeapSegment segment : segments)
+            segment.keys(now, keys);
+        return keys;
+    }
+
+    /**
+     * 逐个分段读取 key，同一时刻只在内存中保存一个分段的 key
+     */
+    @Override
+    public Iterator<String> scanKeys(int pageSize) {
+        return new KeyPageIterator<Integer>(0) {
+            @Override
+            protected Integer fetch(Integer index, List<String> keys) {
+                segments[index].keys(System.currentTimeMillis(), keys);
+                return (index + 1 < segments.length) ? index + 1 : null;
+            }
+        };
+    }
+
+    private OffHeapSegment segment(int hash) {
+        return (segmentShift == 32) ? segments[0] : segments[hash >>> segmentShift];
+    }
+
+    /**
+     * 回收空间时发现的过期数据，在释放分段锁之后再通知
+     */
+    private void notifyExpired(List<String> expired) {
+        for (String key : expired)
+            listener.notifyElementExpired(region, key);
+    }
+
+    /**
+     * murmur3 的 32 位 hash，高位用于选择分段，低位用于分段内的索引
+     */
+    private static int hash(byte[] key) {
+        int h = 0x9747b28c;
+        int i = 0;
+        for (; i + 4 <= key.length; i += 4) {
+            int k = (key[i] & 0xff) | (key[i + 1] & 0xff) << 8 | (key[i + 2] & 0xff) << 16 | (key[i + 3] & 0xff) << 24;
+            k *= 0xcc9e2d51;
+            k = Integer.rotateLeft(k, 15);
+            k *= 0x1b873593;
+            h ^= k;
+            h = Integer.rotateLeft(h, 13);
+            h = h * 5 + 0xe6546b64;
+        }
+        int k = 0;
+        switch (key.length & 3) {
+            case 3:
+                k ^= (key[i + 2] & 0xff) << 16;
+            case 2:
+                k ^= (key[i + 1] & 0xff) << 8;
+            case 1:
+                k ^= (key[i] & 0xff);
+                k *= 0xcc9e2d51;
+                k = Integer.rotateLeft(k, 15);
+                k *= 0x1b873593;
+                h ^= k;
+        }
+        h ^= key.length;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+}
@@ -0,0 +1,186 @@
+package net.oschina.j2cache.service.cache.impl.offheap;
+
+import net.oschina.j2cache.exception.CacheException;
+import net.oschina.j2cache.model.CacheObject;
+import net.oschina.j2cache.service.cache.Cache;
+import net.oschina.j2cache.service.cache.CacheChannel;
+import net.oschina.j2cache.service.cache.CacheExpiredListener;
+import net.oschina.j2cache.service.cache.CacheProvider;
+import net.oschina.j2cache.util.ConfigUtils;
+import net.oschina.j2cache.util.matcher.AntPathMatcher;
+import net.oschina.j2cache.util.matcher.PatternMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ClassName: OffHeapProvider
+ * Package: net.oschina.j2cache.service.cache.impl.offheap
+ * Description:
+ * <p>堆外一级缓存（l1CacheName = offheap），每个 region 按配置的字节数分配 direct 内存</p>
+ * <p>direct 内存受 -XX:MaxDirectMemorySize 限制，所有 region 的容量之和不能超过该值；
+ * region 被移除或 provider 停止时立即释放该 region 的 direct 内存，不等待 GC</p>
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 22:15
+ */
+public class OffHeapProvider implements CacheProvider {
+
+    private final static Logger log = LoggerFactory.getLogger(OffHeapProvider.class);
+
+    private final static String PREFIX_REGION = "region.";
+    private final static String DEFAULT_REGION = "default";
+    private final static int DEFAULT_SEGMENTS = 16;
+
+    private ConcurrentHashMap<String, OffHeapCache> caches = new ConcurrentHashMap<>();
+    private ConcurrentHashMap<String, CacheConfig> cacheConfigs = new ConcurrentHashMap<>();
+    private PatternMatcher patternMatcher = new AntPathMatcher();
+
+    @Override
+    public String name() {
+        return "offheap";
+    }
+
+    @Override
+    public int level() {
+        return CacheObject.LEVEL_1;
+    }
+
+    @Override
+    public Collection<CacheChannel.Region> regions() {
+        Collection<CacheChannel.Region> regions = new ArrayList<>();
+        caches.forEach((k,c) -> regions.add(new CacheChannel.Region(k, c.count(), c.ttl(), c.weight())));
+        return regions;
+    }
+
+    @Override
+    public Cache buildCache(String region, CacheExpiredListener listener) {
+        return caches.computeIfAbsent(region, v -> {
+            CacheConfig config = findCacheConfig(region);
+            if (config == null) {
+                log.warn("Off-heap cache [{}] not defined, using default.", region);
+                config = cacheConfigs.get(DEFAULT_REGION);
+                if (config == null)
+                    throw new CacheException("Undefined [default] off-heap cache");
+            }
+            return new OffHeapCache(region, config.capacity, config.segments, config.expire, listener);
+        });
+    }
+
+    @Override
+    public Cache buildCache(String region, long timeToLiveInSeconds, CacheExpiredListener listener) {
+        OffHeapCache cache = caches.computeIfAbsent(region, v -> {
+            CacheConfig config = findCacheConfig(region);
+            if(config != null && config.expire != timeToLiveInSeconds)
+                throw new IllegalArgumentException(String.format("Region [%s] TTL %d not match with %d", region, config.expire, timeToLiveInSeconds));
+
+            if(config == null) {
+                config = cacheConfigs.get(DEFAULT_REGION);
+                if (config == null)
+                    throw new CacheException(String.format("Undefined off-heap cache region name = %s", region));
+            }
+
+            log.info("Started off-heap region [{}] with TTL: {}", region, timeToLiveInSeconds);
+            return new OffHeapCache(region, config.capacity, config.segments, timeToLiveInSeconds, listener);
+        });
+
+        if(cache.ttl() != timeToLiveInSeconds)
+            throw new IllegalArgumentException(String.format("Region [%s] TTL %d not match with %d", region, cache.ttl(), timeToLiveInSeconds));
+
+        return cache;
+    }
+
+    @Override
+    public void removeCache(String region) {
+        cacheConfigs.remove(region);
+        OffHeapCache cache = caches.remove(region);
+        if (cache != null)
+            cache.close();
+    }
+
+    /**
+     * <p>配置示例</p>
+     * <ul>
+     * <li>offheap.region.default = 64MB,1h</li>
+     * <li>offheap.region.Users = 512MB,30m,segments=32</li>
+     * </ul>
+     * <p>容量单位支持 B/KB/MB/GB，segments 为分段数量（默认 16），分段越多写入的锁竞争越小，
+     * 但单条数据不能超过一个分段的大小</p>
+     * @param props current configuration settings.
+     */
+    @Override
+    public void start(Properties props) {
+        for(String region : props.stringPropertyNames()) {
+            if(!region.startsWith(PREFIX_REGION))
+                continue ;
+            String s_config = props.getProperty(region).trim();
+            region = region.substring(PREFIX_REGION.length());
+            CacheConfig cfg = CacheConfig.parse(s_config);
+            if(cfg == null)
+                log.warn("Illegal off-heap cache config [{}={}]", region, s_config);
+            else
+                cacheConfigs.put(region, cfg);
+        }
+    }
+
+    private CacheConfig findCacheConfig(String region){
+        for (Map.Entry<String, CacheConfig> entry : cacheConfigs.entrySet()) {
+            if(patternMatcher.matches(entry.getKey(),region)){
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void stop() {
+        caches.values().forEach(OffHeapCache::close);
+        caches.clear();
+        cacheConfigs.clear();
+    }
+
+    /**
+     * 缓存配置
+     */
+    private static class CacheConfig {
+
+        private long capacity = 0L;
+        private long expire = 0L;
+        private int segments = DEFAULT_SEGMENTS;
+
+        public static CacheConfig parse(String cfg) {
+            String[] cfgs = cfg.split(",");
+            if(cfgs.length < 1 || cfgs.length > 3)
+                return null;
+            CacheConfig cacheConfig = new CacheConfig();
+            cacheConfig.capacity = ConfigUtils.parseBytes(cfgs[0].trim());
+            for (int i = 1; i < cfgs.length; i++) {
+                String option = cfgs[i].trim();
+                int idx = option.indexOf('=');
+                if (idx < 0) {
+                    if (i != 1)
+                        throw new IllegalArgumentException("Expire must follow capacity:" + cfg);
+                    cacheConfig.expire = ConfigUtils.parseSeconds(option);
+                }
+                else if ("segments".equalsIgnoreCase(option.substring(0, idx).trim()))
+                    cacheConfig.segments = Integer.parseInt(option.substring(idx + 1).trim());
+                else
+                    throw new IllegalArgumentException("Unknown off-heap option:" + option);
+            }
+            return cacheConfig;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[CAPACITY:%d,EXPIRE:%d,SEGMENTS:%d]", capacity, expire, segments);
+        }
+
+    }
+
+}
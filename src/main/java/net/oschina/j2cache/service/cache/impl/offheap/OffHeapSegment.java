@@ -0,0 +1,428 @@
+package net.oschina.j2cache.service.cache.impl.offheap;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ClassName: OffHeapSegment
+ * Package: net.oschina.j2cache.service.cache.impl.offheap
+ * Description:
+ * <p>堆外缓存的一个分段：数据保存在一块 direct ByteBuffer 中，按环形日志的方式追加写入，
+ * 空间不足时从最旧的数据开始回收（CLOCK：读取过的数据获得一次机会，被移动到尾部并清除访问标记）</p>
+ * <p>索引是堆内的 long[] 开放寻址表（线性探测），高 32 位为 hash，低 32 位为数据偏移 + 1，
+ * 不为每个条目创建对象，GC 只需要扫描一个没有引用的数组</p>
+ * <p>条目格式（8 字节对齐）：total(int) | flags(byte) | pad | hash(int) | keyLen(int) | valueLen(int) | pad | expireAt(long) | writeTime(long) | key | value</p>
+ * <p>clear 只重置索引，ByteBuffer 保留下来继续使用；free 立即释放 direct 内存（不等待 GC 回收 ByteBuffer 对象），
+ * 之后的读取视为未命中、写入被忽略</p>
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 22:05
+ */
+class OffHeapSegment {
+
+    private final static int HEADER = 40;
+    private final static int OFF_FLAGS = 4;
+    private final static int OFF_HASH = 8;
+    private final static int OFF_KEY_LEN = 12;
+    private final static int OFF_VALUE_LEN = 16;
+    private final static int OFF_EXPIRE = 24;
+    private final static int OFF_WRITE = 32;
+
+    private final static byte FLAG_PAD = 1;         //尾部不足以容纳条目时的填充
+    private final static byte FLAG_DELETED = 2;     //已删除，等待回收
+    private final static byte FLAG_ACCESSED = 4;    //CLOCK 访问标记
+
+    private final static int MIN_SLOTS = 1024;
+    private final static ByteBuffer FREED = ByteBuffer.allocate(0);
+
+    private ByteBuffer data;
+    private final int capacity;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private int head;       //最旧的条目
+    private int tail;       //下一次写入的位置
+    private int used;       //已使用的字节数（包括已删除的条目和填充）
+    private long[] slots = new long[MIN_SLOTS];
+    private int count;
+
+    /**
+     * @param capacity 分段的字节数
+     */
+    OffHeapSegment(int capacity) {
+        this.capacity = capacity & ~7;
+        this.data = ByteBuffer.allocateDirect(this.capacity);
+    }
+
+    /**
+     * @return 单个条目（包括 key 与 value）允许的最大字节数
+     */
+    int maxEntrySize() {
+        return capacity;
+    }
+
+    /**
+     * 读取数据，已过期的数据视为不存在
+     * @return value bytes, null if not exists
+     */
+    byte[] get(byte[] key, int hash, long now) {
+        lock.readLock().lock();
+        try {
+            int slot = find(key, hash);
+            if (slot < 0)
+                return null;
+            int off = offset(slots[slot]);
+            long expireAt = data.getLong(off + OFF_EXPIRE);
+            if (expireAt > 0 && expireAt <= now)
+                return null;
+            byte[] value = new byte[data.getInt(off + OFF_VALUE_LEN)];
+            data.get(off + HEADER + key.length, value);
+            data.put(off + OFF_FLAGS, (byte) (data.get(off + OFF_FLAGS) | FLAG_ACCESSED));
+            return value;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 写入数据，空间不足时回收最旧的数据
+     * @param writeTime 记录的写入时间（从二级缓存读取的数据为读取的时间）
+     * @param expired 回收过程中发现的已过期数据的 key
+     */
+    void put(byte[] key, int hash, byte[] value, long expireAt, long now, long writeTime, List<String> expired) {
+        int size = align(HEADER + key.length + value.length);
+        lock.writeLock().lock();
+        try {
+            int slot = find(key, hash);
+            if (slot >= 0)
+                delete(slot);
+            if (size > capacity || data == FREED)
+                return;
+            int off = reserve(size, now, expired);
+            data.putInt(off, size);
+            data.put(off + OFF_FLAGS, (byte) 0);
+            data.putInt(off + OFF_HASH, hash);
+            data.putInt(off + OFF_KEY_LEN, key.length);
+            data.putInt(off + OFF_VALUE_LEN, value.length);
+            data.putLong(off + OFF_EXPIRE, expireAt);
+            data.putLong(off + OFF_WRITE, writeTime);
+            data.put(off + HEADER, key);
+            data.put(off + HEADER + key.length, value);
+            insert(hash, off);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除数据（空间在回收时释放）
+     * @return true if the key existed
+     */
+    boolean remove(byte[] key, int hash) {
+        lock.writeLock().lock();
+        try {
+            int slot = find(key, hash);
+            if (slot < 0)
+                return false;
+            delete(slot);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除已过期的数据，用于读取时发现数据过期的情况
+     * @return true if the key existed and has expired
+     */
+    boolean removeExpired(byte[] key, int hash, long now) {
+        lock.writeLock().lock();
+        try {
+            int slot = find(key, hash);
+            if (slot < 0)
+                return false;
+            long expireAt = data.getLong(offset(slots[slot]) + OFF_EXPIRE);
+            if (expireAt <= 0 || expireAt > now)
+                return false;
+            delete(slot);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 读取数据的写入时间
+     * @return write time in milliseconds, -1 if not exists
+     */
+    long writeTime(byte[] key, int hash) {
+        lock.readLock().lock();
+        try {
+            int slot = find(key, hash);
+            return (slot < 0) ? -1 : data.getLong(offset(slots[slot]) + OFF_WRITE);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    void clear() {
+        lock.writeLock().lock();
+        try {
+            head = tail = used = count = 0;
+            slots = new long[MIN_SLOTS];
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 释放 direct 内存，索引清空后不会再访问 ByteBuffer；无法调用 Cleaner 时等待 GC 回收
+     */
+    void free() {
+        lock.writeLock().lock();
+        try {
+            ByteBuffer buffer = data;
+            data = FREED;
+            head = tail = used = count = 0;
+            slots = new long[MIN_SLOTS];
+            if (buffer != FREED)
+                Cleaner.clean(buffer);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 所有未过期的 key
+     */
+    void keys(long now, List<String> keys) {
+        lock.readLock().lock();
+        try {
+            for (long s : slots) {
+                if (s == 0)
+                    continue;
+                int off = offset(s);
+                long expireAt = data.getLong(off + OFF_EXPIRE);
+                if (expireAt > 0 && expireAt <= now)
+                    continue;
+                keys.add(readKey(off));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    int count() {
+        return count;
+    }
+
+    /**
+     * @return 已使用的字节数
+     */
+    long used() {
+        return used;
+    }
+
+    /**
+     * 在尾部分配 size 个连续字节，空间不足时回收头部的条目
+     */
+    private int reserve(int size, long now, List<String> expired) {
+        while (true) {
+            if (used == 0)
+                head = tail = 0;
+            if (tail > head || (tail == head && used == 0)) {
+                if (capacity - tail >= size)
+                    return allocate(size);
+                //尾部剩余空间不足，填充后从头开始
+                int pad = capacity - tail;
+                data.putInt(tail, pad);
+                data.put(tail + OFF_FLAGS, FLAG_PAD);
+                used += pad;
+                tail = 0;
+            }
+            else if (tail < head && head - tail >= size)
+                return allocate(size);
+            else
+                reclaim(now, expired);
+        }
+    }
+
+    private int allocate(int size) {
+        int off = tail;
+        tail += size;
+        if (tail == capacity)
+            tail = 0;
+        used += size;
+        return off;
+    }
+
+    /**
+     * 回收头部的一个条目，读取过的条目被移动到尾部（调用时尾部与头部相邻，移动后一定有足够的连续空间）
+     */
+    private void reclaim(long now, List<String> expired) {
+        int off = head;
+        int total = data.getInt(off);
+        byte flags = data.get(off + OFF_FLAGS);
+        head += total;
+        if (head == capacity)
+            head = 0;
+        used -= total;
+        if ((flags & (FLAG_PAD | FLAG_DELETED)) != 0)
+            return;
+
+        int hash = data.getInt(off + OFF_HASH);
+        int slot = findOffset(hash, off);
+        long expireAt = data.getLong(off + OFF_EXPIRE);
+        boolean isExpired = expireAt > 0 && expireAt <= now;
+        if ((flags & FLAG_ACCESSED) != 0 && !isExpired) {
+            byte[] entry = new byte[total];
+            data.get(off, entry);
+            int moved = allocate(total);
+            data.put(moved, entry);
+            data.put(moved + OFF_FLAGS, (byte) 0);
+            slots[slot] = slot(hash, moved);
+            return;
+        }
+        if (isExpired && expired != null)
+            expired.add(readKey(off));
+        remove(slot);
+    }
+
+    private int find(byte[] key, int hash) {
+        int mask = slots.length - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            long s = slots[i];
+            if (s == 0)
+                return -1;
+            if ((int) (s >>> 32) == hash && keyEquals(offset(s), key))
+                return i;
+        }
+    }
+
+    private int findOffset(int hash, int off) {
+        int mask = slots.length - 1;
+        for (int i = hash & mask; ; i = (i + 1) & mask) {
+            long s = slots[i];
+            if (s == 0)
+                throw new IllegalStateException("Corrupted off-heap index");
+            if (offset(s) == off)
+                return i;
+        }
+    }
+
+    private boolean keyEquals(int off, byte[] key) {
+        if (data.getInt(off + OFF_KEY_LEN) != key.length)
+            return false;
+        return data.slice(off + HEADER, key.length).equals(ByteBuffer.wrap(key));
+    }
+
+    private String readKey(int off) {
+        byte[] key = new byte[data.getInt(off + OFF_KEY_LEN)];
+        data.get(off + HEADER, key);
+        return new String(key, StandardCharsets.UTF_8);
+    }
+
+    private void delete(int slot) {
+        int off = offset(slots[slot]);
+        data.put(off + OFF_FLAGS, (byte) (data.get(off + OFF_FLAGS) | FLAG_DELETED));
+        remove(slot);
+    }
+
+    private void insert(int hash, int off) {
+        if ((count + 1) * 4L > slots.length * 3L)
+            resize();
+        int mask = slots.length - 1;
+        int i = hash & mask;
+        while (slots[i] != 0)
+            i = (i + 1) & mask;
+        slots[i] = slot(hash, off);
+        count++;
+    }
+
+    /**
+     * 删除索引项，线性探测的后移删除，不使用墓碑
+     */
+    private void remove(int i) {
+        int mask = slots.length - 1;
+        int j = i;
+        while (true) {
+            j = (j + 1) & mask;
+            long s = slots[j];
+            if (s == 0)
+                break;
+            int k = (int) (s >>> 32) & mask;
+            if ((i <= j) ? (i < k && k <= j) : (i < k || k <= j))
+                continue;
+            slots[i] = s;
+            i = j;
+        }
+        slots[i] = 0;
+        count--;
+    }
+
+    private void resize() {
+        long[] old = slots;
+        slots = new long[old.length << 1];
+        int mask = slots.length - 1;
+        for (long s : old) {
+            if (s == 0)
+                continue;
+            int i = (int) (s >>> 32) & mask;
+            while (slots[i] != 0)
+                i = (i + 1) & mask;
+            slots[i] = s;
+        }
+    }
+
+    /**
+     * 通过 sun.misc.Unsafe.invokeCleaner 释放 direct ByteBuffer（jdk.unsupported 模块，不需要 --add-opens）
+     */
+    private static class Cleaner {
+
+        private final static Object UNSAFE;
+        private final static Method INVOKE_CLEANER;
+
+        static {
+            Object unsafe = null;
+            Method invokeCleaner = null;
+            try {
+                Class<?> clazz = Class.forName("sun.misc.Unsafe");
+                Field field = clazz.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                unsafe = field.get(null);
+                invokeCleaner = clazz.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                invokeCleaner = null;   //不支持时由 GC 回收
+            }
+            UNSAFE = unsafe;
+            INVOKE_CLEANER = invokeCleaner;
+        }
+
+        static void clean(ByteBuffer buffer) {
+            if (INVOKE_CLEANER == null)
+                return;
+            try {
+                INVOKE_CLEANER.invoke(UNSAFE, buffer);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                //由 GC 回收
+            }
+        }
+    }
+
+    private static long slot(int hash, int off) {
+        return ((long) hash << 32) | ((off + 1) & 0xffffffffL);
+    }
+
+    private static int offset(long slot) {
+        return (int) slot - 1;
+    }
+
+    private static int align(int size) {
+        return (size + 7) & ~7;
+    }
+
+}
@@ -11,6 +11,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * ClassName: net.oschina.j2cache.service.cache.impl.redis
@@ -47,7 +48,7 @@ public class ReadonlyRedisCacheProvider extends RedisCacheProvider {
      */
     private static final class ReadonlyCache implements InvocationHandler {
 
-        private static final List<String> ignoreMethods = Arrays.asList("put","evict","clear");
+        private static final List<String> ignoreMethods = Arrays.asList("put","evict","clear","putAsync","evictAsync","clearAsync","setBytes","setBytesAsync");
 
         private Cache cache;
 
@@ -64,7 +65,9 @@ public class ReadonlyRedisCacheProvider extends RedisCacheProvider {
             String methodName = method.getName();
             if(ignoreMethods.contains(methodName)) {
                 log.debug("Cache [{}] skipped.", methodName);
-                return null;
+                if (CompletableFuture.class.equals(method.getReturnType()))
+                    return CompletableFuture.completedFuture("clearAsync".equals(methodName) ? 0L : null);
+                return defaultValue(method.getReturnType());
             }
             try {
                 return method.invoke(cache, args);
@@ -72,6 +75,29 @@ public class ReadonlyRedisCacheProvider extends RedisCacheProvider {
                 throw e.getTargetException();
             }
         }
+
+        /**
+         * 被屏蔽的方法的返回值，基本类型不能返回 null（例如 clear(LongConsumer) 返回 long）
+         */
+        private static Object defaultValue(Class<?> type) {
+            if (!type.isPrimitive() || type == void.class)
+                return null;
+            if (type == boolean.class)
+                return false;
+            if (type == long.class)
+                return 0L;
+            if (type == int.class)
+                return 0;
+            if (type == char.class)
+                return (char) 0;
+            if (type == double.class)
+                return 0D;
+            if (type == float.class)
+                return 0F;
+            if (type == short.class)
+                return (short) 0;
+            return (byte) 0;
+        }
     }
 
 }
@@ -11,6 +11,11 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * ClassName: RedisCacheProvider
@@ -25,10 +30,19 @@ public class RedisCacheProvider implements CacheProvider {
 
     private static final Logger log = LoggerFactory.getLogger(RedisCacheProvider.class);
 
+    private static final int REAPER_QUEUE_SIZE = 64;
+
     private RedisClient redisClient;
     private String namespace;
     private String storage;
+    private boolean hashTag;
+    private boolean keyLayoutFallback;
+    private boolean generations;
+    private boolean generationReap;
     private int scanCount;
+    private int batchSize;
+    private ExecutorService asyncExecutor;
+    private ExecutorService reaper;
 
     private final ConcurrentHashMap<String, Level2Cache> regions = new ConcurrentHashMap();
 
@@ -49,8 +63,17 @@ public class RedisCacheProvider implements CacheProvider {
     @Override
     public void start(Properties props) {
         this.scanCount = Integer.valueOf(props.getProperty("scanCount", "1000"));
+        this.batchSize = Integer.parseInt(props.getProperty("batchSize", "500"));
         this.namespace = props.getProperty("namespace");
         this.storage = props.getProperty("storage");
+        this.hashTag = "hashtag".equalsIgnoreCase(props.getProperty("keyLayout"));
+        this.keyLayoutFallback = Boolean.parseBoolean(props.getProperty("keyLayoutFallback", "true"));
+        this.generations = Boolean.parseBoolean(props.getProperty("generations", "false"));
+        this.generationReap = Boolean.parseBoolean(props.getProperty("generationReap", "true"));
+        int asyncThreads = Integer.parseInt(props.getProperty("asyncThreads", "8"));
+        int asyncQueueSize = Integer.parseInt(props.getProperty("asyncQueueSize", "1024"));
+        this.asyncExecutor = newAsyncExecutor(asyncThreads, asyncQueueSize);
+        this.reaper = (generations && generationReap) ? newReaper() : null;
 
         JedisPoolConfig poolConfig = RedisUtils.newPoolConfig(props, null);
 
@@ -82,9 +105,47 @@ public class RedisCacheProvider implements CacheProvider {
         );
     }
 
+    /**
+     * Jedis 没有原生的异步接口，异步操作在该线程池中执行；队列满时拒绝任务（异步接口返回失败的 Future），
+     * 不在调用线程中执行，调用者可能是不能阻塞的事件循环线程
+     * @param threads 线程数量
+     * @param queueSize 等待队列长度
+     * @return executor
+     */
+    private static ExecutorService newAsyncExecutor(int threads, int queueSize) {
+        AtomicInteger counter = new AtomicInteger();
+        return new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(queueSize),
+                r -> {
+                    Thread t = new Thread(r, "j2cache-redis-async-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 删除旧 generation 数据的单个后台线程，与异步读写的线程池分开，避免长时间的 SCAN+UNLINK 占用异步操作的线程；
+     * 队列满时直接拒绝（旧数据等待过期），clear 始终是 O(1) 的操作
+     * @return executor
+     */
+    private static ExecutorService newReaper() {
+        return new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(REAPER_QUEUE_SIZE),
+                r -> {
+                    Thread t = new Thread(r, "j2cache-redis-reaper");
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
     @Override
     public void stop() {
         regions.clear();
+        asyncExecutor.shutdown();
+        if (reaper != null)
+            reaper.shutdown();
         try {
             redisClient.close();
         } catch (IOException e) {
@@ -95,8 +156,9 @@ public class RedisCacheProvider implements CacheProvider {
     @Override
     public Cache buildCache(String region, CacheExpiredListener listener) {
         return regions.computeIfAbsent(this.namespace+":"+region, v -> "hash".equalsIgnoreCase(this.storage)?
-                new RedisHashCache(this.namespace, region, redisClient):
-                new RedisGenericCache(this.namespace, region, redisClient, scanCount));
+                new RedisHashCache(this.namespace, region, redisClient, asyncExecutor):
+                new RedisGenericCache(this.namespace, region, redisClient, scanCount, batchSize, asyncExecutor, hashTag, keyLayoutFallback,
+                        generations, reaper));
     }
 
     @Override
@@ -6,6 +6,7 @@ import org.slf4j.LoggerFactory;
 import redis.clients.jedis.*;
 import redis.clients.jedis.args.*;
 import redis.clients.jedis.commands.JedisBinaryCommands;
+import redis.clients.jedis.commands.PipelineBinaryCommands;
 import redis.clients.jedis.exceptions.JedisConnectionException;
 import redis.clients.jedis.params.*;
 import redis.clients.jedis.resps.GeoRadiusResponse;
@@ -19,6 +20,8 @@ import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * ClassName: RedisClient
@@ -38,8 +41,11 @@ public class RedisClient implements Closeable, AutoCloseable {
     private final static int MAX_ATTEMPTS = 3;
 
     private ThreadLocal<JedisBinaryCommands> clients;
+    //execute 执行期间当前线程借出的连接，只用于检测嵌套调用，最外层调用结束时立即移除
+    private final ThreadLocal<JedisBinaryCommands> scope = new ThreadLocal<>();
 
     private JedisCluster cluster;
+    private JedisBinaryCommands clusterCommands;
     private JedisPool single;
     private JedisSentinelPool sentinel;
     //private ShardedJedisPool sharded;
@@ -150,6 +156,7 @@ public class RedisClient implements Closeable, AutoCloseable {
                 poolConfig1.setFairness(poolConfig.getFairness());
                 poolConfig1.setLifo(poolConfig.getLifo());
                 this.cluster = new JedisCluster(hps, CONNECT_TIMEOUT, SO_TIMEOUT, MAX_ATTEMPTS, password, poolConfig1);
+                this.clusterCommands = toJedisBinaryCommands(cluster);
                 break;
 //            case "sharded":
 //                List<JedisShardInfo> shards = new ArrayList<>();
@@ -175,10 +182,38 @@ public class RedisClient implements Closeable, AutoCloseable {
         }
     }
 
+    /**
+     * 借出一个连接执行命令，执行结束后立即归还
+     * 在 command 内部再次调用 execute（例如批量方法调用单个 key 的方法）会直接复用外层的连接，
+     * 因此一次逻辑操作只占用一个连接；集群模式下 JedisCluster 自行管理连接，不需要借出
+     * @param command 需要执行的命令
+     * @param <T> result type
+     * @return 命令的执行结果
+     */
+    public <T> T execute(Function<JedisBinaryCommands, T> command) {
+        if (cluster != null)
+            return command.apply(clusterCommands);
+
+        JedisBinaryCommands current = scope.get();
+        if (current != null)
+            return command.apply(current);
+
+        Jedis jedis = (single != null) ? single.getResource() : sentinel.getResource();
+        scope.set(jedis);
+        try {
+            return command.apply(jedis);
+        } finally {
+            scope.remove();
+            jedis.close();
+        }
+    }
+
     /**
      * 获取客户端接口
      * @return 返回基本的 Jedis 二进制命令接口
+     * @deprecated 连接保存在 ThreadLocal 中，必须与 release 成对调用，请使用 {@link #execute(Function)}
      */
+    @Deprecated
     public JedisBinaryCommands get() {
         JedisBinaryCommands client = clients.get();
         if(client == null) {
@@ -189,7 +224,7 @@ public class RedisClient implements Closeable, AutoCloseable {
 //            else if (sharded != null)
 //                client = sharded.getResource();
             else if (cluster != null)
-                client = toJedisBinaryCommands(cluster);
+                client = clusterCommands;
 
             clients.set(client);
         }
@@ -198,14 +233,16 @@ public class RedisClient implements Closeable, AutoCloseable {
 
     /**
      * 释放当前 Redis 连接
+     * @deprecated 请使用 {@link #execute(Function)}
      */
+    @Deprecated
     public void release() {
-        Closeable client = (Closeable) clients.get();
+        JedisBinaryCommands client = clients.get();
         if(client != null) {
-            //JedisCluster 会自动释放连接
+            //JedisCluster 会自动释放连接，集群模式下的包装对象不是 Closeable
             if(client instanceof Closeable && !(client instanceof JedisCluster)) {
                 try {
-                    client.close();
+                    ((Closeable) client).close();
                 } catch(IOException e) {
                     log.error("Failed to release jedis connection.", e);
                 }
@@ -214,6 +251,68 @@ public class RedisClient implements Closeable, AutoCloseable {
         }
     }
 
+    /**
+     * 以 pipeline 的方式批量执行命令，所有命令发送完毕后统一读取响应
+     * 单机和哨兵模式通过 execute 借出连接（嵌套在 execute 中时复用外层连接），
+     * 集群模式使用 ClusterPipeline，按 key 所在的节点分组发送
+     * @param commands 需要批量执行的命令
+     */
+    public void pipelined(Consumer<PipelineBinaryCommands> commands) {
+        if (cluster != null) {
+            try (ClusterPipeline pipeline = cluster.pipelined()) {
+                commands.accept(pipeline);
+                pipeline.sync();
+            }
+        }
+        else {
+            execute(cmd -> {
+                try (Pipeline pipeline = ((Jedis) cmd).pipelined()) {
+                    commands.accept(pipeline);
+                    pipeline.sync();
+                }
+                return null;
+            });
+        }
+    }
+
+    /**
+     * 集群模式下当前所有主节点的地址（host:port），非集群模式返回空列表
+     * 不带 hash tag 的 SCAN 无法由 JedisCluster 路由，需要通过 {@link #executeOn(String, Function)} 在每个主节点上分别执行
+     * @return master nodes
+     */
+    public List<String> masters() {
+        if (cluster == null)
+            return Collections.emptyList();
+        List<String> masters = new ArrayList<>();
+        cluster.getClusterNodes().forEach((node, pool) -> {
+            try (Connection connection = pool.getResource()) {
+                if (new Jedis(connection).info("replication").contains("role:master"))
+                    masters.add(node);
+            } catch (JedisConnectionException e) {
+                log.warn("Failed to connect to cluster node {}, skipped.", node, e);
+            }
+        });
+        return masters;
+    }
+
+    /**
+     * 在集群的指定节点上执行命令，非集群模式下等同于 execute
+     * @param node 节点地址（host:port），来自 {@link #masters()}
+     * @param command 需要执行的命令
+     * @param <T> result type
+     * @return 命令的执行结果
+     */
+    public <T> T executeOn(String node, Function<JedisBinaryCommands, T> command) {
+        if (cluster == null)
+            return execute(command);
+        ConnectionPool pool = cluster.getClusterNodes().get(node);
+        if (pool == null)
+            throw new JedisConnectionException("Unknown cluster node: " + node);
+        try (Connection connection = pool.getResource()) {
+            return command.apply(new Jedis(connection));
+        }
+    }
+
     /**
      * 释放连接池
      * @throws IOException  io close exception
@@ -539,7 +638,7 @@ public class RedisClient implements Closeable, AutoCloseable {
 
             @Override
             public long exists(byte[]... bytes) {
-                return 0;
+                return RedisClusterBatch.exists(cluster, bytes);
             }
 
             @Override
@@ -679,12 +778,12 @@ public class RedisClient implements Closeable, AutoCloseable {
 
             @Override
             public List<byte[]> mget(byte[]... bytes) {
-                return null;
+                return RedisClusterBatch.mget(cluster, bytes);
             }
 
             @Override
             public String mset(byte[]... bytes) {
-                return null;
+                return RedisClusterBatch.mset(cluster, bytes);
             }
 
             @Override
@@ -1319,17 +1418,17 @@ public class RedisClient implements Closeable, AutoCloseable {
 
             @Override
             public long del(byte[]... bytes) {
-                return 0;
+                return RedisClusterBatch.del(cluster, bytes);
             }
 
             @Override
             public long unlink(byte[] bytes) {
-                return 0;
+                return cluster.unlink(bytes);
             }
 
             @Override
             public long unlink(byte[]... bytes) {
-                return 0;
+                return RedisClusterBatch.unlink(cluster, bytes);
             }
 
             @Override
@@ -1414,7 +1513,8 @@ public class RedisClient implements Closeable, AutoCloseable {
 
             @Override
             public ScanResult<byte[]> scan(byte[] bytes, ScanParams scanParams) {
-                return null;
+                //集群模式下 match 必须包含 hash tag（hashTag 模式的 region），SCAN 只在该 slot 所在的节点执行
+                return cluster.scan(bytes, scanParams);
             }
 
             @Override
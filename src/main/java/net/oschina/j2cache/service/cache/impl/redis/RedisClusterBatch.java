@@ -0,0 +1,135 @@
+package net.oschina.j2cache.service.cache.impl.redis;
+
+import redis.clients.jedis.ClusterPipeline;
+import redis.clients.jedis.JedisCluster;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.util.JedisClusterCRC16;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * ClassName: RedisClusterBatch
+ * Package: net.oschina.j2cache.service.cache.impl.redis
+ * Description:
+ * <p>Redis Cluster 模式下的多 key 命令</p>
+ * <p>Cluster 要求一条命令中的所有 key 位于同一个 slot，否则返回 CROSSSLOT 错误。
+ * 这里先按 slot 对 key 分组，每组发送一条命令，所有命令通过 ClusterPipeline 发送，
+ * 由 ClusterPipeline 按节点分组并行读取响应，最后按输入顺序组装结果</p>
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 16:05
+ */
+class RedisClusterBatch {
+
+    private RedisClusterBatch() {}
+
+    /**
+     * 批量读取，结果顺序与 keys 一致，不存在的 key 对应 null
+     */
+    static List<byte[]> mget(JedisCluster cluster, byte[]... keys) {
+        if (keys.length == 0)
+            return new ArrayList<>();
+        Map<Integer, List<Integer>> slots = groupBySlot(keys, 1);
+        if (slots.size() == 1)
+            return cluster.mget(keys);
+
+        byte[][] results = new byte[keys.length][];
+        List<List<Integer>> groups = new ArrayList<>(slots.values());
+        List<Response<List<byte[]>>> responses = new ArrayList<>(groups.size());
+        try (ClusterPipeline pipeline = cluster.pipelined()) {
+            for (List<Integer> group : groups)
+                responses.add(pipeline.mget(select(keys, group, 1)));
+            pipeline.sync();
+        }
+        for (int i = 0; i < groups.size(); i++) {
+            List<Integer> group = groups.get(i);
+            List<byte[]> values = responses.get(i).get();
+            for (int j = 0; j < group.size(); j++)
+                results[group.get(j)] = values.get(j);
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * 批量写入，keysvalues 的格式与 MSET 相同：key1, value1, key2, value2 ...
+     */
+    static String mset(JedisCluster cluster, byte[]... keysvalues) {
+        if (keysvalues.length == 0)
+            return "OK";
+        Map<Integer, List<Integer>> slots = groupBySlot(keysvalues, 2);
+        if (slots.size() == 1)
+            return cluster.mset(keysvalues);
+
+        try (ClusterPipeline pipeline = cluster.pipelined()) {
+            for (List<Integer> group : slots.values())
+                pipeline.mset(select(keysvalues, group, 2));
+            pipeline.sync();
+        }
+        return "OK";
+    }
+
+    static long del(JedisCluster cluster, byte[]... keys) {
+        return sum(cluster, keys, JedisCluster::del, ClusterPipeline::del);
+    }
+
+    static long unlink(JedisCluster cluster, byte[]... keys) {
+        return sum(cluster, keys, JedisCluster::unlink, ClusterPipeline::unlink);
+    }
+
+    static long exists(JedisCluster cluster, byte[]... keys) {
+        return sum(cluster, keys, JedisCluster::exists, ClusterPipeline::exists);
+    }
+
+    /**
+     * 返回值为各个 slot 结果之和的命令（DEL、UNLINK、EXISTS）
+     */
+    private static long sum(JedisCluster cluster, byte[][] keys,
+                            BiFunction<JedisCluster, byte[][], Long> command,
+                            BiFunction<ClusterPipeline, byte[][], Response<Long>> pipelined) {
+        if (keys.length == 0)
+            return 0;
+        Map<Integer, List<Integer>> slots = groupBySlot(keys, 1);
+        if (slots.size() == 1)
+            return command.apply(cluster, keys);
+
+        List<Response<Long>> responses = new ArrayList<>(slots.size());
+        try (ClusterPipeline pipeline = cluster.pipelined()) {
+            for (List<Integer> group : slots.values())
+                responses.add(pipelined.apply(pipeline, select(keys, group, 1)));
+            pipeline.sync();
+        }
+        long total = 0;
+        for (Response<Long> response : responses)
+            total += response.get();
+        return total;
+    }
+
+    /**
+     * 按 slot 分组，返回每个 slot 包含的 key 序号（序号指第几个 key，而不是数组下标）
+     * @param args 命令参数
+     * @param step 每个 key 占用的参数个数（MSET 为 2）
+     */
+    private static Map<Integer, List<Integer>> groupBySlot(byte[][] args, int step) {
+        Map<Integer, List<Integer>> slots = new LinkedHashMap<>();
+        for (int i = 0; i < args.length / step; i++)
+            slots.computeIfAbsent(JedisClusterCRC16.getSlot(args[i * step]), s -> new ArrayList<>()).add(i);
+        return slots;
+    }
+
+    private static byte[][] select(byte[][] args, List<Integer> group, int step) {
+        byte[][] selected = new byte[group.size() * step][];
+        int idx = 0;
+        for (int i : group) {
+            for (int j = 0; j < step; j++)
+                selected[idx++] = args[i * step + j];
+        }
+        return selected;
+    }
+
+}
@@ -1,17 +1,24 @@
 package net.oschina.j2cache.service.cache.impl.redis;
 
-import java.io.UnsupportedEncodingException;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
 
-import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import net.oschina.j2cache.exception.CacheException;
-import net.oschina.j2cache.service.cache.Level2Cache;
+import net.oschina.j2cache.service.cache.ExecutorAsyncLevel2Cache;
+import net.oschina.j2cache.service.cache.KeyPageIterator;
+import net.oschina.j2cache.util.KeyEncoder;
 
+import redis.clients.jedis.Response;
 import redis.clients.jedis.commands.JedisBinaryCommands;
 import redis.clients.jedis.commands.KeyBinaryCommands;
 import redis.clients.jedis.commands.StringBinaryCommands;
@@ -27,29 +34,89 @@ import redis.clients.jedis.resps.ScanResult;
  * @version 1.0
  * @date 2023/10/23 1:39
  */
-public class RedisGenericCache implements Level2Cache {
+public class RedisGenericCache implements ExecutorAsyncLevel2Cache {
 
     private final static Logger log = LoggerFactory.getLogger(RedisGenericCache.class);
 
+    //本地缓存的 generation 的最长使用时间（毫秒），超过后重新读取，用于兜底丢失的清除广播
+    private final static long GENERATION_REFRESH = Long.getLong("j2cache.generation.refresh", 1000L);
+
     private String namespace;
     private String region;
+    private String legacyRegion;
+    private KeyEncoder encoder;
+    private KeyEncoder legacyEncoder;
     private RedisClient client;
     private int scanCount;
+    private int batchSize;
+    private Executor asyncExecutor;
+    private byte[] generationKey;
+    private Executor reaper;
+    private final AtomicReference<Generation> generation = new AtomicReference<>();
+
+    /**
+     * 缓存构造
+     * @param namespace 命名空间，用于在多个实例中避免 _key 的重叠
+     * @param region 缓存区域的名称
+     * @param client 缓存客户端接口
+     * @param scanCount 每次 scan 的数量
+     * @param batchSize 每个 pipeline 中最多包含的命令数量
+     * @param asyncExecutor 执行异步操作的线程池
+     */
+    public RedisGenericCache(String namespace, String region, RedisClient client, int scanCount, int batchSize, Executor asyncExecutor) {
+        this(namespace, region, client, scanCount, batchSize, asyncExecutor, false, false);
+    }
+
+    /**
+     * 缓存构造
+     * @param namespace 命名空间，用于在多个实例中避免 _key 的重叠
+     * @param region 缓存区域的名称
+     * @param client 缓存客户端接口
+     * @param scanCount 每次 scan 的数量
+     * @param batchSize 每个 pipeline 中最多包含的命令数量
+     * @param asyncExecutor 执行异步操作的线程池
+     * @param hashTag 使用 namespace:{region}:key 的格式，使同一个 region 的 key 位于同一个 cluster slot
+     * @param legacyFallback hashTag 模式下，读取不到数据时再读取旧格式 namespace:region:key 的数据（迁移期间使用）
+     */
+    public RedisGenericCache(String namespace, String region, RedisClient client, int scanCount, int batchSize, Executor asyncExecutor,
+                             boolean hashTag, boolean legacyFallback) {
+        this(namespace, region, client, scanCount, batchSize, asyncExecutor, hashTag, legacyFallback, false, null);
+    }
 
     /**
      * 缓存构造
      * @param namespace 命名空间，用于在多个实例中避免 _key 的重叠
      * @param region 缓存区域的名称
      * @param client 缓存客户端接口
+     * @param scanCount 每次 scan 的数量
+     * @param batchSize 每个 pipeline 中最多包含的命令数量
+     * @param asyncExecutor 执行异步操作的线程池
+     * @param hashTag 使用 namespace:{region}:key 的格式，使同一个 region 的 key 位于同一个 cluster slot
+     * @param legacyFallback hashTag 模式下，读取不到数据时再读取旧格式 namespace:region:key 的数据（迁移期间使用）
+     * @param generations 使用 namespace:region:generation:key 的格式，clear 只需要递增 generation（不再兼容旧格式）
+     * @param reaper clear 之后在后台删除上一个 generation 的数据的线程池，为 null 时旧数据只能等待过期
      */
-    public RedisGenericCache(String namespace, String region, RedisClient client, int scanCount) {
+    public RedisGenericCache(String namespace, String region, RedisClient client, int scanCount, int batchSize, Executor asyncExecutor,
+                             boolean hashTag, boolean legacyFallback, boolean generations, Executor reaper) {
         if (region == null || region.isEmpty())
             region = "_"; // 缺省region
 
         this.client = client;
         this.namespace = namespace;
-        this.region = _regionName(region);
+        this.region = _regionName(hashTag ? "{" + region + "}" : region);
+        this.legacyRegion = (hashTag && legacyFallback && !generations) ? _regionName(region) : null;
+        this.encoder = new KeyEncoder(this.region + ":");
+        this.legacyEncoder = (legacyRegion != null) ? new KeyEncoder(legacyRegion + ":") : null;
         this.scanCount = scanCount;
+        this.batchSize = Math.max(1, batchSize);
+        this.asyncExecutor = asyncExecutor;
+        this.generationKey = generations ? KeyEncoder.utf8(this.region + "#gen") : null;
+        this.reaper = reaper;
+    }
+
+    @Override
+    public Executor asyncExecutor() {
+        return asyncExecutor;
     }
 
     @Override
@@ -71,63 +138,109 @@ public class RedisGenericCache implements Level2Cache {
     }
 
     private byte[] _key(String key) {
-        try {
-            return (this.region + ":" + key).getBytes("utf-8");
-        } catch (UnsupportedEncodingException e) {
-            return (this.region + ":" + key).getBytes();
-        }
+        return encoder().encode(key);
+    }
+
+    /**
+     * @return 当前 key 格式的编码器，generation 模式下前缀包含 generation
+     */
+    private KeyEncoder encoder() {
+        return (generationKey == null) ? encoder : generation().encoder;
+    }
+
+    /**
+     * 读取本地缓存的 generation，超过 GENERATION_REFRESH 后从 Redis 重新读取
+     */
+    private Generation generation() {
+        Generation current = generation.get();
+        if (current != null && System.currentTimeMillis() - current.loadedAt < GENERATION_REFRESH)
+            return current;
+        byte[] value = client.execute(cmd -> cmd.get(generationKey));
+        Generation loaded = new Generation(region, (value == null) ? 0 : Long.parseLong(new String(value, StandardCharsets.UTF_8)));
+        //读取期间本节点执行了 clear 时，保留 clear 设置的 generation
+        generation.compareAndSet(current, loaded);
+        return generation.get();
+    }
+
+    /**
+     * 其他节点清除了该区域（递增了 generation），下次访问时重新读取
+     */
+    @Override
+    public void onRemoteClear() {
+        if (generationKey != null)
+            generation.set(null);
+    }
+
+    private byte[] _legacyKey(String key) {
+        return legacyEncoder.encode(key);
     }
 
     @Override
     public byte[] getBytes(String key) {
-        try {
-            return client.get().get(_key(key));
-        } finally {
-            client.release();
-        }
+        return client.execute(cmd -> {
+            byte[] bytes = cmd.get(_key(key));
+            if (bytes == null && legacyRegion != null)
+                bytes = cmd.get(_legacyKey(key));
+            return bytes;
+        });
     }
 
     @Override
     public List<byte[]> getBytes(Collection<String> keys) {
-        try {
-            JedisBinaryCommands cmd = client.get();
+        return client.execute(cmd -> {
             if(cmd instanceof StringBinaryCommands) {
-                byte[][] bytes = keys.stream().map(k -> _key(k)).toArray(byte[][]::new);
-                return ((StringBinaryCommands)cmd).mget(bytes);
+                KeyEncoder encoder = encoder();
+                byte[][] bytes = keys.stream().map(k -> encoder.encode(k)).toArray(byte[][]::new);
+                List<byte[]> values = ((StringBinaryCommands)cmd).mget(bytes);
+                if (legacyRegion != null)
+                    values = fallbackToLegacy((StringBinaryCommands) cmd, new ArrayList<>(keys), values);
+                return values;
             }
             return keys.stream().map(k -> getBytes(k)).collect(Collectors.toList());
-        } finally {
-            client.release();
+        });
+    }
+
+    /**
+     * 对新格式中不存在的 key，再批量读取一次旧格式的 key
+     */
+    private List<byte[]> fallbackToLegacy(StringBinaryCommands cmd, List<String> keys, List<byte[]> values) {
+        List<Integer> missed = new ArrayList<>();
+        for (int i = 0; i < values.size(); i++) {
+            if (values.get(i) == null)
+                missed.add(i);
         }
+        if (missed.isEmpty())
+            return values;
+        byte[][] legacyKeys = missed.stream().map(i -> _legacyKey(keys.get(i))).toArray(byte[][]::new);
+        List<byte[]> legacyValues = cmd.mget(legacyKeys);
+        List<byte[]> results = new ArrayList<>(values);
+        for (int i = 0; i < missed.size(); i++)
+            results.set(missed.get(i), legacyValues.get(i));
+        return results;
     }
 
     @Override
     public void setBytes(String key, byte[] bytes) {
-        try {
-            client.get().set(_key(key), bytes);
-        } finally {
-            client.release();
-        }
+        client.execute(cmd -> cmd.set(_key(key), bytes));
     }
 
     @Override
     public void setBytes(Map<String,byte[]> bytes) {
-        try {
-            JedisBinaryCommands cmd = client.get();
+        client.execute(cmd -> {
             if(cmd instanceof StringBinaryCommands) {
+                KeyEncoder encoder = encoder();
                 byte[][] data = new byte[bytes.size() * 2][];
                 int idx = 0;
                 for(String key : bytes.keySet()){
-                    data[idx++] = _key(key);
+                    data[idx++] = encoder.encode(key);
                     data[idx++] = bytes.get(key);
                 }
                 ((StringBinaryCommands)cmd).mset(data);
             }
             else
-            bytes.forEach((k,v) -> setBytes(k, v));
-        } finally {
-            client.release();
-        }
+                bytes.forEach((k,v) -> setBytes(k, v));
+            return null;
+        });
     }
 
     @Override
@@ -137,50 +250,35 @@ public class RedisGenericCache implements Level2Cache {
             setBytes(key, bytes);
         }
         else {
-            try {
-                client.get().setex(_key(key), (int) timeToLiveInSeconds, bytes);
-            } finally {
-                client.release();
-            }
+            client.execute(cmd -> cmd.setex(_key(key), (int) timeToLiveInSeconds, bytes));
         }
     }
 
+    /**
+     * MSET 不支持 TTL，这里使用 pipeline 批量发送 SETEX，每 batchSize 个命令读取一次响应
+     */
     @Override
     public void setBytes(Map<String,byte[]> bytes, long timeToLiveInSeconds) {
-        try {
-            /* 为了支持 TTL ，没法使用批量写入方法 */
-            /*
-            BinaryJedisCommands cmd = client.get();
-            if(cmd instanceof MultiKeyBinaryCommands) {
-                byte[][] data = new byte[bytes.size() * 2][];
-                int idx = 0;
-                for(String key : bytes.keySet()){
-                    data[idx++] = _key(key);
-                    data[idx++] = bytes.get(key);
-                }
-                ((MultiKeyBinaryCommands)cmd).mset(data);
-            }
-            else
-            */
-
-            if (timeToLiveInSeconds <= 0) {
-                log.debug(String.format("Invalid timeToLiveInSeconds value : %d , skipped it.", timeToLiveInSeconds));
-                setBytes(bytes);
-            }
-            else
-                bytes.forEach((k,v) -> setBytes(k, v, timeToLiveInSeconds));
-        } finally {
-            client.release();
+        if (timeToLiveInSeconds <= 0) {
+            log.debug(String.format("Invalid timeToLiveInSeconds value : %d , skipped it.", timeToLiveInSeconds));
+            setBytes(bytes);
+            return;
         }
+        //在 pipeline 之外确定 generation：pipeline 中不能再执行 GET，同一批数据也不能跨越两个 generation
+        KeyEncoder encoder = encoder();
+        client.execute(cmd -> {
+            List<Map.Entry<String, byte[]>> entries = new ArrayList<>(bytes.entrySet());
+            for (int from = 0; from < entries.size(); from += batchSize) {
+                List<Map.Entry<String, byte[]>> batch = entries.subList(from, Math.min(from + batchSize, entries.size()));
+                client.pipelined(pipeline -> batch.forEach(e -> pipeline.setex(encoder.encode(e.getKey()), timeToLiveInSeconds, e.getValue())));
+            }
+            return null;
+        });
     }
 
     @Override
     public boolean exists(String key) {
-        try {
-            return client.get().exists(_key(key));
-        } finally {
-            client.release();
-        }
+        return client.execute(cmd -> cmd.exists(_key(key)) || (legacyRegion != null && cmd.exists(_legacyKey(key))));
     }
 
     /**
@@ -190,199 +288,202 @@ public class RedisGenericCache implements Level2Cache {
      */
     @Override
     public Collection<String> keys() {
-        try {
-            JedisBinaryCommands cmd = client.get();
-            if (cmd instanceof StringBinaryCommands) {
-                Collection<String> keys = keys(cmd);
+        return client.execute(cmd -> {
+            if (cmd instanceof KeyBinaryCommands) {
+                Set<String> keys = new LinkedHashSet<>();
+                Generation current = (generationKey == null) ? null : generation();
+                KeyEncoder encoder = (current == null) ? this.encoder : current.encoder;
+                scan(cmd, (current == null) ? this.region + ":" : current.prefix, page -> page.forEach(k -> keys.add(encoder.decode(k))));
+                if (legacyRegion != null)
+                    scanLegacy(cmd, page -> page.forEach(k -> keys.add(legacyEncoder.decode(k))));
+                return new ArrayList<>(keys);
+            }
+            throw new CacheException("keys() not implemented in Redis Generic Mode");
+        });
+    }
 
-                return keys.stream().map(k -> k.substring(this.region.length()+1)).collect(Collectors.toList());
+    /**
+     * 以 SCAN 游标分页遍历，每一页单独借用一次连接；迁移期间（legacyFallback）会继续遍历旧格式的 key，
+     * 同一个 key 同时存在两种格式时会出现两次
+     */
+    @Override
+    public Iterator<String> scanKeys(int pageSize) {
+        Generation current = (generationKey == null) ? null : generation();
+        KeyEncoder encoder = (current == null) ? this.encoder : current.encoder;
+        ScanParams scanParams = new ScanParams().match(((current == null) ? this.region + ":" : current.prefix) + "*").count(pageSize);
+        ScanParams legacyParams = (legacyRegion == null) ? null : new ScanParams().match(legacyRegion + ":*").count(pageSize);
+        return new KeyPageIterator<byte[]>(ScanParams.SCAN_POINTER_START_BINARY) {
+            private boolean legacy;
+            //旧格式的 key 在集群模式下逐个主节点 SCAN（见 scanLegacy），非集群模式下为空
+            private List<String> masters;
+            private int node;
+
+            @Override
+            protected byte[] fetch(byte[] cursor, List<String> keys) {
+                KeyEncoder pageEncoder = legacy ? legacyEncoder : encoder;
+                Function<JedisBinaryCommands, ScanResult<byte[]>> command = cmd -> {
+                    if (cmd instanceof KeyBinaryCommands)
+                        return ((KeyBinaryCommands) cmd).scan(cursor, legacy ? legacyParams : scanParams);
+                    throw new CacheException("scanKeys() not implemented in Redis Generic Mode");
+                };
+                ScanResult<byte[]> scan = (legacy && !masters.isEmpty()) ? client.executeOn(masters.get(node), command) : client.execute(command);
+                scan.getResult().forEach(k -> keys.add(pageEncoder.decode(k)));
+                byte[] next = scan.getCursorAsBytes();
+                if (!Arrays.equals(next, ScanParams.SCAN_POINTER_START_BINARY))
+                    return next;
+                if (legacy && ++node < masters.size())
+                    return ScanParams.SCAN_POINTER_START_BINARY;
+                if (legacy || legacyParams == null)
+                    return null;
+                legacy = true;
+                masters = client.masters();
+                return ScanParams.SCAN_POINTER_START_BINARY;
             }
-        } finally {
-            client.release();
-        }
-        throw new CacheException("keys() not implemented in Redis Generic Mode");
+        };
     }
 
-    private Collection<String> keys(JedisBinaryCommands cmd) {
-        Collection<String> keys = new ArrayList<>();
-        String cursor = "0";
+    /**
+     * 按 SCAN 分页遍历 region 中的 key，每一页交给 page 处理，不在内存中保存全部的 key
+     * @param cmd redis commands
+     * @param prefix key 的前缀（包括 namespace 和 region）
+     * @param page 每一页 SCAN 到的 key
+     */
+    private void scan(JedisBinaryCommands cmd, String prefix, Consumer<List<byte[]>> page) {
         ScanParams scanParams = new ScanParams();
-        scanParams.match(this.region + ":*");
+        scanParams.match(prefix + "*");
         scanParams.count(scanCount); // 这个不是返回结果的数量，应该是每次scan的数量
-        ScanResult<byte[]> scan = ((KeyBinaryCommands) cmd).scan(cursor.getBytes(StandardCharsets.UTF_8), scanParams);
-        while (null != scan.getCursor()) {
-            keys.addAll(convertByteListToStringList(scan.getResult())); // 这一次scan match到的结果
-            if (!StringUtils.equals(cursor, scan.getCursor())) { // 不断拿着新的cursor scan，最终会拿到所有匹配的值
-                scan = ((KeyBinaryCommands) cmd).scan(scan.getCursor().getBytes(StandardCharsets.UTF_8), scanParams);
-                continue;
-            } else {
-                break;
-            }
-        }
-        return keys;
+        byte[] cursor = ScanParams.SCAN_POINTER_START_BINARY;
+        do {
+            ScanResult<byte[]> scan = ((KeyBinaryCommands) cmd).scan(cursor, scanParams);
+            if (!scan.getResult().isEmpty())
+                page.accept(scan.getResult());
+            cursor = scan.getCursorAsBytes();
+        } while (!Arrays.equals(cursor, ScanParams.SCAN_POINTER_START_BINARY));
     }
 
-    public static List<String> convertByteListToStringList(List<byte[]> byteList) {
-        List<String> stringList = new ArrayList<>();
-        for (byte[] bytes : byteList) {
-            String encodedString = new String(bytes, StandardCharsets.UTF_8);
-            stringList.add(encodedString);
+    /**
+     * 遍历旧格式 namespace:region:key 的数据。旧格式的 key 不带 hash tag，集群模式下 JedisCluster 拒绝这样的 MATCH，
+     * 因此在每个主节点上分别 SCAN（得到的 key 仍然通过 JedisCluster 按 slot 路由删除）
+     */
+    private void scanLegacy(JedisBinaryCommands cmd, Consumer<List<byte[]>> page) {
+        List<String> masters = client.masters();
+        if (masters.isEmpty()) {
+            scan(cmd, legacyRegion + ":", page);
+            return;
+        }
+        for (String node : masters) {
+            client.executeOn(node, nodeCmd -> {
+                scan(nodeCmd, legacyRegion + ":", page);
+                return null;
+            });
         }
-        return stringList;
     }
 
     @Override
     public void evict(String...keys) {
-        try {
-            JedisBinaryCommands cmd = client.get();
+        client.execute(cmd -> {
             if (cmd instanceof KeyBinaryCommands) {
-                byte[][] bytes = Arrays.stream(keys).map(k -> _key(k)).toArray(byte[][]::new);
+                KeyEncoder encoder = encoder();
+                byte[][] bytes = Arrays.stream(keys).map(k -> encoder.encode(k)).toArray(byte[][]::new);
                 ((KeyBinaryCommands)cmd).del(bytes);
+                if (legacyRegion != null)
+                    ((KeyBinaryCommands)cmd).del(Arrays.stream(keys).map(k -> _legacyKey(k)).toArray(byte[][]::new));
             }
             else {
-                for (String key : keys)
+                for (String key : keys) {
                     cmd.del(_key(key));
+                    if (legacyRegion != null)
+                        cmd.del(_legacyKey(key));
+                }
             }
-            for (String key : keys)
-                cmd.del(_key(key));
-        } finally {
-            client.release();
-        }
+            return null;
+        });
     }
 
     /**
-     * 已使用scan命令替换keys命令操作
+     * 按 SCAN 分页删除，每一页的 key 按 batchSize 分组后通过 pipeline 发送 UNLINK，
+     * 内存只占用一页 key，Redis 在后台线程中释放数据，不会因为一次删除大量 key 而阻塞
      */
     @Override
     public void clear() {
-        try {
-            JedisBinaryCommands cmd = client.get();
-            if (cmd instanceof KeyBinaryCommands) {
-                Collection<String> keysCollection = keys(cmd);
-                String[] keys = keysCollection.stream().toArray(String[]::new);
-                if (keys != null && keys.length > 0)
-                    ((KeyBinaryCommands) cmd).del(convertStringArrayToByteArrayArray(keys));
-            }
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
-
+        clear(deleted -> {});
+    }
 
+    /**
+     * generation 模式下只递增 generation，旧数据由后台任务删除或者等待过期，返回 -1
+     */
+    @Override
+    public long clear(LongConsumer progress) {
+        if (generationKey != null) {
+            long next = client.execute(cmd -> cmd.incr(generationKey));
+            generation.set(new Generation(region, next));
+            if (reaper != null)
+                reap(next - 1);
+            return -1;
+        }
+        return client.execute(cmd -> {
+            if (!(cmd instanceof KeyBinaryCommands))
+                throw new CacheException("clear() not implemented in Redis Generic Mode");
+            long[] deleted = {0};
+            Consumer<List<byte[]>> unlink = page -> {
+                deleted[0] += unlink(page);
+                progress.accept(deleted[0]);
+            };
+            scan(cmd, this.region + ":", unlink);
+            if (legacyRegion != null)
+                scanLegacy(cmd, unlink);
+            return deleted[0];
+        });
+    }
 
+    /**
+     * 在后台删除指定 generation 的数据
+     */
+    private void reap(long old) {
+        String prefix = region + ":" + old + ":";
+        try {
+            reaper.execute(() -> {
+                try {
+                    long[] deleted = {0};
+                    client.execute(cmd -> {
+                        scan(cmd, prefix, page -> deleted[0] += unlink(page));
+                        return null;
+                    });
+                    log.debug("Reaped {} keys of {}*", deleted[0], prefix);
+                } catch (RuntimeException e) {
+                    log.warn("Failed to reap keys of {}*", prefix, e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.warn("Reaper for {}* rejected, old keys will be left to expire", prefix);
+        }
+    }
 
+    private long unlink(List<byte[]> keys) {
+        List<Response<Long>> responses = new ArrayList<>();
+        client.pipelined(pipeline -> {
+            for (int from = 0; from < keys.size(); from += batchSize)
+                responses.add(pipeline.unlink(keys.subList(from, Math.min(from + batchSize, keys.size())).toArray(new byte[0][])));
+        });
+        long deleted = 0;
+        for (Response<Long> response : responses)
+            deleted += response.get();
+        return deleted;
+    }
 
+    /**
+     * 区域当前的 generation 以及对应的 key 前缀
+     */
+    private static class Generation {
 
-            else
-                throw new CacheException("clear() not implemented in Redis Generic Mode");
-        } finally {
-            client.release();
-        }
-    }
+        private final String prefix;
+        private final KeyEncoder encoder;
+        private final long loadedAt = System.currentTimeMillis();
 
-    public static byte[][] convertStringArrayToByteArrayArray(String[] stringArray) {
-        byte[][] byteArrayArray = new byte[stringArray.length][];
-        try {
-            for (int i = 0; i < stringArray.length; i++) {
-                byteArrayArray[i] = stringArray[i].getBytes(StandardCharsets.UTF_8);
-            }
-        } catch (Exception e) {
-            // Handle the exception
-            e.printStackTrace();
+        Generation(String region, long value) {
+            this.prefix = region + ":" + value + ":";
+            this.encoder = new KeyEncoder(prefix);
         }
-        return byteArrayArray;
     }
 
-}
\ No newline at end of file
+}
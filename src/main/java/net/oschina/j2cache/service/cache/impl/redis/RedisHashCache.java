@@ -1,8 +1,14 @@
 package net.oschina.j2cache.service.cache.impl.redis;
 
-import net.oschina.j2cache.service.cache.Level2Cache;
+import net.oschina.j2cache.service.cache.ExecutorAsyncLevel2Cache;
+import net.oschina.j2cache.service.cache.KeyPageIterator;
+import net.oschina.j2cache.util.KeyEncoder;
+import redis.clients.jedis.params.ScanParams;
+import redis.clients.jedis.resps.ScanResult;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 
@@ -16,25 +22,33 @@ import java.util.stream.Collectors;
  * @version 1.0
  * @date 2023/10/23 1:40
  */
-public class RedisHashCache implements Level2Cache {
+public class RedisHashCache implements ExecutorAsyncLevel2Cache {
 
     private String namespace;
     private byte[] regionBytes;
     private RedisClient client;
+    private Executor asyncExecutor;
 
     /**
      * 缓存构造
      * @param namespace 命名空间，用于在多个实例中避免 key 的重叠
      * @param region 缓存区域的名称
      * @param client 缓存客户端接口
+     * @param asyncExecutor 执行异步操作的线程池
      */
-    public RedisHashCache(String namespace, String region, RedisClient client) {
+    public RedisHashCache(String namespace, String region, RedisClient client, Executor asyncExecutor) {
         if (region == null || region.trim().isEmpty())
             region = "_"; // 缺省region
 
         this.client = client;
         this.namespace = namespace;
-        this.regionBytes = getRegionName(region).getBytes();
+        this.regionBytes = KeyEncoder.utf8(getRegionName(region));
+        this.asyncExecutor = asyncExecutor;
+    }
+
+    @Override
+    public Executor asyncExecutor() {
+        return asyncExecutor;
     }
 
     /**
@@ -52,80 +66,67 @@ public class RedisHashCache implements Level2Cache {
 
     @Override
     public byte[] getBytes(String key) {
-        try {
-            return client.get().hget(regionBytes, key.getBytes());
-        } finally {
-            client.release();
-        }
+        return client.execute(cmd -> cmd.hget(regionBytes, KeyEncoder.utf8(key)));
     }
 
     @Override
     public List<byte[]> getBytes(Collection<String> keys) {
-        try {
-            byte[][] bytes = keys.stream().map(k -> k.getBytes()).toArray(byte[][]::new);
-            return client.get().hmget(regionBytes, bytes);
-        } finally {
-            client.release();
-        }
+        byte[][] bytes = keys.stream().map(k -> KeyEncoder.utf8(k)).toArray(byte[][]::new);
+        return client.execute(cmd -> cmd.hmget(regionBytes, bytes));
     }
 
     @Override
     public void setBytes(String key, byte[] bytes) {
-        try {
-            client.get().hset(regionBytes, key.getBytes(), bytes);
-        } finally {
-            client.release();
-        }
+        client.execute(cmd -> cmd.hset(regionBytes, KeyEncoder.utf8(key), bytes));
     }
 
     @Override
     public void setBytes(Map<String,byte[]> bytes) {
-        try {
-            Map<byte[], byte[]> data = new HashMap<>();
-            bytes.forEach((k,v) -> data.put(k.getBytes(), v));
-            client.get().hmset(regionBytes, data);
-        } finally {
-            client.release();
-        }
+        Map<byte[], byte[]> data = new HashMap<>();
+        bytes.forEach((k,v) -> data.put(KeyEncoder.utf8(k), v));
+        client.execute(cmd -> cmd.hmset(regionBytes, data));
     }
 
     @Override
     public boolean exists(String key) {
-        try {
-            return client.get().hexists(regionBytes, key.getBytes());
-        } finally {
-            client.release();
-        }
+        return client.execute(cmd -> cmd.hexists(regionBytes, KeyEncoder.utf8(key)));
     }
 
     @Override
     public void evict(String...keys) {
         if (keys == null || keys.length == 0)
             return;
-        try {
-            byte[][] bytes = Arrays.stream(keys).map(k -> k.getBytes()).toArray(byte[][]::new);
-            client.get().hdel(regionBytes, bytes);
-        } finally {
-            client.release();
-        }
+        byte[][] bytes = Arrays.stream(keys).map(k -> KeyEncoder.utf8(k)).toArray(byte[][]::new);
+        client.execute(cmd -> cmd.hdel(regionBytes, bytes));
     }
 
     @Override
     public Collection<String> keys() {
-        try {
-            return client.get().hkeys(regionBytes).stream().map(bs -> new String(bs)).collect(Collectors.toList());
-        } finally {
-            client.release();
-        }
+        return client.execute(cmd -> cmd.hkeys(regionBytes).stream().map(bs -> new String(bs, StandardCharsets.UTF_8)).collect(Collectors.toList()));
+    }
+
+    /**
+     * 以 HSCAN 游标分页遍历，避免 HKEYS 一次返回整个 hash 的所有字段。
+     * 注意 HSCAN 每一页会同时返回字段的值，传输量与 HGETALL 相同，只是分摊到多次调用中；
+     * Redis 7.4 的 NOVALUES 选项可以只返回字段，但当前依赖的 Jedis 5.0 还不支持，值较大的区域建议使用 generic 存储（SCAN 只返回 key）
+     */
+    @Override
+    public Iterator<String> scanKeys(int pageSize) {
+        ScanParams scanParams = new ScanParams().count(pageSize);
+        return new KeyPageIterator<byte[]>(ScanParams.SCAN_POINTER_START_BINARY) {
+            @Override
+            protected byte[] fetch(byte[] cursor, List<String> keys) {
+                ScanResult<Map.Entry<byte[], byte[]>> scan = client.execute(cmd -> cmd.hscan(regionBytes, cursor, scanParams));
+                scan.getResult().forEach(e -> keys.add(new String(e.getKey(), StandardCharsets.UTF_8)));
+                byte[] next = scan.getCursorAsBytes();
+                return Arrays.equals(next, ScanParams.SCAN_POINTER_START_BINARY) ? null : next;
+            }
+        };
     }
 
     @Override
     public void clear() {
-        try {
-            client.get().del(regionBytes);
-        } finally {
-            client.release();
-        }
+        client.execute(cmd -> cmd.del(regionBytes));
     }
 
 }
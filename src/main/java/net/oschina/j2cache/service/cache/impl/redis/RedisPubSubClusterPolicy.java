@@ -3,6 +3,8 @@ package net.oschina.j2cache.service.cache.impl.redis;
 import net.oschina.j2cache.service.cache.impl.CacheProviderHolder;
 import net.oschina.j2cache.model.Command;
 import net.oschina.j2cache.service.cluster.ClusterPolicy;
+import net.oschina.j2cache.service.cluster.CommandCodec;
+import net.oschina.j2cache.service.metrics.CacheMetrics;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,10 +12,16 @@ import redis.clients.jedis.*;
 import redis.clients.jedis.exceptions.JedisConnectionException;
 import redis.clients.jedis.util.Pool;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 /**
  * ClassName: RedisPubSubClusterPolicy
@@ -21,12 +29,17 @@ import java.util.Set;
  * Description:
  * 使用 Redis 的订阅和发布进行集群中的节点通知
  * 该策略器使用 j2cache.properties 中的 redis 配置自行保持两个到 redis 的连接用于发布和订阅消息（并在失败时自动重连）
+ * 消息以字节形式订阅，由 CommandCodec 识别 JSON 与二进制格式
+ * 配置 publish.async = true 时消息先放入有界队列，由单独的发送线程通过 pipeline 批量发送，
+ * 调用者不再等待 PUBLISH 的响应；队列满时按 publish.overflow 阻塞（block）或丢弃（drop），
+ * 阻塞时被中断的消息同样丢弃并计数。
+ * 只有一个发送线程，消息按照入队的顺序发送，同一个 region 的命令顺序不会改变
  *
  * @author JX
  * @version 1.0
  * @date 2023/10/23 1:41
  */
-public class RedisPubSubClusterPolicy extends JedisPubSub implements ClusterPolicy {
+public class RedisPubSubClusterPolicy extends BinaryJedisPubSub implements ClusterPolicy {
 
     private final static Logger log = LoggerFactory.getLogger(RedisPubSubClusterPolicy.class);
 
@@ -34,15 +47,31 @@ public class RedisPubSubClusterPolicy extends JedisPubSub implements ClusterPoli
     private static int CONNECT_TIMEOUT = 5000;    //Redis连接超时时间
     private static int SO_TIMEOUT = 5000;
     private static int MAX_ATTEMPTS = 3;
+    private static long CLOSE_TIMEOUT = 5000;   //关闭时等待队列中的消息发送完成的时间
 
     private Pool<Jedis> client;
     private JedisCluster cluster;
     private String channel;
+    private byte[] channelBytes;
+    private CommandCodec codec;
     private CacheProviderHolder holder;
     private boolean clusterMode = false;
 
+    private BlockingQueue<byte[]> publishQueue;     //为 null 表示同步发送
+    private int publishBatchSize;
+    private boolean dropOnOverflow;
+    private Thread publishThread;
+    private volatile boolean closing;
+
     public RedisPubSubClusterPolicy(String channel, Properties props){
         this.channel = channel;
+        this.channelBytes = channel.getBytes(StandardCharsets.UTF_8);
+        this.codec = new CommandCodec(props, LOCAL_COMMAND_ID);
+        if (Boolean.parseBoolean(props.getProperty("publish.async", "false"))) {
+            this.publishQueue = new ArrayBlockingQueue<>(Integer.parseInt(props.getProperty("publish.queueSize", "10000")));
+            this.publishBatchSize = Integer.parseInt(props.getProperty("publish.batchSize", "256"));
+            this.dropOnOverflow = "drop".equalsIgnoreCase(props.getProperty("publish.overflow", "block"));
+        }
         int timeout = Integer.parseInt((String)props.getOrDefault("timeout", "2000"));
         String password = props.getProperty("password");
         if(password != null && password.trim().length() == 0)
@@ -93,6 +122,8 @@ public class RedisPubSubClusterPolicy extends JedisPubSub implements ClusterPoli
             poolConfig1.setLifo(poolConfig.getLifo());
             this.cluster = new JedisCluster(nodeSet, CONNECT_TIMEOUT, SO_TIMEOUT, MAX_ATTEMPTS, password, poolConfig1);
             this.clusterMode = true;
+            if (codec.needsMembers())
+                log.warn("PUBSUB NUMSUB only counts subscribers of one node in redis cluster, broadcast stays json until format.members is set");
         }
         else {
             node = node.split(",")[0]; //取第一台主机
@@ -118,12 +149,18 @@ public class RedisPubSubClusterPolicy extends JedisPubSub implements ClusterPoli
         holder.getLevel1Cache(region).evict(keys);
     }
 
+    @Override
+    public void evict(String region, long stamp, String... keys) {
+        holder.getLevel1Cache(region).evict(stamp, keys);
+    }
+
     /**
      * 清除本地整个缓存区域
      * @param region 区域名称
      */
     @Override
     public void clear(String region) {
+        holder.getLevel2Cache(region).onRemoteClear();
         holder.getLevel1Cache(region).clear();
     }
 
@@ -135,14 +172,20 @@ public class RedisPubSubClusterPolicy extends JedisPubSub implements ClusterPoli
         long ct = System.currentTimeMillis();
         this.holder = holder;
 
-        this.publish(Command.join());
+        if (publishQueue != null) {
+            BlockingQueue<byte[]> queue = this.publishQueue;
+            CacheMetrics.setBroadcastQueueDepth(queue::size);
+            this.publishThread = new Thread(this::sendQueued, "RedisPublishThread");
+            this.publishThread.setDaemon(true);
+            this.publishThread.start();
+        }
 
         Thread subscribeThread = new Thread(()-> {
             if (clusterMode) {
                 // 如果出现集群节点宕机，需要重连
                 while (cluster != null) {
                     try {
-                        this.cluster.subscribe(this, channel);
+                        this.cluster.subscribe(this, channelBytes);
                         break;
                     } catch (Exception e) {
                         log.error("failed connect redis cluster, reconnect it.", e);
@@ -160,7 +203,7 @@ public class RedisPubSubClusterPolicy extends JedisPubSub implements ClusterPoli
                 //当 Redis 重启会导致订阅线程断开连接，需要进行重连
                 while(!client.isClosed()) {
                     try (Jedis jedis = client.getResource()){
-                        jedis.subscribe(this, channel);
+                        jedis.subscribe(this, channelBytes);
                         log.info("Disconnect to redis channel: {}", channel);
                         break;
                     } catch (JedisConnectionException e) {
@@ -189,6 +232,7 @@ public class RedisPubSubClusterPolicy extends JedisPubSub implements ClusterPoli
     public void disconnect() {
         try {
             this.publish(Command.quit());
+            this.stopPublisher();
             if(this.isSubscribed())
                 this.unsubscribe();
         } finally {
@@ -201,26 +245,140 @@ public class RedisPubSubClusterPolicy extends JedisPubSub implements ClusterPoli
     @Override
     public void publish(Command cmd) {
         cmd.setSrc(LOCAL_COMMAND_ID);
+        byte[] message = codec.encode(cmd);
+        if (publishQueue == null || closing) {
+            publish(message);
+            return;
+        }
+        if (dropOnOverflow) {
+            if (!publishQueue.offer(message)) {
+                CacheMetrics.recordBroadcastDropped();
+                log.debug("Publish queue is full, drop {}", cmd);
+            }
+            return;
+        }
+        try {
+            publishQueue.put(message);
+        } catch (InterruptedException e) {
+            //保留中断状态；不能绕过队列直接发送，否则会超过队列中更早的消息
+            Thread.currentThread().interrupt();
+            if (!publishQueue.offer(message)) {
+                CacheMetrics.recordBroadcastDropped();
+                log.warn("Interrupted while publish queue is full, drop {}", cmd);
+            }
+        }
+    }
+
+    private void publish(byte[] message) {
         if (this.clusterMode) {
-            this.cluster.publish(channel, cmd.json());
+            this.cluster.publish(channelBytes, message);
         } else {
             try (Jedis jedis = client.getResource()) {
-                jedis.publish(channel, cmd.json());
+                jedis.publish(channelBytes, message);
             }
         }
     }
 
+    /**
+     * 发送线程：每次取出队列中已有的全部消息（最多 publishBatchSize 条），通过一次 pipeline 发送
+     */
+    private void sendQueued() {
+        List<byte[]> batch = new ArrayList<>(publishBatchSize);
+        while (!closing || !publishQueue.isEmpty()) {
+            try {
+                byte[] first = publishQueue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null)
+                    continue;
+                batch.add(first);
+                publishQueue.drainTo(batch, publishBatchSize - 1);
+                publish(batch);
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                log.error("Failed to publish {} messages to redis channel:{}", batch.size(), channel, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void publish(List<byte[]> messages) {
+        if (messages.size() == 1 || this.clusterMode) {
+            //PUBLISH 没有 key，不能通过 ClusterPipeline 按 slot 路由，集群模式下逐条发送
+            for (byte[] message : messages)
+                publish(message);
+            return;
+        }
+        try (Jedis jedis = client.getResource()) {
+            Pipeline pipeline = jedis.pipelined();
+            for (byte[] message : messages)
+                pipeline.publish(channelBytes, message);
+            pipeline.sync();
+        }
+    }
+
+    /**
+     * 停止接收新的异步消息，等待发送线程把队列中剩余的消息发送完成
+     */
+    private void stopPublisher() {
+        if (publishThread == null)
+            return;
+        closing = true;
+        try {
+            publishThread.join(CLOSE_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (publishThread.isAlive()) {
+            publishThread.interrupt();
+            log.warn("Discard {} unsent messages to redis channel:{}", publishQueue.size(), channel);
+        }
+        CacheMetrics.setBroadcastQueueDepth(null);
+    }
+
+    /**
+     * 订阅成功（包括断线重连后重新订阅）后才宣告加入，保证能收到其他节点的 JOIN 应答
+     * @param channel 频道名称
+     * @param subscribedChannels 订阅的频道数
+     */
+    @Override
+    public void onSubscribe(byte[] channel, int subscribedChannels) {
+        refreshMembers();
+        this.publish(Command.join());
+    }
+
     /**
      * 当接收到订阅频道获得的消息时触发此方法
      * @param channel 频道名称
      * @param message 消息体
      */
     @Override
-    public void onMessage(String channel, String message) {
-        Command cmd = Command.parse(message);
+    public void onMessage(byte[] channel, byte[] message) {
+        Command cmd = codec.decode(message);
+        if (cmd != null && !isLocalCommand(cmd) && isMembershipChange(cmd))
+            refreshMembers();
         handleCommand(cmd);
     }
 
+    private static boolean isMembershipChange(Command cmd) {
+        return cmd.getOperator() == Command.OPT_QUIT
+                || (cmd.getOperator() == Command.OPT_JOIN && !Command.JOIN_REPLY.equals(cmd.getRegion()));
+    }
+
+    /**
+     * 通过 PUBSUB NUMSUB 获取订阅频道的节点数，集群模式下只能统计一个节点上的订阅者，不使用
+     */
+    private void refreshMembers() {
+        if (clusterMode || !codec.needsMembers())
+            return;
+        try (Jedis jedis = client.getResource()) {
+            Long count = jedis.pubsubNumSub(channel).get(channel);
+            codec.setMembers((count == null) ? -1 : count.intValue());
+        } catch (Exception e) {
+            log.warn("Failed to count subscribers of redis channel:{}", channel, e);
+        }
+    }
+
     private void close() {
         try {
             if (this.client != null) {
@@ -2,6 +2,7 @@ package net.oschina.j2cache.service.cluster;
 
 import net.oschina.j2cache.service.cache.impl.CacheProviderHolder;
 import net.oschina.j2cache.model.Command;
+import net.oschina.j2cache.service.metrics.CacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,6 +21,11 @@ public interface ClusterPolicy {
 
     Logger log = LoggerFactory.getLogger(ClusterPolicy.class);
 
+    /**
+     * 节点之间允许的时钟误差（毫秒），一级缓存数据的写入时间晚于 evict 命令的时间戳加上该误差时才会保留
+     */
+    long EVICT_CLOCK_SKEW = Long.getLong("j2cache.evict.clockSkew", 100L);
+
     /**
      * 连接到集群
      * @param props j2cache 配置信息
@@ -39,7 +45,11 @@ public interface ClusterPolicy {
      * @param keys   缓存键值
      */
     default void sendEvictCmd(String region, String...keys) {
-        publish(new Command(Command.OPT_EVICT_KEY, region, keys));
+        //在二级缓存写入完成之后调用，时间戳之后读取到一级缓存的数据都是新的值
+        Command cmd = new Command(Command.OPT_EVICT_KEY, region, keys);
+        cmd.setStamp(System.currentTimeMillis());
+        publish(cmd);
+        CacheMetrics.recordPublish();
     }
 
     /**
@@ -48,6 +58,7 @@ public interface ClusterPolicy {
      */
     default void sendClearCmd(String region) {
         publish(new Command(Command.OPT_CLEAR_KEY, region));
+        CacheMetrics.recordPublish();
     }
 
     /**
@@ -62,6 +73,16 @@ public interface ClusterPolicy {
      */
     void evict(String region, String... keys);
 
+    /**
+     * 删除本地在 stamp 之前写入的缓存条目
+     * @param region 区域名称
+     * @param stamp  时间戳（毫秒），小于等于 0 时全部删除
+     * @param keys   缓存键值
+     */
+    default void evict(String region, long stamp, String... keys) {
+        evict(region, keys);
+    }
+
     /**
      * 清除本地整个缓存区域
      * @param region 区域名称
@@ -84,12 +105,19 @@ public interface ClusterPolicy {
             if (cmd == null || isLocalCommand(cmd))
                 return;
 
+            CacheMetrics.recordReceive();
+
             switch (cmd.getOperator()) {
                 case Command.OPT_JOIN:
+                    if (Command.JOIN_REPLY.equals(cmd.getRegion()))
+                        break;
                     log.info("Node-{} joined !", cmd.getSrc());
+                    //新版本节点需要知道集群中已有节点的协议版本才能切换到二进制格式，旧版本节点不需要应答
+                    if (cmd.getVersion() >= Command.PROTOCOL_VERSION)
+                        this.publish(Command.joinReply());
                     break;
                 case Command.OPT_EVICT_KEY:
-                    this.evict(cmd.getRegion(), cmd.getKeys());
+                    this.evict(cmd.getRegion(), (cmd.getStamp() > 0) ? cmd.getStamp() + EVICT_CLOCK_SKEW : 0, cmd.getKeys());
                     log.debug("Received cache evict message, region=" + cmd.getRegion() + ",key=" + String.join(",", cmd.getKeys()));
                     break;
                 case Command.OPT_CLEAR_KEY:
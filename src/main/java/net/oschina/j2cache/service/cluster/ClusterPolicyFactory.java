@@ -3,6 +3,7 @@ package net.oschina.j2cache.service.cluster;
 import net.oschina.j2cache.exception.CacheException;
 import net.oschina.j2cache.service.cache.impl.CacheProviderHolder;
 import net.oschina.j2cache.service.cache.impl.lettuce.LettuceCacheProvider;
+import net.oschina.j2cache.service.cache.impl.lettuce.LettuceTrackingClusterPolicy;
 import net.oschina.j2cache.service.cache.impl.redis.RedisPubSubClusterPolicy;
 import net.oschina.j2cache.service.cluster.impl.JGroupsClusterPolicy;
 import net.oschina.j2cache.service.cluster.impl.NoneClusterPolicy;
@@ -22,6 +23,8 @@ import java.util.Properties;
  */
 public class ClusterPolicyFactory {
 
+    private final static int DEFAULT_COALESCE_MAX_KEYS = 256;
+
     private ClusterPolicyFactory(){}
 
     /**
@@ -44,12 +47,30 @@ public class ClusterPolicyFactory {
             policy = ClusterPolicyFactory.rocketmq(props, holder);
         else if ("lettuce".equalsIgnoreCase(broadcast))
             policy = ClusterPolicyFactory.lettuce(props, holder);
+        else if ("tracking".equalsIgnoreCase(broadcast))
+            policy = ClusterPolicyFactory.tracking(props, holder);
         else if ("none".equalsIgnoreCase(broadcast))
             policy = new NoneClusterPolicy();
         else
             policy = ClusterPolicyFactory.custom(broadcast, props, holder);
 
-        return policy;
+        return coalesce(policy, props);
+    }
+
+    /**
+     * 配置了 coalesce.window（毫秒）时，使用 CoalescingClusterPolicy 合并同一个 region 的 evict 命令
+     * @param policy 实际发送消息的集群策略
+     * @param props  broadcast configuations
+     * @return ClusterPolicy instance
+     */
+    private final static ClusterPolicy coalesce(ClusterPolicy policy, Properties props) {
+        if (props == null || policy instanceof NoneClusterPolicy || policy instanceof LettuceTrackingClusterPolicy)
+            return policy;
+        long window = Long.parseLong(props.getProperty("coalesce.window", "0").trim());
+        if (window <= 0)
+            return policy;
+        int maxKeys = Integer.parseInt(props.getProperty("coalesce.maxKeys", String.valueOf(DEFAULT_COALESCE_MAX_KEYS)).trim());
+        return new CoalescingClusterPolicy(policy, window, maxKeys);
     }
 
     /**
@@ -99,6 +120,17 @@ public class ClusterPolicyFactory {
         return policy;
     }
 
+    /**
+     * 使用 Redis 客户端缓存的失效通知，要求二级缓存为 lettuce
+     * @param props 框架配置
+     * @return 返回 tracking 集群策略的实例
+     */
+    private final static ClusterPolicy tracking(Properties props, CacheProviderHolder holder) {
+        LettuceTrackingClusterPolicy policy = new LettuceTrackingClusterPolicy();
+        policy.connect(props, holder);
+        return policy;
+    }
+
     /**
      * 加载自定义的集群通知策略
      * @param classname
@@ -0,0 +1,175 @@
+package net.oschina.j2cache.service.cluster;
+
+import net.oschina.j2cache.model.Command;
+import net.oschina.j2cache.service.cache.impl.CacheProviderHolder;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ClassName: CoalescingClusterPolicy
+ * Package: net.oschina.j2cache.service.cluster
+ * Description:
+ * <p>合并广播的集群策略，包装任意一个 ClusterPolicy</p>
+ * <p>同一个 region 的 evict 命令先缓存一个时间窗口（或者累积到 maxKeys 个 key），
+ * 然后合并成一条多 key 的命令发送，批量写入时不再为每个 key 发送一条消息；
+ * clear 命令会覆盖该 region 尚未发送的 evict，因此直接丢弃它们并立即发送 clear</p>
+ * <p>关闭时先发送所有尚未发送的命令，再断开被包装的策略</p>
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 20:05
+ */
+public class CoalescingClusterPolicy implements ClusterPolicy {
+
+    private final ClusterPolicy delegate;
+    private final long windowMillis;
+    private final int maxKeys;
+    private final ConcurrentHashMap<String, Batch> pending = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+    private volatile boolean closed;
+
+    /**
+     * @param delegate 实际发送消息的集群策略
+     * @param windowMillis 合并的时间窗口（毫秒）
+     * @param maxKeys 单个 region 累积的 key 数量达到该值时立即发送
+     */
+    public CoalescingClusterPolicy(ClusterPolicy delegate, long windowMillis, int maxKeys) {
+        if (windowMillis <= 0 || maxKeys <= 0)
+            throw new IllegalArgumentException("windowMillis and maxKeys must be positive");
+        this.delegate = delegate;
+        this.windowMillis = windowMillis;
+        this.maxKeys = maxKeys;
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "j2cache-broadcast-coalescer");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    public ClusterPolicy getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public void connect(Properties props, CacheProviderHolder holder) {
+        delegate.connect(props, holder);
+    }
+
+    @Override
+    public void publish(Command cmd) {
+        delegate.publish(cmd);
+    }
+
+    @Override
+    public void sendEvictCmd(String region, String... keys) {
+        if (closed || keys == null || keys.length == 0) {
+            delegate.sendEvictCmd(region, keys);
+            return;
+        }
+
+        Batch[] full = new Batch[1];
+        pending.compute(region, (r, batch) -> {
+            if (batch == null) {
+                batch = new Batch();
+                schedule(region, batch);
+            }
+            for (String key : keys)
+                batch.keys.add(key);
+            if (batch.keys.size() >= maxKeys) {
+                full[0] = batch;
+                return null;
+            }
+            return batch;
+        });
+        if (full[0] != null)
+            send(region, full[0]);
+    }
+
+    @Override
+    public void sendClearCmd(String region) {
+        pending.remove(region);
+        delegate.sendClearCmd(region);
+    }
+
+    @Override
+    public void disconnect() {
+        closed = true;
+        flusher.shutdownNow();
+        flush();
+        delegate.disconnect();
+    }
+
+    /**
+     * 立即发送所有尚未发送的 evict 命令
+     */
+    public void flush() {
+        List<Map.Entry<String, Batch>> batches = new ArrayList<>(pending.entrySet());
+        for (Map.Entry<String, Batch> entry : batches) {
+            if (pending.remove(entry.getKey(), entry.getValue()))
+                send(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public void evict(String region, String... keys) {
+        delegate.evict(region, keys);
+    }
+
+    @Override
+    public void evict(String region, long stamp, String... keys) {
+        delegate.evict(region, stamp, keys);
+    }
+
+    @Override
+    public void clear(String region) {
+        delegate.clear(region);
+    }
+
+    @Override
+    public boolean isLocalCommand(Command cmd) {
+        return delegate.isLocalCommand(cmd);
+    }
+
+    @Override
+    public void handleCommand(Command cmd) {
+        delegate.handleCommand(cmd);
+    }
+
+    private void schedule(String region, Batch batch) {
+        try {
+            flusher.schedule(() -> {
+                //已经因为 key 数量达到上限被发送，或者被 clear 覆盖时 remove 返回 false
+                if (pending.remove(region, batch))
+                    send(region, batch);
+            }, windowMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            //正在关闭，由 disconnect 中的 flush 发送
+        }
+    }
+
+    private void send(String region, Batch batch) {
+        try {
+            delegate.sendEvictCmd(region, batch.keys.toArray(new String[0]));
+        } catch (Exception e) {
+            log.error("Failed to send coalesced evict command, region={}, keys={}", region, batch.keys.size(), e);
+        }
+    }
+
+    /**
+     * 同一个 region 等待发送的 key，只在 ConcurrentHashMap.compute 中修改
+     */
+    private static class Batch {
+        private final Set<String> keys = new LinkedHashSet<>();
+    }
+
+}
@@ -0,0 +1,338 @@
+package net.oschina.j2cache.service.cluster;
+
+import net.oschina.j2cache.model.Command;
+import net.oschina.j2cache.util.KeyEncoder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * ClassName: CommandCodec
+ * Package: net.oschina.j2cache.service.cluster
+ * Description:
+ * <p>集群广播命令的编解码，支持 JSON 与紧凑的二进制格式（broadcast 配置中的 format=json|binary）</p>
+ * <p>二进制格式：magic(0xFE) | 格式版本 | 操作码 | src(int) | stamp(varint，格式版本 2 开始) | region | key 数量 | key ...，
+ * 字符串为 varint 长度 + UTF-8 字节，长度与数量均加 1 存储，0 表示 null</p>
+ * <p>解码时根据首字节自动识别格式（JSON 总是以 '{' 开头），因此新版本节点可以同时接收两种格式。
+ * 配置为 binary 的节点默认仍以 JSON 发送，直到集群中的每一个其他节点都宣告过自己支持二进制格式：
+ * 新版本节点加入时发送带 version 的 JOIN，其他新版本节点收到后回复带 version 的 JOIN 应答（见 ClusterPolicy.handleCommand），
+ * 旧版本节点不会回复，因此已经在运行、从不发送消息的旧节点也不会收到无法解析的二进制消息。
+ * 集群的节点数由通道报告（setMembers，例如 JGroups 的 view、Redis 的 PUBSUB NUMSUB），
+ * 通道无法提供时通过 format.members 配置（包含自身），两者都没有时始终使用 JSON</p>
+ * <p>此外收到旧版本节点（JSON 中没有 version 字段）的消息时退回 JSON 格式发送，例如旧节点在之后加入；
+ * 退回是有时限的，超过 format.fallback 毫秒（默认 10 分钟）没有再收到旧版本节点的消息后恢复二进制格式，旧节点全部升级后不需要重启</p>
+ * <p>只能传输字符串的通道使用 encodeText/decodeText，二进制数据按 ISO-8859-1 逐字节映射为字符串</p>
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 20:40
+ */
+public class CommandCodec {
+
+    private final static Logger log = LoggerFactory.getLogger(CommandCodec.class);
+
+    public final static String FORMAT_JSON = "json";
+    public final static String FORMAT_BINARY = "binary";
+
+    private final static byte MAGIC = (byte) 0xFE;    //不会出现在 UTF-8 文本中
+    private final static byte BINARY_VERSION = 2;    //1: 没有 stamp
+
+    private final static long DEFAULT_FALLBACK = 10 * 60 * 1000L;
+
+    private final boolean binary;
+    private final long fallback;
+    private final int localSrc;
+    private final int configuredMembers;    //format.members，0 表示由通道报告
+    private volatile int members = -1;      //通道报告的节点数（包含自身），-1 表示未知
+    private final Set<Integer> peers = ConcurrentHashMap.newKeySet();    //宣告过支持二进制格式的其他节点
+    private volatile long jsonUntil;    //在此时间之前以 JSON 格式发送
+
+    /**
+     * @param props broadcast 配置，读取其中的 format、format.fallback 与 format.members
+     * @param localSrc 本节点的命令源标识，自己发出的消息不计入其他节点
+     */
+    public CommandCodec(Properties props, int localSrc) {
+        this.localSrc = localSrc;
+        String format = (props == null) ? FORMAT_JSON : props.getProperty("format", FORMAT_JSON).trim();
+        this.binary = FORMAT_BINARY.equalsIgnoreCase(format);
+        if (!binary && !FORMAT_JSON.equalsIgnoreCase(format))
+            log.warn("Unknown broadcast format [{}], using json", format);
+        String fallback = (props == null) ? null : props.getProperty("format.fallback");
+        this.fallback = (fallback == null || fallback.trim().isEmpty()) ? DEFAULT_FALLBACK : Long.parseLong(fallback.trim());
+        String members = (props == null) ? null : props.getProperty("format.members");
+        this.configuredMembers = (members == null || members.trim().isEmpty()) ? 0 : Integer.parseInt(members.trim());
+    }
+
+    /**
+     * @return 配置为 binary 且没有配置 format.members，需要通道报告节点数，否则始终以 JSON 发送
+     */
+    public boolean needsMembers() {
+        return binary && configuredMembers <= 0;
+    }
+
+    /**
+     * 通道报告当前集群中的节点数（包含自身），配置了 format.members 时以配置为准
+     * @param members 节点数，-1 表示未知
+     */
+    public void setMembers(int members) {
+        this.members = members;
+    }
+
+    /**
+     * @return 当前是否以二进制格式发送：配置为 binary、最近没有旧版本节点，并且其他节点都已宣告支持二进制格式
+     */
+    public boolean isBinary() {
+        if (!binary || System.currentTimeMillis() < jsonUntil)
+            return false;
+        int total = (configuredMembers > 0) ? configuredMembers : members;
+        return total > 0 && peers.size() >= total - 1;
+    }
+
+    /**
+     * 按当前格式编码命令
+     * @param cmd command to send
+     * @return message body
+     */
+    public byte[] encode(Command cmd) {
+        return isBinary() ? toBinary(cmd) : toJson(cmd).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 按当前格式编码为字符串（只能传输字符串的通道使用），旧版本节点收到二进制格式时只会解析失败
+     * @param cmd command to send
+     * @return message body
+     */
+    public String encodeText(Command cmd) {
+        return isBinary() ? new String(toBinary(cmd), StandardCharsets.ISO_8859_1) : toJson(cmd);
+    }
+
+    /**
+     * 解码 encodeText 编码的消息，自动识别 JSON 与二进制格式
+     * @param text message body
+     * @return command, null if the message is malformed
+     */
+    public Command decodeText(String text) {
+        if (text == null || text.isEmpty())
+            return null;
+        if (text.charAt(0) == (MAGIC & 0xff)) {
+            byte[] bytes = text.getBytes(StandardCharsets.ISO_8859_1);
+            return received(fromBinary(bytes, 0, bytes.length));
+        }
+        return fromJson(text);
+    }
+
+    /**
+     * 编码为 JSON（只能传输字符串的通道使用）
+     * @param cmd command to send
+     * @return json
+     */
+    public String toJson(Command cmd) {
+        cmd.setVersion(Command.PROTOCOL_VERSION);
+        return cmd.json();
+    }
+
+    /**
+     * 解码消息，自动识别 JSON 与二进制格式
+     * @param bytes message body
+     * @return command, null if the message is malformed
+     */
+    public Command decode(byte[] bytes) {
+        return decode(bytes, 0, (bytes == null) ? 0 : bytes.length);
+    }
+
+    public Command decode(byte[] bytes, int offset, int length) {
+        if (bytes == null || length == 0)
+            return null;
+        if (bytes[offset] == MAGIC)
+            return received(fromBinary(bytes, offset, length));
+        return fromJson(new String(bytes, offset, length, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码 JSON 格式的消息
+     * @param json message body
+     * @return command, null if the message is malformed
+     */
+    public Command fromJson(String json) {
+        return received(Command.parse(json));
+    }
+
+    /**
+     * 根据收到的命令记录其他节点的协议版本：新版本节点的任何消息都是一次宣告，退出时移除，
+     * 旧版本节点的消息使本节点在 format.fallback 毫秒内以 JSON 发送
+     */
+    private Command received(Command cmd) {
+        if (cmd == null || cmd.getSrc() == localSrc)
+            return cmd;
+        if (cmd.getOperator() == Command.OPT_QUIT)
+            peers.remove(cmd.getSrc());
+        else if (cmd.getVersion() >= Command.PROTOCOL_VERSION)
+            peers.add(cmd.getSrc());
+        else if (binary) {
+            if (isBinary())
+                log.warn("Node-{} does not support binary broadcast format, fall back to json for {} ms", cmd.getSrc(), fallback);
+            jsonUntil = System.currentTimeMillis() + fallback;
+        }
+        return cmd;
+    }
+
+    private static byte[] toBinary(Command cmd) {
+        byte[] region = (cmd.getRegion() == null) ? null : KeyEncoder.utf8(cmd.getRegion());
+        String[] keys = cmd.getKeys();
+        byte[][] encodedKeys = (keys == null) ? null : new byte[keys.length][];
+
+        int size = 7 + varlongSize(cmd.getStamp()) + stringSize(region);
+        if (keys != null) {
+            size += varintSize(keys.length + 1);
+            for (int i = 0; i < keys.length; i++) {
+                encodedKeys[i] = (keys[i] == null) ? null : KeyEncoder.utf8(keys[i]);
+                size += stringSize(encodedKeys[i]);
+            }
+        }
+        else
+            size += 1;
+
+        byte[] bytes = new byte[size];
+        bytes[0] = MAGIC;
+        bytes[1] = BINARY_VERSION;
+        bytes[2] = (byte) cmd.getOperator();
+        int src = cmd.getSrc();
+        bytes[3] = (byte) (src >>> 24);
+        bytes[4] = (byte) (src >>> 16);
+        bytes[5] = (byte) (src >>> 8);
+        bytes[6] = (byte) src;
+        int pos = writeVarlong(bytes, 7, cmd.getStamp());
+        pos = writeString(bytes, pos, region);
+        pos = writeVarint(bytes, pos, (keys == null) ? 0 : keys.length + 1);
+        if (keys != null) {
+            for (byte[] key : encodedKeys)
+                pos = writeString(bytes, pos, key);
+        }
+        return bytes;
+    }
+
+    private static Command fromBinary(byte[] bytes, int offset, int length) {
+        if (length < 9) {
+            log.warn("Failed to parse binary j2cache command, length = {}", length);
+            return null;
+        }
+        try {
+            byte format = bytes[offset + 1];
+            if (format > BINARY_VERSION) {
+                log.warn("Unsupported j2cache command format version: {}", bytes[offset + 1]);
+                return null;
+            }
+            Reader reader = new Reader(bytes, offset + 2, offset + length);
+            Command cmd = new Command();
+            cmd.setOperator(reader.bytes[reader.pos++]);
+            cmd.setSrc(((reader.bytes[reader.pos++] & 0xff) << 24) | ((reader.bytes[reader.pos++] & 0xff) << 16)
+                    | ((reader.bytes[reader.pos++] & 0xff) << 8) | (reader.bytes[reader.pos++] & 0xff));
+            cmd.setVersion(Command.PROTOCOL_VERSION);
+            if (format >= 2)
+                cmd.setStamp(reader.readVarlong());
+            cmd.setRegion(reader.readString());
+            int count = reader.readVarint();
+            if (count > 0) {
+                String[] keys = new String[count - 1];
+                for (int i = 0; i < keys.length; i++)
+                    keys[i] = reader.readString();
+                cmd.setKeys(keys);
+            }
+            return cmd;
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            log.warn("Failed to parse binary j2cache command, length = {}", length, e);
+            return null;
+        }
+    }
+
+    private static int stringSize(byte[] str) {
+        return (str == null) ? 1 : varintSize(str.length + 1) + str.length;
+    }
+
+    private static int varintSize(int value) {
+        return varlongSize(value & 0xffffffffL);
+    }
+
+    private static int varlongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7fL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static int writeString(byte[] bytes, int pos, byte[] str) {
+        if (str == null)
+            return writeVarint(bytes, pos, 0);
+        pos = writeVarint(bytes, pos, str.length + 1);
+        System.arraycopy(str, 0, bytes, pos, str.length);
+        return pos + str.length;
+    }
+
+    private static int writeVarint(byte[] bytes, int pos, int value) {
+        return writeVarlong(bytes, pos, value & 0xffffffffL);
+    }
+
+    private static int writeVarlong(byte[] bytes, int pos, long value) {
+        while ((value & ~0x7fL) != 0) {
+            bytes[pos++] = (byte) ((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        bytes[pos++] = (byte) value;
+        return pos;
+    }
+
+    private static class Reader {
+        private final byte[] bytes;
+        private final int limit;
+        private int pos;
+
+        Reader(byte[] bytes, int pos, int limit) {
+            this.bytes = bytes;
+            this.pos = pos;
+            this.limit = limit;
+        }
+
+        int readVarint() {
+            long value = readVarlong();
+            if ((value & ~0xffffffffL) != 0)
+                throw new IllegalArgumentException("Malformed varint");
+            return (int) value;
+        }
+
+        long readVarlong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = bytes[checked(pos++)];
+                value |= (long) (b & 0x7f) << shift;
+                if (b >= 0)
+                    return value;
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        String readString() {
+            int length = readVarint();
+            if (length == 0)
+                return null;
+            length--;
+            if (length < 0 || pos + length > limit)
+                throw new IllegalArgumentException("Malformed string length: " + length);
+            String str = new String(bytes, pos, length, StandardCharsets.UTF_8);
+            pos += length;
+            return str;
+        }
+
+        private int checked(int index) {
+            if (index >= limit)
+                throw new IndexOutOfBoundsException("Truncated command");
+            return index;
+        }
+    }
+
+}
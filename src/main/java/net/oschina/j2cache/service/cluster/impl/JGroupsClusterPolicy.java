@@ -4,6 +4,7 @@ import net.oschina.j2cache.exception.CacheException;
 import net.oschina.j2cache.service.cache.impl.CacheProviderHolder;
 import net.oschina.j2cache.model.Command;
 import net.oschina.j2cache.service.cluster.ClusterPolicy;
+import net.oschina.j2cache.service.cluster.CommandCodec;
 import org.jgroups.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,6 +31,7 @@ public class JGroupsClusterPolicy implements ClusterPolicy, Receiver {
     private JChannel channel;
     private String name;
     private CacheProviderHolder holder;
+    private CommandCodec codec;
 
     static {
         System.setProperty("java.net.preferIPv4Stack", "true"); //Disable IPv6 in JVM
@@ -47,6 +49,7 @@ public class JGroupsClusterPolicy implements ClusterPolicy, Receiver {
         this.configXml = props.getProperty("configXml");
         if(configXml == null || configXml.trim().length() == 0)
             this.configXml = "/network.xml";
+        this.codec = new CommandCodec(props, LOCAL_COMMAND_ID);
     }
 
     @Override
@@ -63,11 +66,17 @@ public class JGroupsClusterPolicy implements ClusterPolicy, Receiver {
         holder.getLevel1Cache(region).evict(keys);
     }
 
+    @Override
+    public void evict(String region, long stamp, String... keys) {
+        holder.getLevel1Cache(region).evict(stamp, keys);
+    }
+
     /**
      * 清除本地整个缓存区域
      * @param region 区域名称
      */
     public void clear(String region) {
+        holder.getLevel2Cache(region).onRemoteClear();
         holder.getLevel1Cache(region).clear();
     }
 
@@ -103,11 +112,16 @@ public class JGroupsClusterPolicy implements ClusterPolicy, Receiver {
         //不处理发送给自己的消息
         if(msg.getSrc().equals(channel.getAddress()))
             return ;
-        handleCommand(Command.parse((String)msg.getObject()));
+        //与旧版本节点一致，总是使用包含字符串的 ObjectMessage
+        if (msg instanceof ObjectMessage && msg.getObject() instanceof String)
+            handleCommand(codec.decodeText(msg.getObject()));
+        else
+            log.warn("Unexpected jgroups message type: {}", msg.getClass().getName());
     }
 
     @Override
     public void viewAccepted(View view) {
+        codec.setMembers(view.size());
         log.info("Group Members Changed, LIST: {}",
                 String.join(",", view.getMembers().stream().map(a -> a.toString()).toArray(String[]::new))
         );
@@ -117,7 +131,7 @@ public class JGroupsClusterPolicy implements ClusterPolicy, Receiver {
     public void publish(Command cmd) {
         try {
             cmd.setSrc(LOCAL_COMMAND_ID);
-            Message msg = new ObjectMessage(null, cmd.json());
+            Message msg = new ObjectMessage(null, codec.encodeText(cmd));
             channel.send(msg);
         } catch (Exception e) {
             log.error("Failed to send message to jgroups -> {}", cmd, e);
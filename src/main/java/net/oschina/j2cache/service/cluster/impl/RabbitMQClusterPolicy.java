@@ -5,6 +5,7 @@ import net.oschina.j2cache.exception.CacheException;
 import net.oschina.j2cache.service.cache.impl.CacheProviderHolder;
 import net.oschina.j2cache.model.Command;
 import net.oschina.j2cache.service.cluster.ClusterPolicy;
+import net.oschina.j2cache.service.cluster.CommandCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -36,12 +37,16 @@ public class RabbitMQClusterPolicy implements ClusterPolicy, Consumer {
     private Channel channel_publisher;
     private Channel channel_consumer;
     private String exchange;
+    private CommandCodec codec;
 
     /**
      * @param props RabbitMQ 配置信息
      */
     public RabbitMQClusterPolicy(Properties props){
         this.exchange = props.getProperty("exchange", "j2cache");
+        this.codec = new CommandCodec(props, LOCAL_COMMAND_ID);
+        if (codec.needsMembers())
+            log.warn("RabbitMQ can not report the number of nodes, broadcast stays json until format.members is set");
         factory = new ConnectionFactory();
         factory.setHost(props.getProperty("host" , "127.0.0.1"));
         factory.setPort(Integer.valueOf(props.getProperty("port", "5672")));
@@ -64,11 +69,17 @@ public class RabbitMQClusterPolicy implements ClusterPolicy, Consumer {
         holder.getLevel1Cache(region).evict(keys);
     }
 
+    @Override
+    public void evict(String region, long stamp, String... keys) {
+        holder.getLevel1Cache(region).evict(stamp, keys);
+    }
+
     /**
      * 清除本地整个缓存区域
      * @param region 区域名称
      */
     public void clear(String region) {
+        holder.getLevel2Cache(region).onRemoteClear();
         holder.getLevel1Cache(region).clear();
     }
 
@@ -80,7 +91,6 @@ public class RabbitMQClusterPolicy implements ClusterPolicy, Consumer {
             conn_publisher = factory.newConnection();
             channel_publisher = conn_publisher.createChannel();
             channel_publisher.exchangeDeclare(exchange, EXCHANGE_TYPE);
-            publish(Command.join());
 
             conn_consumer = factory.newConnection();
             channel_consumer = conn_consumer.createChannel();
@@ -89,6 +99,8 @@ public class RabbitMQClusterPolicy implements ClusterPolicy, Consumer {
             channel_consumer.queueBind(queueName, exchange, "");
 
             channel_consumer.basicConsume(queueName, true, this);
+            //订阅之后再宣告加入，保证能收到其他节点的 JOIN 应答
+            publish(Command.join());
 
             log.info("Connected to RabbitMQ:{}, time {}ms", conn_consumer, System.currentTimeMillis()-ct);
         } catch (Exception e) {
@@ -117,7 +129,7 @@ public class RabbitMQClusterPolicy implements ClusterPolicy, Consumer {
         }
         try {
             cmd.setSrc(LOCAL_COMMAND_ID);
-            channel_publisher.basicPublish(exchange, "", null, cmd.json().getBytes());
+            channel_publisher.basicPublish(exchange, "", null, codec.encode(cmd));
         } catch (IOException e ) {
             throw new CacheException("Failed to publish cmd to RabbitMQ!", e);
         }
@@ -142,7 +154,7 @@ public class RabbitMQClusterPolicy implements ClusterPolicy, Consumer {
 
     @Override
     public void handleDelivery(String s, Envelope envelope, AMQP.BasicProperties basicProperties, byte[] bytes) {
-        handleCommand(Command.parse(new String(bytes)));
+        handleCommand(codec.decode(bytes));
     }
 
     @Override
@@ -3,6 +3,7 @@ package net.oschina.j2cache.service.cluster.impl;
 import net.oschina.j2cache.service.cache.impl.CacheProviderHolder;
 import net.oschina.j2cache.model.Command;
 import net.oschina.j2cache.service.cluster.ClusterPolicy;
+import net.oschina.j2cache.service.cluster.CommandCodec;
 import org.apache.rocketmq.client.consumer.DefaultMQPushConsumer;
 import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyContext;
 import org.apache.rocketmq.client.consumer.listener.ConsumeConcurrentlyStatus;
@@ -39,11 +40,15 @@ public class RocketMQClusterPolicy implements ClusterPolicy, MessageListenerConc
     private String topic;
     private DefaultMQProducer producer;
     private DefaultMQPushConsumer consumer;
+    private CommandCodec codec;
 
     public RocketMQClusterPolicy(Properties props) {
         this.hosts = props.getProperty("hosts");
         String groupName = props.getProperty("name", "j2cache");
         this.topic = props.getProperty("topic", "j2cache");
+        this.codec = new CommandCodec(props, LOCAL_COMMAND_ID);
+        if (codec.needsMembers())
+            log.warn("RocketMQ can not report the number of nodes, broadcast stays json until format.members is set");
 
         this.producer = new DefaultMQProducer(groupName);
         this.producer.setNamesrvAddr(this.hosts);
@@ -68,11 +73,17 @@ public class RocketMQClusterPolicy implements ClusterPolicy, MessageListenerConc
         holder.getLevel1Cache(region).evict(keys);
     }
 
+    @Override
+    public void evict(String region, long stamp, String... keys) {
+        holder.getLevel1Cache(region).evict(stamp, keys);
+    }
+
     /**
      * 清除本地整个缓存区域
      * @param region 区域名称
      */
     public void clear(String region) {
+        holder.getLevel2Cache(region).onRemoteClear();
         holder.getLevel1Cache(region).clear();
     }
 
@@ -81,11 +92,12 @@ public class RocketMQClusterPolicy implements ClusterPolicy, MessageListenerConc
         this.holder = holder;
         try {
             this.producer.start();
-            publish(Command.join());
 
             this.consumer.subscribe(this.topic, "*");
             this.consumer.registerMessageListener(this);
             this.consumer.start();
+            //订阅之后再宣告加入，保证能收到其他节点的 JOIN 应答
+            publish(Command.join());
         } catch (MQClientException e) {
             log.error("Failed to start producer", e);
         }
@@ -94,18 +106,18 @@ public class RocketMQClusterPolicy implements ClusterPolicy, MessageListenerConc
     @Override
     public void publish(Command cmd) {
         cmd.setSrc(LOCAL_COMMAND_ID);
-        Message msg = new Message(topic,"","", cmd.json().getBytes());
+        Message msg = new Message(topic,"","", codec.encode(cmd));
         try {
             this.producer.send(msg);
         } catch (Exception e) {
-            log.error("Failed to publish {} to RocketMQ", cmd.json(), e);
+            log.error("Failed to publish {} to RocketMQ", cmd, e);
         }
     }
 
     @Override
     public ConsumeConcurrentlyStatus consumeMessage(List<MessageExt> list, ConsumeConcurrentlyContext context) {
         for(MessageExt msg : list) {
-            handleCommand(Command.parse(new String(msg.getBody())));
+            handleCommand(codec.decode(msg.getBody()));
         }
         return null;
     }
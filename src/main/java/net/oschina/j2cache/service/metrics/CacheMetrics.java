@@ -0,0 +1,169 @@
+package net.oschina.j2cache.service.metrics;
+
+import net.oschina.j2cache.model.CacheObject;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.IntSupplier;
+
+/**
+ * ClassName: CacheMetrics
+ * Package: net.oschina.j2cache.service.metrics
+ * Description:
+ * <p>J2Cache 运行时统计：按区域统计的命中/未命中/L2 耗时/loader 耗时，
+ * 以及全局的序列化耗时与大小、广播消息的发送与接收数量</p>
+ * <p>与 SerializationUtils 一样是进程内的静态工具，监控系统（例如 Micrometer）只读取这里的计数器</p>
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 19:25
+ */
+public class CacheMetrics {
+
+    private final static ConcurrentHashMap<String, RegionMetrics> regions = new ConcurrentHashMap<>();
+    private static volatile Consumer<RegionMetrics> regionListener;
+
+    private final static LongAdder serializeCount = new LongAdder();
+    private final static LongAdder serializeNanos = new LongAdder();
+    private final static LongAdder serializeBytes = new LongAdder();
+    private final static LongAdder deserializeCount = new LongAdder();
+    private final static LongAdder deserializeNanos = new LongAdder();
+    private final static LongAdder deserializeBytes = new LongAdder();
+
+    private final static LongAdder broadcastPublished = new LongAdder();
+    private final static LongAdder broadcastReceived = new LongAdder();
+    private final static LongAdder broadcastDropped = new LongAdder();
+    private static volatile IntSupplier broadcastQueueDepth;
+
+    private CacheMetrics() {
+    }
+
+    /**
+     * 返回区域的统计数据，不存在时创建
+     * @param region Cache region name
+     * @return region metrics
+     */
+    public static RegionMetrics region(String region) {
+        RegionMetrics metrics = regions.get(region);
+        if (metrics != null)
+            return metrics;
+        RegionMetrics created = new RegionMetrics(region);
+        metrics = regions.putIfAbsent(region, created);
+        if (metrics != null)
+            return metrics;
+        Consumer<RegionMetrics> listener = regionListener;
+        if (listener != null)
+            listener.accept(created);
+        return created;
+    }
+
+    /**
+     * @return 所有已经产生统计数据的区域
+     */
+    public static Collection<RegionMetrics> regions() {
+        return Collections.unmodifiableCollection(regions.values());
+    }
+
+    /**
+     * 注册新区域的监听器，已经存在的区域会立即回调一次，用于把区域注册到监控系统
+     * @param listener region listener
+     */
+    public static void onRegion(Consumer<RegionMetrics> listener) {
+        regionListener = listener;
+        if (listener != null)
+            regions.values().forEach(listener);
+    }
+
+    /**
+     * 按读取结果的层级统计一次命中或未命中（LEVEL_OUTER 表示由 loader 加载，计为未命中）
+     * @param obj cache object
+     * @return the same cache object
+     */
+    public static CacheObject record(CacheObject obj) {
+        RegionMetrics metrics = region(obj.getRegion());
+        if (obj.getLevel() == CacheObject.LEVEL_1)
+            metrics.l1Hit();
+        else if (obj.getLevel() == CacheObject.LEVEL_2 && obj.rawValue() != null)
+            metrics.l2Hit();
+        else
+            metrics.miss();
+        return obj;
+    }
+
+    public static void recordSerialize(long nanos, int bytes) {
+        serializeCount.increment();
+        serializeNanos.add(nanos);
+        serializeBytes.add(bytes);
+    }
+
+    public static void recordDeserialize(long nanos, int bytes) {
+        deserializeCount.increment();
+        deserializeNanos.add(nanos);
+        deserializeBytes.add(bytes);
+    }
+
+    public static void recordPublish() {
+        broadcastPublished.increment();
+    }
+
+    public static void recordReceive() {
+        broadcastReceived.increment();
+    }
+
+    public static void recordBroadcastDropped() {
+        broadcastDropped.increment();
+    }
+
+    /**
+     * 设置异步广播队列的长度来源，为 null 时表示没有使用异步广播
+     * @param depth queue size supplier
+     */
+    public static void setBroadcastQueueDepth(IntSupplier depth) {
+        broadcastQueueDepth = depth;
+    }
+
+    public static long getSerializeCount() {
+        return serializeCount.sum();
+    }
+
+    public static long getSerializeNanos() {
+        return serializeNanos.sum();
+    }
+
+    public static long getSerializeBytes() {
+        return serializeBytes.sum();
+    }
+
+    public static long getDeserializeCount() {
+        return deserializeCount.sum();
+    }
+
+    public static long getDeserializeNanos() {
+        return deserializeNanos.sum();
+    }
+
+    public static long getDeserializeBytes() {
+        return deserializeBytes.sum();
+    }
+
+    public static long getBroadcastPublished() {
+        return broadcastPublished.sum();
+    }
+
+    public static long getBroadcastReceived() {
+        return broadcastReceived.sum();
+    }
+
+    public static long getBroadcastDropped() {
+        return broadcastDropped.sum();
+    }
+
+    public static int getBroadcastQueueDepth() {
+        IntSupplier depth = broadcastQueueDepth;
+        return (depth == null) ? 0 : depth.getAsInt();
+    }
+
+}
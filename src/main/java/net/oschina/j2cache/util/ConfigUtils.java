@@ -0,0 +1,66 @@
+package net.oschina.j2cache.util;
+
+/**
+ * ClassName: ConfigUtils
+ * Package: net.oschina.j2cache.util
+ * Description: 一级缓存 region 配置（例如 region.Users = 512MB,30m）中容量与时间的解析
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/19 12:10
+ */
+public final class ConfigUtils {
+
+    private ConfigUtils() {
+    }
+
+    /**
+     * 解析字节数，单位支持 B/KB/MB/GB（K/M/G 亦可），没有单位时为字节
+     * @param value 例如 512MB
+     * @return bytes
+     */
+    public static long parseBytes(String value) {
+        String v = value.toUpperCase();
+        if (v.endsWith("B"))
+            v = v.substring(0, v.length() - 1);
+        if (v.isEmpty())
+            throw new IllegalArgumentException("Illegal capacity:" + value);
+        char unit = v.charAt(v.length() - 1);
+        if (Character.isDigit(unit))
+            return Long.parseLong(v);
+        long size = Long.parseLong(v.substring(0, v.length() - 1).trim());
+        switch (unit) {
+            case 'K':
+                return size << 10;
+            case 'M':
+                return size << 20;
+            case 'G':
+                return size << 30;
+            default:
+                throw new IllegalArgumentException("Unknown capacity unit:" + unit);
+        }
+    }
+
+    /**
+     * 解析时间，单位支持 s/m/h/d
+     * @param value 例如 30m
+     * @return seconds
+     */
+    public static long parseSeconds(String value) {
+        char unit = Character.toLowerCase(value.charAt(value.length()-1));
+        long seconds = Long.parseLong(value.substring(0, value.length() - 1));
+        switch(unit){
+            case 's'://seconds
+                return seconds;
+            case 'm'://minutes
+                return seconds * 60;
+            case 'h'://hours
+                return seconds * 3600;
+            case 'd'://days
+                return seconds * 86400;
+            default:
+                throw new IllegalArgumentException("Unknown expire unit:" + unit);
+        }
+    }
+
+}
@@ -0,0 +1,149 @@
+package net.oschina.j2cache.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * ClassName: KeyEncoder
+ * Package: net.oschina.j2cache.util
+ * Description:
+ * <p>缓存 key 的 UTF-8 编码器，region 前缀在构造时预先编码好</p>
+ * <p>每次编码只分配一个结果数组：先按 ASCII 直接逐字符写入，遇到非 ASCII 字符时
+ * 计算完整的 UTF-8 长度后重新编码，不再经过字符串拼接和 String.getBytes</p>
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 17:10
+ */
+public final class KeyEncoder {
+
+    private static final byte[] EMPTY = new byte[0];
+
+    private final byte[] prefix;
+
+    /**
+     * @param prefix 所有 key 的公共前缀（例如 "namespace:region:"），为空时不加前缀
+     */
+    public KeyEncoder(String prefix) {
+        this.prefix = (prefix == null || prefix.isEmpty()) ? EMPTY : prefix.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return 前缀的 UTF-8 编码后的长度
+     */
+    public int prefixLength() {
+        return prefix.length;
+    }
+
+    /**
+     * 编码 前缀 + key
+     * @param key cache key
+     * @return UTF-8 bytes
+     */
+    public byte[] encode(String key) {
+        return encode(prefix, key);
+    }
+
+    /**
+     * 解码由 encode 生成的字节数组，去掉前缀后返回原始的 key
+     * @param bytes encoded key
+     * @return cache key
+     */
+    public String decode(byte[] bytes) {
+        return new String(bytes, prefix.length, bytes.length - prefix.length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 不带前缀的 UTF-8 编码，结果与 key.getBytes(UTF_8) 相同
+     * @param key cache key
+     * @return UTF-8 bytes
+     */
+    public static byte[] utf8(String key) {
+        return encode(EMPTY, key);
+    }
+
+    private static byte[] encode(byte[] prefix, String key) {
+        int length = key.length();
+        byte[] bytes = new byte[prefix.length + length];
+        System.arraycopy(prefix, 0, bytes, 0, prefix.length);
+        int pos = prefix.length;
+        for (int i = 0; i < length; i++) {
+            char c = key.charAt(i);
+            if (c >= 0x80)
+                return encodeNonAscii(prefix, key);
+            bytes[pos++] = (byte) c;
+        }
+        return bytes;
+    }
+
+    private static byte[] encodeNonAscii(byte[] prefix, String key) {
+        byte[] bytes = new byte[prefix.length + utf8Length(key)];
+        System.arraycopy(prefix, 0, bytes, 0, prefix.length);
+        int pos = prefix.length;
+        int length = key.length();
+        for (int i = 0; i < length; i++) {
+            char c = key.charAt(i);
+            if (c < 0x80)
+                bytes[pos++] = (byte) c;
+            else if (c < 0x800) {
+                bytes[pos++] = (byte) (0xc0 | (c >> 6));
+                bytes[pos++] = (byte) (0x80 | (c & 0x3f));
+            }
+            else if (Character.isSurrogate(c)) {
+                int cp = surrogatePair(key, i);
+                if (cp < 0) {
+                    bytes[pos++] = '?'; //与 String.getBytes 一致，不成对的代理字符编码为 '?'
+                }
+                else {
+                    bytes[pos++] = (byte) (0xf0 | (cp >> 18));
+                    bytes[pos++] = (byte) (0x80 | ((cp >> 12) & 0x3f));
+                    bytes[pos++] = (byte) (0x80 | ((cp >> 6) & 0x3f));
+                    bytes[pos++] = (byte) (0x80 | (cp & 0x3f));
+                    i++;
+                }
+            }
+            else {
+                bytes[pos++] = (byte) (0xe0 | (c >> 12));
+                bytes[pos++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                bytes[pos++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        return bytes;
+    }
+
+    private static int utf8Length(String key) {
+        int length = key.length();
+        int bytes = 0;
+        for (int i = 0; i < length; i++) {
+            char c = key.charAt(i);
+            if (c < 0x80)
+                bytes += 1;
+            else if (c < 0x800)
+                bytes += 2;
+            else if (Character.isSurrogate(c)) {
+                if (surrogatePair(key, i) < 0)
+                    bytes += 1;
+                else {
+                    bytes += 4;
+                    i++;
+                }
+            }
+            else
+                bytes += 3;
+        }
+        return bytes;
+    }
+
+    /**
+     * @return 从 index 开始的代理对表示的 code point，不成对时返回 -1
+     */
+    private static int surrogatePair(String key, int index) {
+        char high = key.charAt(index);
+        if (Character.isHighSurrogate(high) && index + 1 < key.length()) {
+            char low = key.charAt(index + 1);
+            if (Character.isLowSurrogate(low))
+                return Character.toCodePoint(high, low);
+        }
+        return -1;
+    }
+
+}
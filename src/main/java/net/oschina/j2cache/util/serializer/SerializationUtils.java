@@ -1,6 +1,7 @@
 package net.oschina.j2cache.util.serializer;
 
 import net.oschina.j2cache.exception.CacheException;
+import net.oschina.j2cache.service.metrics.CacheMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -46,7 +47,10 @@ public class SerializationUtils {
     public static byte[] serialize(Object obj) throws IOException {
         if (obj == null)
             return null;
-        return g_serializer.serialize(obj);
+        long start = System.nanoTime();
+        byte[] bytes = g_serializer.serialize(obj);
+        CacheMetrics.recordSerialize(System.nanoTime() - start, (bytes == null) ? 0 : bytes.length);
+        return bytes;
     }
 
     public static byte[] serializeWithoutException(Object obj) {
@@ -66,6 +70,9 @@ public class SerializationUtils {
     public static Object deserialize(byte[] bytes) throws IOException {
         if (bytes == null || bytes.length == 0)
             return null;
-        return g_serializer.deserialize(bytes);
+        long start = System.nanoTime();
+        Object obj = g_serializer.deserialize(bytes);
+        CacheMetrics.recordDeserialize(System.nanoTime() - start, bytes.length);
+        return obj;
     }
 }
\ No newline at end of file
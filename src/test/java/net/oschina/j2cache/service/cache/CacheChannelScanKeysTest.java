@@ -0,0 +1,99 @@
+package net.oschina.j2cache.service.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ClassName: CacheChannelScanKeysTest
+ * Package: net.oschina.j2cache.service.cache
+ * Description: scanKeys 按需读取二级缓存的分页，并在两级缓存之间去重
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/19 10:20
+ */
+class CacheChannelScanKeysTest {
+
+    private final static int PAGES = 1000;
+    private final static int PAGE_SIZE = 100;
+
+    /**
+     * 模拟 SCAN：每页 PAGE_SIZE 个 key，共 PAGES 页，记录读取的页数
+     */
+    private static Iterator<String> pages(String prefix, AtomicInteger fetches) {
+        return new KeyPageIterator<Integer>(0) {
+            @Override
+            protected Integer fetch(Integer cursor, List<String> keys) {
+                fetches.incrementAndGet();
+                for (int i = 0; i < PAGE_SIZE; i++)
+                    keys.add(prefix + (cursor * PAGE_SIZE + i));
+                return (cursor + 1 < PAGES) ? cursor + 1 : null;
+            }
+        };
+    }
+
+    @Test
+    void level2IsNotScannedUntilLevel1IsExhausted() {
+        AtomicInteger level2Fetches = new AtomicInteger();
+        AtomicInteger level2Opened = new AtomicInteger();
+        Iterator<String> keys = CacheChannel.scanStream(Arrays.asList("a", "b").iterator(), () -> {
+            level2Opened.incrementAndGet();
+            return pages("k", level2Fetches);
+        }).iterator();
+
+        assertEquals("a", keys.next());
+        assertEquals("b", keys.next());
+        assertEquals(0, level2Opened.get());
+        assertEquals("k0", keys.next());
+        assertEquals(1, level2Fetches.get());
+    }
+
+    @Test
+    void level2PagesArePulledOnDemand() {
+        AtomicInteger fetches = new AtomicInteger();
+        Iterator<String> keys = CacheChannel.scanStream(Arrays.<String>asList().iterator(), () -> pages("k", fetches)).iterator();
+
+        assertTrue(keys.hasNext());
+        assertEquals(1, fetches.get());
+        for (int i = 0; i < PAGE_SIZE; i++)
+            keys.next();
+        assertEquals(1, fetches.get());
+        keys.next();
+        assertEquals(2, fetches.get());
+    }
+
+    @Test
+    void shortCircuitOperationsStopEarly() {
+        AtomicInteger fetches = new AtomicInteger();
+        assertTrue(CacheChannel.scanStream(Arrays.<String>asList().iterator(), () -> pages("k", fetches)).anyMatch("k150"::equals));
+        assertEquals(2, fetches.get());
+
+        fetches.set(0);
+        List<String> first = CacheChannel.scanStream(Arrays.<String>asList().iterator(), () -> pages("k", fetches))
+                .limit(10).collect(Collectors.toList());
+        assertEquals(10, first.size());
+        assertEquals(1, fetches.get());
+    }
+
+    @Test
+    void keysInBothLevelsAreReturnedOnce() {
+        AtomicInteger fetches = new AtomicInteger();
+        List<String> keys = CacheChannel.scanStream(Arrays.asList("k1", "x", "x").iterator(), () -> pages("k", fetches))
+                .collect(Collectors.toList());
+
+        assertEquals(PAGES * PAGE_SIZE + 1, keys.size());
+        assertEquals(1, keys.stream().filter("k1"::equals).count());
+        assertEquals(1, keys.stream().filter("x"::equals).count());
+        assertFalse(keys.contains(null));
+    }
+
+}
@@ -0,0 +1,188 @@
+package net.oschina.j2cache.service.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ClassName: SingleFlightTest
+ * Package: net.oschina.j2cache.service.cache
+ * Description: 并发加载的合并、异常的传播与清理、重入，以及超过登记上限后的分段锁
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/19 13:10
+ */
+class SingleFlightTest {
+
+    private final static int CALLERS = 16;
+
+    /**
+     * 所有调用者同时调用 execute，loader 等到其他调用者全部进入等待后才返回
+     * （调用者线程只会在 execute 内部进入 WAITING：等待共享的加载结果或分段锁）
+     * @return 每个调用者的结果或抛出的异常
+     */
+    private static List<Object> race(SingleFlight flight, Supplier<Object> loader) throws Exception {
+        List<Thread> callers = new ArrayList<>();
+        List<Object> results = new ArrayList<>();
+        Supplier<Object> blocking = () -> {
+            awaitOthersWaiting(callers);
+            return loader.get();
+        };
+        for (int i = 0; i < CALLERS; i++) {
+            Thread caller = new Thread(() -> {
+                Object result;
+                try {
+                    result = flight.execute("users", "1", blocking);
+                } catch (Throwable e) {
+                    result = e;
+                }
+                synchronized (results) {
+                    results.add(result);
+                }
+            });
+            callers.add(caller);
+        }
+        callers.forEach(Thread::start);
+        for (Thread caller : callers) {
+            caller.join(TimeUnit.SECONDS.toMillis(10));
+            assertTrue(!caller.isAlive(), "caller is blocked");
+        }
+        return results;
+    }
+
+    private static void awaitOthersWaiting(List<Thread> callers) {
+        long deadline = System.currentTimeMillis() + 5000;
+        for (Thread caller : callers) {
+            if (caller == Thread.currentThread())
+                continue;
+            while (caller.getState() != Thread.State.WAITING && caller.getState() != Thread.State.TIMED_WAITING
+                    && caller.getState() != Thread.State.TERMINATED) {
+                if (System.currentTimeMillis() > deadline)
+                    throw new AssertionError("callers did not wait");
+                Thread.yield();
+            }
+        }
+    }
+
+    private static <T> T withTimeout(Supplier<T> call) throws Exception {
+        return CompletableFuture.supplyAsync(call).get(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void concurrentCallersShareOneLoad() throws Exception {
+        SingleFlight flight = new SingleFlight();
+        AtomicInteger loads = new AtomicInteger();
+        Object value = new Object();
+
+        List<Object> results = race(flight, () -> {
+            loads.incrementAndGet();
+            return value;
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals(CALLERS, results.size());
+        for (Object result : results)
+            assertSame(value, result);
+        assertEquals(0, flight.inFlight());
+    }
+
+    @Test
+    void loaderExceptionReachesEveryWaiter() throws Exception {
+        SingleFlight flight = new SingleFlight();
+        AtomicInteger loads = new AtomicInteger();
+        IllegalStateException failure = new IllegalStateException("load failed");
+
+        List<Object> results = race(flight, () -> {
+            loads.incrementAndGet();
+            throw failure;
+        });
+
+        assertEquals(1, loads.get());
+        assertEquals(CALLERS, results.size());
+        for (Object result : results)
+            assertSame(failure, result);
+
+        //失败的加载不会留在登记表中，下一次调用重新执行 loader
+        assertEquals(0, flight.inFlight());
+        assertEquals("ok", flight.execute("users", "1", () -> "ok"));
+    }
+
+    @Test
+    void reentrantCallDoesNotDeadlock() throws Exception {
+        SingleFlight flight = new SingleFlight();
+        String result = withTimeout(() -> flight.execute("users", "1",
+                () -> "outer:" + flight.execute("users", "1", () -> "inner")));
+
+        assertEquals("outer:inner", result);
+        assertEquals(0, flight.inFlight());
+    }
+
+    @Test
+    void stripedFallbackStillDeduplicates() throws Exception {
+        SingleFlight flight = new SingleFlight(4, 1);
+        CountDownLatch busy = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        //占满登记表，之后的加载都走分段锁
+        Thread holder = new Thread(() -> flight.execute("users", "busy", () -> {
+            busy.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return null;
+        }));
+        holder.start();
+        busy.await();
+        assertEquals(1, flight.inFlight());
+
+        try {
+            Map<String, Object> cache = new ConcurrentHashMap<>();
+            AtomicInteger loads = new AtomicInteger();
+            AtomicInteger running = new AtomicInteger();
+            AtomicInteger maxRunning = new AtomicInteger();
+            Object value = new Object();
+
+            //loader 按约定先检查缓存：分段锁使调用者依次执行，只有第一个真正加载
+            List<Object> results = race(flight, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    return cache.computeIfAbsent("1", k -> {
+                        loads.incrementAndGet();
+                        return value;
+                    });
+                } finally {
+                    running.decrementAndGet();
+                }
+            });
+
+            assertEquals(1, loads.get());
+            assertEquals(1, maxRunning.get());
+            for (Object result : results)
+                assertSame(value, result);
+            assertEquals(1, flight.inFlight());
+
+            //分段锁可重入
+            assertEquals("outer:inner", withTimeout(() -> flight.execute("users", "2",
+                    () -> "outer:" + flight.execute("users", "2", () -> "inner"))));
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+        assertEquals(0, flight.inFlight());
+    }
+
+}
@@ -0,0 +1,194 @@
+package net.oschina.j2cache.service.cache.impl.lettuce;
+
+import io.lettuce.core.api.push.PushMessage;
+import net.oschina.j2cache.config.J2CacheProperties;
+import net.oschina.j2cache.service.cache.Level1Cache;
+import net.oschina.j2cache.service.cache.impl.CacheProviderHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * ClassName: LettuceTrackingClusterPolicyTest
+ * Package: net.oschina.j2cache.service.cache.impl.lettuce
+ * Description: Redis 推送的 invalidate 消息到一级缓存删除的转换，不需要 Redis
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/18 23:55
+ */
+class LettuceTrackingClusterPolicyTest {
+
+    private CacheProviderHolder holder;
+    private LettuceTrackingClusterPolicy policy;
+    private Level1Cache users;
+    private Level1Cache blogs;
+
+    @BeforeEach
+    void setUp() {
+        J2CacheProperties config = new J2CacheProperties();
+        config.setL1CacheName("caffeine");
+        config.setL2CacheName("none");
+        Properties l1 = new Properties();
+        l1.setProperty("region.default", "1000,1h");
+        config.setL1CacheProperties(l1);
+        config.setL2CacheProperties(new Properties());
+        holder = CacheProviderHolder.builder().withConfig(config).withListener((region, key) -> {}).build();
+        policy = new LettuceTrackingClusterPolicy();
+
+        users = holder.getLevel1Cache("users");
+        blogs = holder.getLevel1Cache("blogs");
+        users.put("1", "u1");
+        users.put("2", "u2");
+        users.put("a:b", "uab");
+        blogs.put("1", "b1");
+    }
+
+    @AfterEach
+    void tearDown() {
+        holder.shutdown();
+    }
+
+    @Test
+    void evictsGenericKeys() {
+        policy.init(holder, "ns", false, false);
+        policy.onPushMessage(invalidate("ns:users:1", "ns:users:a:b"));
+
+        assertNull(users.get("1"));
+        assertNull(users.get("a:b"));
+        assertEquals("u2", users.get("2"));
+        assertEquals("b1", blogs.get("1"));
+    }
+
+    @Test
+    void dropsLateFillReadBeforeInvalidation() {
+        policy.init(holder, "ns", false, false);
+        long readTime = System.currentTimeMillis() - 1000;
+        policy.onPushMessage(invalidate("ns:users:1"));
+
+        //收到失效通知之前读取二级缓存、之后才写入一级缓存的旧值
+        users.putRead("1", "stale", readTime);
+        assertNull(users.get("1"));
+
+        users.putRead("1", "fresh", System.currentTimeMillis());
+        assertEquals("fresh", users.get("1"));
+    }
+
+    @Test
+    void evictsWithoutNamespace() {
+        policy.init(holder, "", false, false);
+        policy.onPushMessage(invalidate("blogs:1"));
+
+        assertNull(blogs.get("1"));
+        assertEquals("u1", users.get("1"));
+    }
+
+    @Test
+    void ignoresKeysOutsideNamespace() {
+        policy.init(holder, "ns", false, false);
+        policy.onPushMessage(invalidate("other:users:1", "ns:users", "nsx:users:2"));
+
+        assertEquals("u1", users.get("1"));
+        assertEquals("u2", users.get("2"));
+    }
+
+    @Test
+    void clearsRegionForHashStorage() {
+        policy.init(holder, "ns", true, false);
+        policy.onPushMessage(invalidate("ns:users"));
+
+        assertNull(users.get("1"));
+        assertNull(users.get("2"));
+        assertEquals("b1", blogs.get("1"));
+    }
+
+    @Test
+    void evictsGenerationKeys() {
+        policy.init(holder, "ns", false, true);
+        policy.onPushMessage(invalidate("ns:users:3:1", "ns:users:3:a:b", "ns:blogs:x:1"));
+
+        assertNull(users.get("1"));
+        assertNull(users.get("a:b"));
+        assertEquals("u2", users.get("2"));
+        assertEquals("b1", blogs.get("1"));
+    }
+
+    @Test
+    void clearsRegionWhenGenerationChanges() {
+        policy.init(holder, "ns", false, true);
+        policy.onPushMessage(invalidate("ns:users#gen"));
+
+        assertNull(users.get("1"));
+        assertNull(users.get("2"));
+        assertEquals("b1", blogs.get("1"));
+    }
+
+    @Test
+    void clearsAllRegionsOnFlush() {
+        policy.init(holder, "ns", false, false);
+        policy.onPushMessage(push("invalidate", null));
+
+        assertNull(users.get("1"));
+        assertNull(blogs.get("1"));
+    }
+
+    @Test
+    void ignoresOtherPushMessages() {
+        policy.init(holder, "ns", false, false);
+        policy.onPushMessage(push("message", Arrays.asList("ns:users:1")));
+
+        assertEquals("u1", users.get("1"));
+    }
+
+    private static PushMessage invalidate(String... keys) {
+        return push("invalidate", Arrays.asList(keys));
+    }
+
+    /**
+     * 与 Redis 推送的格式相同：[type, [key ...]]，FLUSHDB 时 key 列表为 null
+     */
+    private static PushMessage push(String type, List<String> keys) {
+        return new PushMessage() {
+            @Override
+            public String getType() {
+                return type;
+            }
+
+            @Override
+            public List<Object> getContent() {
+                return getContent(buffer -> buffer);
+            }
+
+            @Override
+            public List<Object> getContent(Function<ByteBuffer, Object> decodeFunction) {
+                List<Object> content = new ArrayList<>();
+                content.add(decodeFunction.apply(utf8(type)));
+                if (keys == null)
+                    content.add(null);
+                else {
+                    List<Object> decoded = new ArrayList<>();
+                    for (String key : keys)
+                        decoded.add(decodeFunction.apply(utf8(key)));
+                    content.add(decoded);
+                }
+                return content;
+            }
+        };
+    }
+
+    private static ByteBuffer utf8(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
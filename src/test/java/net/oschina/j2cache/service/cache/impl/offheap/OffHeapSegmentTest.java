@@ -0,0 +1,191 @@
+package net.oschina.j2cache.service.cache.impl.offheap;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ClassName: OffHeapSegmentTest
+ * Package: net.oschina.j2cache.service.cache.impl.offheap
+ * Description: 环形日志的回绕与回收、CLOCK 移动、索引的后移删除、过期与超大数据
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/19 12:30
+ */
+class OffHeapSegmentTest {
+
+    private final static long NOW = 1000L;
+
+    private static byte[] key(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int hash(String key) {
+        return Arrays.hashCode(key(key));
+    }
+
+    private static byte[] value(int seed, int length) {
+        byte[] value = new byte[length];
+        for (int i = 0; i < length; i++)
+            value[i] = (byte) (seed * 31 + i);
+        return value;
+    }
+
+    private static void put(OffHeapSegment segment, String key, byte[] value) {
+        segment.put(key(key), hash(key), value, 0, NOW, NOW, null);
+    }
+
+    private static byte[] get(OffHeapSegment segment, String key) {
+        return segment.get(key(key), hash(key), NOW);
+    }
+
+    @Test
+    void ringWrapsAroundWithoutCorruption() {
+        OffHeapSegment segment = new OffHeapSegment(1024);
+        for (int i = 0; i < 500; i++) {
+            //大小不同的条目，使尾部经常需要填充
+            put(segment, "k" + i, value(i, 10 + (i % 7) * 23));
+            assertTrue(segment.used() <= 1024);
+            for (int j = Math.max(0, i - 20); j <= i; j++) {
+                byte[] v = get(segment, "k" + j);
+                if (v != null)
+                    assertArrayEquals(value(j, 10 + (j % 7) * 23), v);
+            }
+        }
+        assertArrayEquals(value(499, 10 + (499 % 7) * 23), get(segment, "k499"));
+        assertNull(get(segment, "k0"));
+
+        List<String> keys = new ArrayList<>();
+        segment.keys(NOW, keys);
+        assertEquals(segment.count(), keys.size());
+        for (String key : keys)
+            assertTrue(get(segment, key) != null);
+    }
+
+    @Test
+    void accessedEntriesAreRelocatedOnReclaim() {
+        OffHeapSegment segment = new OffHeapSegment(1024);
+        segment.put(key("hot"), hash("hot"), value(1, 100), 0, NOW, 42L, null);
+        put(segment, "cold", value(2, 100));
+        assertArrayEquals(value(1, 100), get(segment, "hot"));
+
+        //writeTime 不设置访问标记
+        for (int i = 0; segment.writeTime(key("cold"), hash("cold")) >= 0; i++)
+            put(segment, "fill" + i, value(i, 100));
+
+        //移动后数据与写入时间不变，访问标记被清除
+        assertArrayEquals(value(1, 100), segment.get(key("hot"), hash("hot"), NOW));
+        assertEquals(42L, segment.writeTime(key("hot"), hash("hot")));
+
+        //持续读取的数据一直留在缓存中
+        for (int i = 100; i < 200; i++) {
+            put(segment, "fill" + i, value(i, 100));
+            assertArrayEquals(value(1, 100), get(segment, "hot"));
+        }
+
+        //不再读取后在下一轮回收中被淘汰
+        for (int i = 200; i < 230; i++)
+            put(segment, "fill" + i, value(i, 100));
+        assertNull(get(segment, "hot"));
+    }
+
+    @Test
+    void probeContinuesAfterDelete() {
+        OffHeapSegment segment = new OffHeapSegment(4096);
+        //相同的 hash 落在同一个槽位，线性探测形成一串
+        for (String k : new String[]{"a", "b", "c"})
+            segment.put(key(k), 5, value(k.charAt(0), 8), 0, NOW, NOW, null);
+        assertTrue(segment.remove(key("a"), 5));
+        assertArrayEquals(value('b', 8), segment.get(key("b"), 5, NOW));
+        assertArrayEquals(value('c', 8), segment.get(key("c"), 5, NOW));
+        assertFalse(segment.remove(key("a"), 5));
+        assertNull(segment.get(key("a"), 5, NOW));
+
+        //探测序列跨过索引数组的末尾
+        for (String k : new String[]{"x", "y", "z"})
+            segment.put(key(k), -1, value(k.charAt(0), 8), 0, NOW, NOW, null);
+        segment.put(key("w"), 0, value('w', 8), 0, NOW, NOW, null);
+        assertTrue(segment.remove(key("x"), -1));
+        assertArrayEquals(value('y', 8), segment.get(key("y"), -1, NOW));
+        assertArrayEquals(value('z', 8), segment.get(key("z"), -1, NOW));
+        assertArrayEquals(value('w', 8), segment.get(key("w"), 0, NOW));
+        assertTrue(segment.remove(key("z"), -1));
+        assertArrayEquals(value('y', 8), segment.get(key("y"), -1, NOW));
+        assertArrayEquals(value('w', 8), segment.get(key("w"), 0, NOW));
+        assertEquals(4, segment.count());
+
+        //删除后重新写入
+        segment.put(key("a"), 5, value('A', 8), 0, NOW, NOW, null);
+        assertArrayEquals(value('A', 8), segment.get(key("a"), 5, NOW));
+    }
+
+    @Test
+    void expiredEntriesAreInvisible() {
+        OffHeapSegment segment = new OffHeapSegment(1024);
+        segment.put(key("e"), hash("e"), value(1, 16), NOW + 100, NOW, NOW, null);
+
+        assertArrayEquals(value(1, 16), segment.get(key("e"), hash("e"), NOW + 99));
+        assertNull(segment.get(key("e"), hash("e"), NOW + 100));
+        List<String> keys = new ArrayList<>();
+        segment.keys(NOW + 100, keys);
+        assertTrue(keys.isEmpty());
+
+        assertFalse(segment.removeExpired(key("e"), hash("e"), NOW + 99));
+        assertTrue(segment.removeExpired(key("e"), hash("e"), NOW + 100));
+        assertEquals(0, segment.count());
+    }
+
+    @Test
+    void reclaimReportsExpiredKeys() {
+        OffHeapSegment segment = new OffHeapSegment(1024);
+        segment.put(key("e"), hash("e"), value(1, 100), NOW + 100, NOW, NOW, null);
+        List<String> expired = new ArrayList<>();
+        for (int i = 0; expired.isEmpty() && i < 100; i++)
+            segment.put(key("k" + i), hash("k" + i), value(i, 100), 0, NOW + 200, NOW + 200, expired);
+
+        assertEquals(Arrays.asList("e"), expired);
+    }
+
+    @Test
+    void oversizeValuesAreNotStored() {
+        OffHeapSegment segment = new OffHeapSegment(256);
+        assertEquals(256, segment.maxEntrySize());
+        put(segment, "big", value(1, 16));
+        put(segment, "other", value(2, 16));
+
+        //超过分段大小的新值不能保存，旧值也不能留下
+        put(segment, "big", value(3, 300));
+        assertNull(get(segment, "big"));
+        assertArrayEquals(value(2, 16), get(segment, "other"));
+
+        //正好占满整个分段时淘汰其他全部数据
+        put(segment, "big", value(4, 256 - 40 - 3));
+        assertArrayEquals(value(4, 256 - 40 - 3), get(segment, "big"));
+        assertNull(get(segment, "other"));
+        assertEquals(1, segment.count());
+    }
+
+    @Test
+    void freedSegmentIsEmpty() {
+        OffHeapSegment segment = new OffHeapSegment(1024);
+        put(segment, "k", value(1, 16));
+        segment.free();
+
+        assertNull(get(segment, "k"));
+        put(segment, "k", value(1, 16));
+        assertNull(get(segment, "k"));
+        assertEquals(0, segment.count());
+        assertEquals(0, segment.used());
+    }
+
+}
@@ -0,0 +1,204 @@
+package net.oschina.j2cache.service.cluster;
+
+import net.oschina.j2cache.model.Command;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ClassName: CommandCodecTest
+ * Package: net.oschina.j2cache.service.cluster
+ * Description: 广播命令两种格式的编解码、新旧版本节点混合部署时的格式选择，以及只能传输字符串的通道（JGroups）
+ *
+ * @author JX
+ * @version 1.0
+ * @date 2026/10/19 11:30
+ */
+class CommandCodecTest {
+
+    private final static int LOCAL = 1;
+    private final static String LEGACY_EVICT = "{\"operator\":2,\"region\":\"users\",\"keys\":[\"1\"],\"src\":99}";
+
+    private static CommandCodec codec(String format, String members) {
+        Properties props = new Properties();
+        props.setProperty("format", format);
+        if (members != null)
+            props.setProperty("format.members", members);
+        return new CommandCodec(props, LOCAL);
+    }
+
+    private static Command evict() {
+        Command cmd = new Command(Command.OPT_EVICT_KEY, "用户", "1", "键:2", null, "");
+        cmd.setSrc(LOCAL);
+        cmd.setStamp(1760000000123L);
+        return cmd;
+    }
+
+    /**
+     * 模拟其他新版本节点发来的 JOIN（或 JOIN 应答）
+     */
+    private static void announce(CommandCodec codec, int src) {
+        Command join = Command.join();
+        join.setSrc(src);
+        codec.decode(codec(CommandCodec.FORMAT_JSON, null).encode(join));
+    }
+
+    private static void assertCommand(Command expected, Command actual) {
+        assertEquals(expected.getOperator(), actual.getOperator());
+        assertEquals(expected.getSrc(), actual.getSrc());
+        assertEquals(expected.getRegion(), actual.getRegion());
+        assertArrayEquals(expected.getKeys(), actual.getKeys());
+        assertEquals(expected.getStamp(), actual.getStamp());
+        assertEquals(Command.PROTOCOL_VERSION, actual.getVersion());
+    }
+
+    @Test
+    void jsonRoundTrip() {
+        CommandCodec codec = codec(CommandCodec.FORMAT_JSON, null);
+        byte[] bytes = codec.encode(evict());
+
+        assertEquals('{', bytes[0]);
+        assertCommand(evict(), codec(CommandCodec.FORMAT_BINARY, null).decode(bytes));
+    }
+
+    @Test
+    void binaryRoundTrip() {
+        CommandCodec codec = codec(CommandCodec.FORMAT_BINARY, "2");
+        announce(codec, 2);
+        assertTrue(codec.isBinary());
+
+        byte[] bytes = codec.encode(evict());
+        assertEquals((byte) 0xFE, bytes[0]);
+        assertTrue(bytes.length < evict().json().length());
+        assertCommand(evict(), codec(CommandCodec.FORMAT_JSON, null).decode(bytes));
+
+        Command clear = new Command(Command.OPT_CLEAR_KEY, "users");
+        Command decoded = codec.decode(codec.encode(clear));
+        assertEquals(Command.OPT_CLEAR_KEY, decoded.getOperator());
+        assertEquals("users", decoded.getRegion());
+        assertEquals(0, decoded.getKeys().length);
+    }
+
+    @Test
+    void truncatedBinaryIsIgnored() {
+        CommandCodec codec = codec(CommandCodec.FORMAT_BINARY, "2");
+        announce(codec, 2);
+        byte[] bytes = codec.encode(evict());
+        byte[] truncated = new byte[bytes.length - 3];
+        System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+
+        assertNull(codec.decode(truncated));
+    }
+
+    @Test
+    void sendsJsonUntilEveryPeerAnnounced() {
+        CommandCodec codec = codec(CommandCodec.FORMAT_BINARY, null);
+        assertFalse(codec.isBinary());
+
+        codec.setMembers(3);
+        announce(codec, 2);
+        assertFalse(codec.isBinary());
+        assertEquals('{', codec.encode(evict())[0]);
+
+        announce(codec, 3);
+        assertTrue(codec.isBinary());
+
+        //第四个节点加入，在它宣告之前（例如从不发送消息的旧节点）退回 JSON
+        codec.setMembers(4);
+        assertFalse(codec.isBinary());
+    }
+
+    @Test
+    void unknownMembershipStaysJson() {
+        CommandCodec codec = codec(CommandCodec.FORMAT_BINARY, null);
+        assertTrue(codec.needsMembers());
+        announce(codec, 2);
+        announce(codec, 3);
+
+        assertFalse(codec.isBinary());
+    }
+
+    @Test
+    void ownMessagesAreNotAnnouncements() {
+        CommandCodec codec = codec(CommandCodec.FORMAT_BINARY, "2");
+        announce(codec, LOCAL);
+
+        assertFalse(codec.isBinary());
+    }
+
+    @Test
+    void quitRemovesPeer() {
+        CommandCodec codec = codec(CommandCodec.FORMAT_BINARY, "2");
+        announce(codec, 2);
+        assertTrue(codec.isBinary());
+
+        Command quit = Command.quit();
+        quit.setSrc(2);
+        codec.decode(codec(CommandCodec.FORMAT_JSON, null).encode(quit));
+
+        assertFalse(codec.isBinary());
+    }
+
+    @Test
+    void legacyNodeForcesJson() {
+        CommandCodec codec = codec(CommandCodec.FORMAT_BINARY, "2");
+        announce(codec, 2);
+        assertTrue(codec.isBinary());
+
+        Command legacy = codec.decode(LEGACY_EVICT.getBytes(StandardCharsets.UTF_8));
+        assertEquals(0, legacy.getVersion());
+        assertEquals("users", legacy.getRegion());
+        assertFalse(codec.isBinary());
+        assertEquals('{', codec.encode(evict())[0]);
+    }
+
+    @Test
+    void legacyFallbackExpires() {
+        Properties props = new Properties();
+        props.setProperty("format", CommandCodec.FORMAT_BINARY);
+        props.setProperty("format.members", "2");
+        props.setProperty("format.fallback", "0");
+        CommandCodec codec = new CommandCodec(props, LOCAL);
+        announce(codec, 2);
+
+        codec.decode(LEGACY_EVICT.getBytes(StandardCharsets.UTF_8));
+        assertTrue(codec.isBinary());
+    }
+
+    @Test
+    void textRoundTripInBothFormats() {
+        CommandCodec json = codec(CommandCodec.FORMAT_JSON, null);
+        String text = json.encodeText(evict());
+        assertEquals('{', text.charAt(0));
+        assertCommand(evict(), json.decodeText(text));
+
+        CommandCodec binary = codec(CommandCodec.FORMAT_BINARY, "2");
+        announce(binary, 2);
+        text = binary.encodeText(evict());
+        assertEquals(0xFE, text.charAt(0));
+        for (int i = 0; i < text.length(); i++)
+            assertTrue(text.charAt(i) <= 0xFF);
+        //与 JGroups 传输的 String 相同：逐字节映射，多字节的 UTF-8 key 也能还原
+        assertArrayEquals(binary.encode(evict()), text.getBytes(StandardCharsets.ISO_8859_1));
+        assertCommand(evict(), json.decodeText(new String(text.toCharArray())));
+    }
+
+    @Test
+    void textPathAcceptsLegacyJson() {
+        CommandCodec codec = codec(CommandCodec.FORMAT_BINARY, "2");
+        announce(codec, 2);
+
+        Command legacy = codec.decodeText(LEGACY_EVICT);
+        assertEquals(99, legacy.getSrc());
+        assertFalse(codec.isBinary());
+        assertNull(codec.decodeText(""));
+    }
+
+}